@@ -0,0 +1,62 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.serverless.workflow.api.events.TriggerEvent;
+
+/**
+ * Expression prepared once by {@link ExpressionEvaluator#compile(String)} and evaluated many times.
+ * Implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+    boolean evaluate(TriggerEvent triggerEvent);
+
+    /**
+     * Evaluates the expression against a batch of events. The results are cleared first, then bit i is set
+     * when the expression matches event i. The default implementation loops, compiled expressions can
+     * override it with a faster one.
+     * @return the results
+     */
+    default BitSet evaluate(List<TriggerEvent> triggerEvents,
+                            BitSet results) {
+        results.clear();
+        for (int i = 0; i < triggerEvents.size(); i++) {
+            if (evaluate(triggerEvents.get(i))) {
+                results.set(i);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Evaluates the expression against an array of events, see {@link #evaluate(List, BitSet)}.
+     * @return the results
+     */
+    default BitSet evaluate(TriggerEvent[] triggerEvents,
+                            BitSet results) {
+        return evaluate(Arrays.asList(triggerEvents),
+                        results);
+    }
+}
@@ -18,6 +18,9 @@
 
 package org.serverless.workflow.api;
 
+import java.util.BitSet;
+import java.util.List;
+
 import org.serverless.workflow.api.events.TriggerEvent;
 
 public interface ExpressionEvaluator {
@@ -26,4 +29,53 @@ public interface ExpressionEvaluator {
 
     boolean evaluate(String expression,
                      TriggerEvent triggerEvent);
+
+    /**
+     * Parses the expression once for repeated evaluation. The default implementation evaluates the
+     * expression text on every call, evaluators which can parse ahead should override it.
+     */
+    default CompiledExpression compile(String expression) {
+        return triggerEvent -> evaluate(expression,
+                                        triggerEvent);
+    }
+
+    /**
+     * Evaluates one expression against a batch of events, see {@link CompiledExpression#evaluate(List, BitSet)}.
+     * Callers evaluating the same expression repeatedly should compile it once and use the compiled expression.
+     * @return the results
+     */
+    default BitSet evaluate(String expression,
+                            List<TriggerEvent> triggerEvents,
+                            BitSet results) {
+        return compile(expression).evaluate(triggerEvents,
+                                            results);
+    }
+
+    /**
+     * Evaluates one expression against an array of events, see {@link CompiledExpression#evaluate(List, BitSet)}.
+     * @return the results
+     */
+    default BitSet evaluate(String expression,
+                            TriggerEvent[] triggerEvents,
+                            BitSet results) {
+        return compile(expression).evaluate(triggerEvents,
+                                            results);
+    }
+
+    /**
+     * Evaluates many expressions against one event. The results are cleared first, then bit i is set when
+     * expression i matches the event. The default implementation evaluates each compiled expression in turn.
+     * @return the results
+     */
+    default BitSet evaluate(List<String> expressions,
+                            TriggerEvent triggerEvent,
+                            BitSet results) {
+        results.clear();
+        for (int i = 0; i < expressions.size(); i++) {
+            if (compile(expressions.get(i)).evaluate(triggerEvent)) {
+                results.set(i);
+            }
+        }
+        return results;
+    }
 }
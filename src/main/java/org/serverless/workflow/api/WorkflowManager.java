@@ -18,7 +18,19 @@
 
 package org.serverless.workflow.api;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.serverless.workflow.api.interfaces.Extension;
+import org.serverless.workflow.api.mapper.IdGeneration;
+import org.serverless.workflow.api.mapper.WorkflowFormat;
+import org.serverless.workflow.api.mapper.WorkflowObjectMappers;
 
 public interface WorkflowManager {
 
@@ -44,7 +56,163 @@ public interface WorkflowManager {
 
     String toYaml();
 
+    /**
+     * @param indent false to write compact, single line JSON
+     */
+    default String toJson(boolean indent) {
+        try {
+            return getWorkflowWriter(WorkflowFormat.JSON,
+                                     indent).writeValueAsString(getWorkflow());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the workflow as JSON directly to the stream. The stream is not closed.
+     */
+    default void toJson(OutputStream out,
+                        boolean indent) throws IOException {
+        WorkflowObjectMappers.write(getWorkflowWriter(WorkflowFormat.JSON,
+                                                      indent),
+                                    getWorkflow(),
+                                    out);
+    }
+
+    /**
+     * Writes the workflow as JSON directly to a blocking channel. The channel is not closed.
+     */
+    default void toJson(WritableByteChannel channel,
+                        boolean indent) throws IOException {
+        toJson(Channels.newOutputStream(channel),
+               indent);
+    }
+
+    /**
+     * Writes the workflow as JSON into the buffer, starting at its current position.
+     * @return number of bytes written
+     * @throws java.nio.BufferOverflowException if the workflow does not fit in the remaining buffer
+     */
+    default int toJson(ByteBuffer buffer,
+                       boolean indent) throws IOException {
+        return WorkflowObjectMappers.write(getWorkflowWriter(WorkflowFormat.JSON,
+                                                             indent),
+                                           getWorkflow(),
+                                           buffer);
+    }
+
+    /**
+     * Writes the workflow as YAML directly to the stream. The stream is not closed.
+     */
+    default void toYaml(OutputStream out) throws IOException {
+        WorkflowObjectMappers.write(getWorkflowWriter(WorkflowFormat.YAML,
+                                                      true),
+                                    getWorkflow(),
+                                    out);
+    }
+
+    /**
+     * Writes the workflow as YAML directly to a blocking channel. The channel is not closed.
+     */
+    default void toYaml(WritableByteChannel channel) throws IOException {
+        toYaml(Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Writes the workflow as YAML into the buffer, starting at its current position.
+     * @return number of bytes written
+     * @throws java.nio.BufferOverflowException if the workflow does not fit in the remaining buffer
+     */
+    default int toYaml(ByteBuffer buffer) throws IOException {
+        return WorkflowObjectMappers.write(getWorkflowWriter(WorkflowFormat.YAML,
+                                                             true),
+                                           getWorkflow(),
+                                           buffer);
+    }
+
     Workflow toWorkflow(String json);
 
+    /**
+     * @return the workflow encoded in the binary Smile format
+     */
+    default byte[] toSmile() {
+        return toBytes(WorkflowFormat.SMILE);
+    }
+
+    /**
+     * @return the workflow encoded in the binary CBOR format
+     */
+    default byte[] toCbor() {
+        return toBytes(WorkflowFormat.CBOR);
+    }
+
+    default byte[] toBytes(WorkflowFormat format) {
+        try {
+            return getWorkflowWriter(format,
+                                     false).writeValueAsBytes(getWorkflow());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param bytes workflow markup in the given format, for example produced by {@link #toSmile()}
+     */
+    default Workflow toWorkflow(byte[] bytes,
+                                WorkflowFormat format) {
+        try {
+            return getWorkflowReader(format).readValue(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     void registerExtension(String extensionId, Class<? extends Extension> extensionHandlerClass);
+
+    /**
+     * Managers that do not keep their own id generator ignore it and use the one configured in
+     * {@link org.serverless.workflow.spi.WorkflowIdGeneratorProvider}.
+     */
+    default void setIdGenerator(WorkflowIdGenerator idGenerator) {
+    }
+
+    /**
+     * @return the id generator used for workflows written by this manager, null for the one configured in
+     * {@link org.serverless.workflow.spi.WorkflowIdGeneratorProvider}
+     */
+    default WorkflowIdGenerator getIdGenerator() {
+        return null;
+    }
+
+    /**
+     * @return the property source used by the default serialization methods, null if there is none
+     */
+    default WorkflowPropertySource getWorkflowPropertySource() {
+        return null;
+    }
+
+    /**
+     * @return the shared reader used by {@link #toWorkflow(byte[], WorkflowFormat)}, bound to this manager's
+     * property source and id generator
+     */
+    default ObjectReader getWorkflowReader(WorkflowFormat format) {
+        return WorkflowObjectMappers.getInstance().getReader(format,
+                                                             getWorkflowPropertySource(),
+                                                             IdGeneration.ON_WRITE,
+                                                             getIdGenerator());
+    }
+
+    /**
+     * Returns the writer used by every default serialization method, so that indented and compact output,
+     * strings, streams and buffers are all produced the same way. Managers with their own mapper override it.
+     * @return the shared writer bound to this manager's property source and id generator
+     */
+    default ObjectWriter getWorkflowWriter(WorkflowFormat format,
+                                           boolean indent) {
+        return WorkflowObjectMappers.getInstance().getWriter(format,
+                                                             getWorkflowPropertySource(),
+                                                             IdGeneration.ON_WRITE,
+                                                             getIdGenerator(),
+                                                             indent);
+    }
 }
@@ -18,10 +18,24 @@
 
 package org.serverless.workflow.api;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import org.serverless.workflow.api.mapper.WorkflowFormat;
+import org.serverless.workflow.api.mapper.WorkflowObjectMappers;
 import org.serverless.workflow.api.validation.ValidationError;
 
+/**
+ * Validates serverless workflows.
+ * <p>
+ * {@link #validate(String)}, {@link #validateYaml(String)} and {@link #validate(Workflow)} take their input as
+ * arguments and can be called concurrently on a shared validator. The setter based {@link #setJson(String)},
+ * {@link #setYaml(String)} and {@link #validate()} are kept for existing callers.
+ * <p>
+ * The default implementations of the stateless methods go through the setters and are only safe to call
+ * concurrently if the implementation overrides them.
+ */
 public interface WorkflowValidator {
 
     WorkflowValidator setWorkflowManager(WorkflowManager workflowManager);
@@ -32,6 +46,35 @@ public interface WorkflowValidator {
 
     List<ValidationError> validate();
 
+    /**
+     * @return validation errors of the workflow JSON, empty if it is valid
+     */
+    default List<ValidationError> validate(String json) {
+        setJson(json);
+        return validate();
+    }
+
+    /**
+     * @return validation errors of the workflow YAML, empty if it is valid
+     */
+    default List<ValidationError> validateYaml(String yaml) {
+        setYaml(yaml);
+        return validate();
+    }
+
+    /**
+     * @return validation errors of the workflow, empty if it is valid
+     */
+    default List<ValidationError> validate(Workflow workflow) {
+        try {
+            return validate(WorkflowObjectMappers.getInstance().getWriter(WorkflowFormat.JSON,
+                                                                          null,
+                                                                          false).writeValueAsString(workflow));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     boolean isValid();
 
     void setEnabled(boolean enabled);
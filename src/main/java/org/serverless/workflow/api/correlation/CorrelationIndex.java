@@ -0,0 +1,407 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.correlation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Index of workflow instances waiting for a correlated event, keyed by trigger event name and correlation
+ * token value.
+ * <p>
+ * Memory is bounded: every waiting instance expires after the time to live, and when the index is full the
+ * instance waiting the longest is evicted. As all instances share the time to live, insertion order is also
+ * expiry order, so both are served by one first-in first-out list. The waiters of each key form a second
+ * list, with a map from instance to waiter, so that adding, removing and expiring a waiter take constant time
+ * however many instances wait for the same key. Lookups are lock-free and return a snapshot of the key's
+ * list; writes are serialized.
+ */
+public class CorrelationIndex<T> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final Map<Key, Bucket> waiters = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // oldest and newest waiters, guarded by lock
+    private Waiter head;
+    private Waiter tail;
+    private int size;
+
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CorrelationIndex(int maxEntries,
+                            Duration ttl) {
+        this(maxEntries,
+             ttl,
+             Clock.systemUTC());
+    }
+
+    public CorrelationIndex(int maxEntries,
+                            Duration ttl,
+                            Clock clock) {
+        if (maxEntries <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Correlation index bounds must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Adds an instance waiting for the trigger event with the given correlation token, expiring earlier
+     * waiters and evicting the oldest one if the index is full.
+     * @throws IllegalArgumentException if the trigger name, token or instance is null
+     */
+    public void put(String triggerName,
+                    String token,
+                    T instance) {
+        if (triggerName == null || token == null || instance == null) {
+            throw new IllegalArgumentException("Trigger name, correlation token and instance are required");
+        }
+        Key key = new Key(triggerName,
+                          token);
+        synchronized (lock) {
+            long now = clock.millis();
+            expire(now);
+            if (size >= maxEntries) {
+                unlink(head);
+                evictions.increment();
+            }
+            Bucket bucket = waiters.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(key);
+                waiters.put(key,
+                            bucket);
+            }
+            Waiter waiter = new Waiter(bucket,
+                                       instance,
+                                       now + ttlMillis);
+            if (tail == null) {
+                head = waiter;
+            } else {
+                tail.next = waiter;
+                waiter.prev = tail;
+            }
+            tail = waiter;
+            size++;
+            bucket.add(waiter);
+        }
+    }
+
+    /**
+     * @return the instances waiting for the trigger event with the given correlation token, in the order they
+     * started waiting
+     */
+    public List<T> get(String triggerName,
+                       String token) {
+        if (triggerName == null || token == null) {
+            return Collections.emptyList();
+        }
+        Bucket bucket = waiters.get(new Key(triggerName,
+                                            token));
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        return live(bucket,
+                    clock.millis());
+    }
+
+    /**
+     * Removes the instances waiting for the trigger event with the given correlation token.
+     * @return the removed instances which had not expired, in the order they started waiting
+     */
+    public List<T> take(String triggerName,
+                        String token) {
+        if (triggerName == null || token == null) {
+            return Collections.emptyList();
+        }
+        synchronized (lock) {
+            Bucket bucket = waiters.remove(new Key(triggerName,
+                                                   token));
+            if (bucket == null) {
+                return Collections.emptyList();
+            }
+            long now = clock.millis();
+            List<T> instances = live(bucket,
+                                     now);
+            for (Waiter waiter = bucket.first; waiter != null; waiter = waiter.keyNext) {
+                unlinkFromList(waiter);
+                if (waiter.expiresAt <= now) {
+                    expirations.increment();
+                }
+            }
+            return instances;
+        }
+    }
+
+    /**
+     * Removes one waiting instance, for example when it is cancelled.
+     * @return true if the instance was waiting
+     */
+    public boolean remove(String triggerName,
+                          String token,
+                          T instance) {
+        synchronized (lock) {
+            Bucket bucket = waiters.get(new Key(triggerName,
+                                                token));
+            Waiter waiter = bucket != null ? bucket.instances.get(instance) : null;
+            if (waiter == null) {
+                return false;
+            }
+            unlink(waiter);
+            return true;
+        }
+    }
+
+    /**
+     * Removes every expired instance. Expired instances are also removed while adding new ones, this only
+     * needs calling to release memory when the index is idle.
+     * @return the number of removed instances
+     */
+    public int evictExpired() {
+        synchronized (lock) {
+            int before = size;
+            expire(clock.millis());
+            return before - size;
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            waiters.clear();
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Duration getTtl() {
+        return Duration.ofMillis(ttlMillis);
+    }
+
+    /**
+     * @return the number of instances removed because their time to live passed
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * @return the number of instances removed because the index was full
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void expire(long now) {
+        while (head != null && head.expiresAt <= now) {
+            unlink(head);
+            expirations.increment();
+        }
+    }
+
+    private void unlink(Waiter waiter) {
+        unlinkFromList(waiter);
+        Bucket bucket = waiter.bucket;
+        bucket.remove(waiter);
+        if (bucket.first == null) {
+            waiters.remove(bucket.key,
+                           bucket);
+        }
+    }
+
+    private void unlinkFromList(Waiter waiter) {
+        if (waiter.prev == null) {
+            head = waiter.next;
+        } else {
+            waiter.prev.next = waiter.next;
+        }
+        if (waiter.next == null) {
+            tail = waiter.prev;
+        } else {
+            waiter.next.prev = waiter.prev;
+        }
+        waiter.prev = null;
+        waiter.next = null;
+        size--;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> live(Bucket bucket,
+                         long now) {
+        Waiter first = bucket.first;
+        if (first == null) {
+            return Collections.emptyList();
+        }
+        if (first.keyNext == null) {
+            return first.expiresAt > now ? Collections.singletonList((T) first.instance) : Collections.emptyList();
+        }
+        List<T> instances = new ArrayList<>();
+        for (Waiter waiter = first; waiter != null; waiter = waiter.keyNext) {
+            if (waiter.expiresAt > now) {
+                instances.add((T) waiter.instance);
+            }
+        }
+        return instances;
+    }
+
+    private static final class Key {
+
+        private final String triggerName;
+        private final String token;
+        private final int hash;
+
+        Key(String triggerName,
+            String token) {
+            this.triggerName = triggerName;
+            this.token = token;
+            this.hash = 31 * triggerName.hashCode() + token.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && token.equals(other.token) && triggerName.equals(other.triggerName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Waiters of one key, oldest first. Modified under the index lock only; readers walk the list without it.
+     * A removed waiter keeps its next link, which always points to a newer waiter, so a reader standing on
+     * it still reaches the end of the list.
+     */
+    private static final class Bucket {
+
+        private final Key key;
+        // oldest waiter of each instance, the others are chained through Waiter.duplicate
+        private final Map<Object, Waiter> instances = new HashMap<>();
+        private volatile Waiter first;
+        private Waiter last;
+
+        Bucket(Key key) {
+            this.key = key;
+        }
+
+        void add(Waiter waiter) {
+            waiter.keyPrev = last;
+            if (last == null) {
+                first = waiter;
+            } else {
+                last.keyNext = waiter;
+            }
+            last = waiter;
+
+            Waiter oldest = instances.putIfAbsent(waiter.instance,
+                                                  waiter);
+            if (oldest != null) {
+                while (oldest.duplicate != null) {
+                    oldest = oldest.duplicate;
+                }
+                oldest.duplicate = waiter;
+            }
+        }
+
+        void remove(Waiter waiter) {
+            if (waiter.keyPrev == null) {
+                first = waiter.keyNext;
+            } else {
+                waiter.keyPrev.keyNext = waiter.keyNext;
+            }
+            if (waiter.keyNext == null) {
+                last = waiter.keyPrev;
+            } else {
+                waiter.keyNext.keyPrev = waiter.keyPrev;
+            }
+            waiter.keyPrev = null;
+
+            // waiters leave oldest first, by expiry, eviction or remove, so this is the oldest of its instance
+            Waiter oldest = instances.get(waiter.instance);
+            if (oldest == waiter) {
+                if (waiter.duplicate != null) {
+                    instances.put(waiter.instance,
+                                  waiter.duplicate);
+                } else {
+                    instances.remove(waiter.instance);
+                }
+            } else {
+                while (oldest != null && oldest.duplicate != waiter) {
+                    oldest = oldest.duplicate;
+                }
+                if (oldest != null) {
+                    oldest.duplicate = waiter.duplicate;
+                }
+            }
+            waiter.duplicate = null;
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Bucket bucket;
+        private final Object instance;
+        private final long expiresAt;
+        // neighbours in the index's first-in first-out list
+        private Waiter prev;
+        private Waiter next;
+        // neighbours in the bucket's list
+        private Waiter keyPrev;
+        private volatile Waiter keyNext;
+        // next waiter of the same bucket and instance
+        private Waiter duplicate;
+
+        Waiter(Bucket bucket,
+               Object instance,
+               long expiresAt) {
+            this.bucket = bucket;
+            this.instance = instance;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
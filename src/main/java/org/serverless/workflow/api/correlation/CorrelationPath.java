@@ -0,0 +1,204 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.correlation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.jsonpath.JsonPath;
+import org.serverless.workflow.spi.ExpressionCache;
+
+/**
+ * Compiled trigger event correlation-token path, such as {@code $.order.id}, {@code order.items[0].sku} or
+ * {@code $['order-id']}, see {@link JsonPath} for the supported syntax.
+ * <p>
+ * Values are extracted from JSON payloads by streaming: the parser skips every field off the path and stops as
+ * soon as the value is found, without building a tree. Only scalar values are tokens; missing paths, nulls,
+ * objects and arrays extract as null. Numbers are tokens in a canonical form, so {@code 1.50} and {@code 1.5},
+ * or {@code 1e2} and {@code 100}, correlate the same whether they are streamed or read from a parsed tree.
+ * Compiled paths are immutable and thread-safe.
+ */
+public final class CorrelationPath {
+
+    /**
+     * Larger exponents are kept in scientific notation, so a short number cannot expand to a huge token.
+     */
+    private static final int MAX_PLAIN_SCALE = 64;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final ExpressionCache<CorrelationPath> compiledPaths = new ExpressionCache<>(1024,
+                                                                                                64 * 1024);
+
+    private final JsonPath jsonPath;
+    private final SerializedString[] fieldNames;
+    private final int[] indexes;
+
+    private CorrelationPath(JsonPath jsonPath) {
+        this.jsonPath = jsonPath;
+        this.fieldNames = new SerializedString[jsonPath.getSegmentCount()];
+        this.indexes = new int[jsonPath.getSegmentCount()];
+        for (int i = 0; i < indexes.length; i++) {
+            if (jsonPath.getFieldName(i) != null) {
+                fieldNames[i] = new SerializedString(jsonPath.getFieldName(i));
+            }
+            indexes[i] = jsonPath.getIndex(i);
+        }
+    }
+
+    /**
+     * @return the compiled path, cached and shared by all trigger events using the same path
+     * @throws IllegalArgumentException if the path is not valid
+     */
+    public static CorrelationPath compile(String path) {
+        return compiledPaths.get(path,
+                                 p -> new CorrelationPath(JsonPath.compile(p)));
+    }
+
+    /**
+     * @return the compiled correlation-token path of the trigger event, null if it has none
+     */
+    public static CorrelationPath forTrigger(TriggerEvent triggerEvent) {
+        String path = triggerEvent.getCorrelationToken();
+        return path == null || path.isEmpty() ? null : compile(path);
+    }
+
+    public String getPath() {
+        return jsonPath.getPath();
+    }
+
+    public String extract(byte[] json) {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return extract(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read correlation token " + jsonPath,
+                                               e);
+        }
+    }
+
+    public String extract(String json) {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return extract(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read correlation token " + jsonPath,
+                                               e);
+        }
+    }
+
+    /**
+     * Reads from the stream only until the value is found, the stream is not closed.
+     */
+    public String extract(InputStream json) {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return extract(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read correlation token " + jsonPath,
+                                               e);
+        }
+    }
+
+    /**
+     * Extracts the value of the next JSON value read from the parser, leaving the parser on the value.
+     */
+    public String extract(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        for (int i = 0; i < indexes.length && token != null; i++) {
+            token = fieldNames[i] != null ? nextField(parser,
+                                                      token,
+                                                      fieldNames[i]) : nextElement(parser,
+                                                                                   token,
+                                                                                   indexes[i]);
+        }
+        if (token == null || !token.isScalarValue() || token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+            return Long.toString(parser.getLongValue());
+        }
+        return token.isNumeric() ? toToken(parser.getDecimalValue()) : parser.getText();
+    }
+
+    /**
+     * Extracts the value from an already parsed payload.
+     */
+    public String extract(JsonNode json) {
+        JsonNode node = jsonPath.read(json);
+        if (!node.isValueNode() || node.isNull()) {
+            return null;
+        }
+        if (node.isIntegralNumber() && node.canConvertToLong()) {
+            return Long.toString(node.longValue());
+        }
+        if (node.isFloatingPointNumber() && !node.isBigDecimal() && !Double.isFinite(node.doubleValue())) {
+            return node.asText();
+        }
+        return node.isNumber() ? toToken(node.decimalValue()) : node.asText();
+    }
+
+    @Override
+    public String toString() {
+        return jsonPath.getPath();
+    }
+
+    private static String toToken(BigDecimal value) {
+        BigDecimal normalized = value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+        return Math.abs(normalized.scale()) <= MAX_PLAIN_SCALE ? normalized.toPlainString() : normalized.toString();
+    }
+
+    private static JsonToken nextField(JsonParser parser,
+                                       JsonToken token,
+                                       SerializedString fieldName) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            return null;
+        }
+        while (!parser.nextFieldName(fieldName)) {
+            if (parser.currentToken() != JsonToken.FIELD_NAME) {
+                return null;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return parser.nextToken();
+    }
+
+    private static JsonToken nextElement(JsonParser parser,
+                                         JsonToken token,
+                                         int index) throws IOException {
+        if (token != JsonToken.START_ARRAY) {
+            return null;
+        }
+        for (int i = 0; ; i++) {
+            token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            if (i == index) {
+                return token;
+            }
+            parser.skipChildren();
+        }
+    }
+}
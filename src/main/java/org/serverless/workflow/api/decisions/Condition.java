@@ -0,0 +1,125 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.decisions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.choices.DefaultChoice;
+
+/**
+ * Compiled choice condition, evaluated against path slots resolved at most once per input.
+ */
+abstract class Condition {
+
+    abstract boolean test(PathSlots slots);
+
+    /**
+     * Compares the node selected by one path with a constant parsed at compile time.
+     */
+    static final class Comparison extends Condition {
+
+        final int slot;
+        final DefaultChoice.Operator operator;
+        final Constant constant;
+
+        Comparison(int slot,
+                   DefaultChoice.Operator operator,
+                   Constant constant) {
+            this.slot = slot;
+            this.operator = operator;
+            this.constant = constant;
+        }
+
+        @Override
+        boolean test(PathSlots slots) {
+            JsonNode node = slots.get(slot);
+            if (operator == DefaultChoice.Operator.EQUALS) {
+                return constant.isEqual(node);
+            }
+            int comparison = constant.compareTo(node);
+            if (comparison == Constant.INCOMPARABLE) {
+                return false;
+            }
+            // comparison is constant relative to the node, the operators compare the node to the constant
+            switch (operator) {
+                case LESS_THAN:
+                    return comparison > 0;
+                case LESS_THAN_EQUALS:
+                    return comparison >= 0;
+                case GREATER_THAN:
+                    return comparison < 0;
+                case GREATER_THAN_EQUALS:
+                    return comparison <= 0;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    static final class And extends Condition {
+
+        private final Condition[] conditions;
+
+        And(Condition[] conditions) {
+            this.conditions = conditions;
+        }
+
+        @Override
+        boolean test(PathSlots slots) {
+            for (Condition condition : conditions) {
+                if (!condition.test(slots)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class Or extends Condition {
+
+        private final Condition[] conditions;
+
+        Or(Condition[] conditions) {
+            this.conditions = conditions;
+        }
+
+        @Override
+        boolean test(PathSlots slots) {
+            for (Condition condition : conditions) {
+                if (condition.test(slots)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static final class Not extends Condition {
+
+        private final Condition condition;
+
+        Not(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        boolean test(PathSlots slots) {
+            return !condition.test(slots);
+        }
+    }
+}
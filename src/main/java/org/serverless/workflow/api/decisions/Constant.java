@@ -0,0 +1,118 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.decisions;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Choice value parsed once into every type it can be compared as. Numbers compare with numbers, strings with
+ * strings and booleans with booleans; other combinations never match.
+ */
+final class Constant {
+
+    static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+    private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    final String text;
+    final boolean numeric;
+    final boolean integral;
+    final double number;
+    final long integer;
+    final Boolean bool;
+
+    private Constant(String text) {
+        this.text = text;
+        BigDecimal decimal = parseNumber(text);
+        this.numeric = decimal != null;
+        this.number = numeric ? decimal.doubleValue() : Double.NaN;
+        this.integral = numeric && isIntegral(decimal);
+        this.integer = integral ? decimal.longValueExact() : 0;
+        this.bool = "true".equals(text) ? Boolean.TRUE : "false".equals(text) ? Boolean.FALSE : null;
+    }
+
+    static Constant parse(String value) {
+        return new Constant(value);
+    }
+
+    boolean isEqual(JsonNode node) {
+        if (node.isNumber()) {
+            if (integral && node.isIntegralNumber() && node.canConvertToLong()) {
+                return node.longValue() == integer;
+            }
+            return numeric && node.doubleValue() == number;
+        }
+        if (node.isTextual()) {
+            return text.equals(node.textValue());
+        }
+        if (node.isBoolean()) {
+            return bool != null && bool == node.booleanValue();
+        }
+        return false;
+    }
+
+    /**
+     * @return the sign of the constant compared with the node, {@link #INCOMPARABLE} if they have different types
+     */
+    int compareTo(JsonNode node) {
+        if (node.isNumber()) {
+            if (!numeric) {
+                return INCOMPARABLE;
+            }
+            if (integral && node.isIntegralNumber() && node.canConvertToLong()) {
+                return Long.compare(integer,
+                                    node.longValue());
+            }
+            double value = node.doubleValue();
+            return number < value ? -1 : number > value ? 1 : 0;
+        }
+        if (node.isTextual()) {
+            return Integer.signum(text.compareTo(node.textValue()));
+        }
+        return INCOMPARABLE;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static BigDecimal parseNumber(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        char first = text.charAt(0);
+        if (first != '-' && first != '+' && first != '.' && (first < '0' || first > '9')) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isIntegral(BigDecimal decimal) {
+        return decimal.compareTo(MIN_LONG) >= 0 && decimal.compareTo(MAX_LONG) <= 0
+                && decimal.stripTrailingZeros().scale() <= 0;
+    }
+}
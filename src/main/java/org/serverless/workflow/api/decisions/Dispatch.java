@@ -0,0 +1,194 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.decisions;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Finds the first matching condition within a run of consecutive conditions of a {@link SwitchProgram}.
+ */
+abstract class Dispatch {
+
+    /**
+     * Largest magnitude up to which every integer is exactly representable as a double
+     */
+    static final long MAX_EXACT = 1L << 53;
+
+    final Condition[] conditions;
+    final int from;
+    final int to;
+
+    Dispatch(Condition[] conditions,
+             int from,
+             int to) {
+        this.conditions = conditions;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @return index of the first matching condition of the run, {@link SwitchProgram#NO_MATCH} if none does
+     */
+    abstract int match(PathSlots slots);
+
+    final int scan(PathSlots slots) {
+        for (int i = from; i < to; i++) {
+            if (conditions[i].test(slots)) {
+                return i;
+            }
+        }
+        return SwitchProgram.NO_MATCH;
+    }
+
+    /**
+     * @return true if comparing the node as a double gives the same result as {@link Constant}
+     */
+    static boolean isExact(JsonNode node) {
+        if (!node.isIntegralNumber()) {
+            return true;
+        }
+        if (!node.canConvertToLong()) {
+            return false;
+        }
+        long value = node.longValue();
+        return value >= -MAX_EXACT && value <= MAX_EXACT;
+    }
+
+    /**
+     * @return true if comparing the constant as a double gives the same result as {@link Constant}
+     */
+    static boolean isExact(Constant constant) {
+        return !constant.integral || (constant.integer >= -MAX_EXACT && constant.integer <= MAX_EXACT);
+    }
+
+    /**
+     * @return the double value with negative zero folded into zero
+     */
+    static double normalize(double value) {
+        return value + 0.0;
+    }
+
+    /**
+     * Tests the conditions one by one.
+     */
+    static final class Linear extends Dispatch {
+
+        Linear(Condition[] conditions,
+               int from,
+               int to) {
+            super(conditions,
+                  from,
+                  to);
+        }
+
+        @Override
+        int match(PathSlots slots) {
+            return scan(slots);
+        }
+    }
+
+    /**
+     * Looks up the node in a table from every value the equals comparisons of the run accept, keyed by a
+     * {@link String}, a {@link Double} or a {@link Boolean}, to the first comparison accepting it.
+     */
+    static final class Equals extends Dispatch {
+
+        private final int slot;
+        private final Map<Object, Integer> table;
+
+        Equals(Condition[] conditions,
+               int from,
+               int to,
+               int slot,
+               Map<Object, Integer> table) {
+            super(conditions,
+                  from,
+                  to);
+            this.slot = slot;
+            this.table = table;
+        }
+
+        @Override
+        int match(PathSlots slots) {
+            JsonNode node = slots.get(slot);
+            Integer condition;
+            if (node.isTextual()) {
+                condition = table.get(node.textValue());
+            } else if (node.isNumber()) {
+                if (!isExact(node)) {
+                    return scan(slots);
+                }
+                condition = table.get(normalize(node.doubleValue()));
+            } else if (node.isBoolean()) {
+                condition = table.get(node.booleanValue());
+            } else {
+                return SwitchProgram.NO_MATCH;
+            }
+            return condition != null ? condition : SwitchProgram.NO_MATCH;
+        }
+    }
+
+    /**
+     * Binary searches numbers in the sorted distinct bounds of the range comparisons of the run. The bounds split
+     * the number line into regions, below the first bound, at each bound and above each bound up to the next one,
+     * and the first comparison holding in each region is resolved at compile time.
+     */
+    static final class Range extends Dispatch {
+
+        private final int slot;
+        private final double[] bounds;
+        private final int[] regions;
+
+        Range(Condition[] conditions,
+              int from,
+              int to,
+              int slot,
+              double[] bounds,
+              int[] regions) {
+            super(conditions,
+                  from,
+                  to);
+            this.slot = slot;
+            this.bounds = bounds;
+            this.regions = regions;
+        }
+
+        @Override
+        int match(PathSlots slots) {
+            JsonNode node = slots.get(slot);
+            if (node.isNumber()) {
+                if (!isExact(node)) {
+                    return scan(slots);
+                }
+                double value = node.doubleValue();
+                if (Double.isNaN(value)) {
+                    return scan(slots);
+                }
+                int bound = Arrays.binarySearch(bounds,
+                                                normalize(value));
+                return regions[bound >= 0 ? 2 * bound + 1 : -2 * (bound + 1)];
+            }
+            // strings compare with the text of the constants
+            return node.isTextual() ? scan(slots) : SwitchProgram.NO_MATCH;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.decisions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.jsonpath.JsonPath;
+
+/**
+ * Nodes selected from one input by the distinct paths of a switch state, each resolved on first use.
+ */
+final class PathSlots {
+
+    private final JsonPath[] paths;
+    private final JsonNode input;
+    private final JsonNode[] nodes;
+
+    PathSlots(JsonPath[] paths,
+              JsonNode input) {
+        this.paths = paths;
+        this.input = input;
+        this.nodes = new JsonNode[paths.length];
+    }
+
+    JsonNode get(int slot) {
+        JsonNode node = nodes[slot];
+        if (node == null) {
+            node = paths[slot].read(input);
+            nodes[slot] = node;
+        }
+        return node;
+    }
+}
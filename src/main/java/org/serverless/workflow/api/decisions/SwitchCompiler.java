@@ -0,0 +1,325 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.decisions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.serverless.workflow.api.choices.AndChoice;
+import org.serverless.workflow.api.choices.DefaultChoice;
+import org.serverless.workflow.api.choices.NotChoice;
+import org.serverless.workflow.api.choices.OrChoice;
+import org.serverless.workflow.api.graph.Transitions;
+import org.serverless.workflow.api.interfaces.Choice;
+import org.serverless.workflow.api.jsonpath.JsonPath;
+import org.serverless.workflow.api.states.SwitchState;
+
+/**
+ * Compiles the choices of switch states into {@link SwitchProgram}s.
+ * <p>
+ * Comparison values are parsed once into typed constants, and each distinct path becomes a slot shared by every
+ * comparison reading it. And, or and not choices short-circuit. Choices without a next state can never be
+ * taken and are left out.
+ * <p>
+ * Runs of at least {@link #MIN_INDEXED_RUN} consecutive single choices comparing the same path are indexed:
+ * equals choices into a hash table from value to first matching choice, range choices into sorted bounds
+ * searched by bisection. Values the index cannot compare exactly, such as integers beyond 2<sup>53</sup>, fall
+ * back to testing the run in order, so the first match is the same as without the index.
+ */
+public final class SwitchCompiler {
+
+    /**
+     * Shortest run of same-path choices worth indexing
+     */
+    public static final int MIN_INDEXED_RUN = 8;
+
+    private SwitchCompiler() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if a choice has no path, no value or no operator, or an invalid path
+     */
+    public static SwitchProgram compile(SwitchState switchState) {
+        return compile(switchState.getChoices(),
+                       switchState.getDefault());
+    }
+
+    public static SwitchProgram compile(List<Choice> choices,
+                                        String defaultState) {
+        return compile(choices,
+                       defaultState,
+                       true);
+    }
+
+    /**
+     * @param indexed false to test every choice in order, without indexing same-path runs
+     */
+    public static SwitchProgram compile(List<Choice> choices,
+                                        String defaultState,
+                                        boolean indexed) {
+        Map<String, Integer> slots = new HashMap<>();
+        List<JsonPath> paths = new ArrayList<>();
+        List<Condition> conditions = new ArrayList<>();
+        List<Integer> choiceIndexes = new ArrayList<>();
+        List<String> nextStates = new ArrayList<>();
+
+        int choiceCount = choices != null ? choices.size() : 0;
+        for (int i = 0; i < choiceCount; i++) {
+            Choice choice = choices.get(i);
+            String nextState = Transitions.getNextState(choice);
+            if (nextState == null || nextState.isEmpty()) {
+                continue;
+            }
+            conditions.add(compileChoice(i,
+                                         choice,
+                                         slots,
+                                         paths));
+            choiceIndexes.add(i);
+            nextStates.add(nextState);
+        }
+
+        Condition[] compiledConditions = conditions.toArray(new Condition[0]);
+        return new SwitchProgram(paths.toArray(new JsonPath[0]),
+                                 plan(compiledConditions,
+                                      indexed),
+                                 choiceIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                                 nextStates.toArray(new String[0]),
+                                 defaultState);
+    }
+
+    /**
+     * Splits the conditions into indexed same-path runs and linear stretches between them.
+     */
+    private static Dispatch[] plan(Condition[] conditions,
+                                   boolean indexed) {
+        List<Dispatch> dispatches = new ArrayList<>();
+        int linearFrom = 0;
+        int i = 0;
+        while (i < conditions.length) {
+            int end = indexed ? runEnd(conditions,
+                                       i) : i + 1;
+            if (end - i < MIN_INDEXED_RUN) {
+                i = end;
+                continue;
+            }
+            if (linearFrom < i) {
+                dispatches.add(new Dispatch.Linear(conditions,
+                                                   linearFrom,
+                                                   i));
+            }
+            dispatches.add(isEquals(conditions[i]) ? indexEquals(conditions,
+                                                                 i,
+                                                                 end) : indexRange(conditions,
+                                                                                   i,
+                                                                                   end));
+            i = end;
+            linearFrom = end;
+        }
+        if (linearFrom < conditions.length) {
+            dispatches.add(new Dispatch.Linear(conditions,
+                                               linearFrom,
+                                               conditions.length));
+        }
+        return dispatches.toArray(new Dispatch[0]);
+    }
+
+    /**
+     * @return end of the run of comparisons starting at the index which read the same slot, are all equals or all
+     * range comparisons, and can be indexed
+     */
+    private static int runEnd(Condition[] conditions,
+                              int start) {
+        if (!isIndexable(conditions[start])) {
+            return start + 1;
+        }
+        Condition.Comparison first = (Condition.Comparison) conditions[start];
+        boolean equals = isEquals(first);
+        int end = start + 1;
+        while (end < conditions.length && isIndexable(conditions[end])) {
+            Condition.Comparison comparison = (Condition.Comparison) conditions[end];
+            if (comparison.slot != first.slot || isEquals(comparison) != equals) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isIndexable(Condition condition) {
+        if (!(condition instanceof Condition.Comparison)) {
+            return false;
+        }
+        Condition.Comparison comparison = (Condition.Comparison) condition;
+        return Dispatch.isExact(comparison.constant) && (isEquals(comparison) || comparison.constant.numeric);
+    }
+
+    private static boolean isEquals(Condition condition) {
+        return ((Condition.Comparison) condition).operator == DefaultChoice.Operator.EQUALS;
+    }
+
+    private static Dispatch indexEquals(Condition[] conditions,
+                                        int from,
+                                        int to) {
+        Map<Object, Integer> table = new HashMap<>((to - from) * 8 / 3 + 1);
+        for (int i = from; i < to; i++) {
+            Constant constant = ((Condition.Comparison) conditions[i]).constant;
+            table.putIfAbsent(constant.text,
+                              i);
+            if (constant.numeric) {
+                table.putIfAbsent(Dispatch.normalize(constant.number),
+                                  i);
+            }
+            if (constant.bool != null) {
+                table.putIfAbsent(constant.bool,
+                                  i);
+            }
+        }
+        return new Dispatch.Equals(conditions,
+                                   from,
+                                   to,
+                                   ((Condition.Comparison) conditions[from]).slot,
+                                   table);
+    }
+
+    /**
+     * Region {@code 2b + 1} holds the bound {@code b}, region {@code 2b} the numbers between bound {@code b - 1}
+     * and bound {@code b}. A comparison holds in a prefix of the regions (less than) or in a suffix (greater than),
+     * so the regions still without a match always lie between {@code low} and {@code high}.
+     */
+    private static Dispatch indexRange(Condition[] conditions,
+                                       int from,
+                                       int to) {
+        double[] bounds = new double[to - from];
+        for (int i = from; i < to; i++) {
+            bounds[i - from] = Dispatch.normalize(((Condition.Comparison) conditions[i]).constant.number);
+        }
+        Arrays.sort(bounds);
+        int boundCount = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            if (boundCount == 0 || bounds[i] != bounds[boundCount - 1]) {
+                bounds[boundCount++] = bounds[i];
+            }
+        }
+        bounds = Arrays.copyOf(bounds,
+                               boundCount);
+
+        int[] regions = new int[2 * boundCount + 1];
+        Arrays.fill(regions,
+                    SwitchProgram.NO_MATCH);
+        int low = 0;
+        int high = regions.length;
+        for (int i = from; i < to && low < high; i++) {
+            Condition.Comparison comparison = (Condition.Comparison) conditions[i];
+            int point = 2 * Arrays.binarySearch(bounds,
+                                                Dispatch.normalize(comparison.constant.number)) + 1;
+            switch (comparison.operator) {
+                case LESS_THAN:
+                case LESS_THAN_EQUALS:
+                    int prefix = Math.min(comparison.operator == DefaultChoice.Operator.LESS_THAN ? point : point + 1,
+                                          high);
+                    for (; low < prefix; low++) {
+                        regions[low] = i;
+                    }
+                    break;
+                default:
+                    int suffix = Math.max(comparison.operator == DefaultChoice.Operator.GREATER_THAN ? point + 1 : point,
+                                          low);
+                    for (; high > suffix; high--) {
+                        regions[high - 1] = i;
+                    }
+            }
+        }
+        return new Dispatch.Range(conditions,
+                                  from,
+                                  to,
+                                  ((Condition.Comparison) conditions[from]).slot,
+                                  bounds,
+                                  regions);
+    }
+
+    private static Condition compileChoice(int index,
+                                           Choice choice,
+                                           Map<String, Integer> slots,
+                                           List<JsonPath> paths) {
+        if (choice instanceof AndChoice) {
+            return new Condition.And(compileChoices(index,
+                                                    ((AndChoice) choice).getAnd(),
+                                                    slots,
+                                                    paths));
+        }
+        if (choice instanceof OrChoice) {
+            return new Condition.Or(compileChoices(index,
+                                                   ((OrChoice) choice).getOr(),
+                                                   slots,
+                                                   paths));
+        }
+        if (choice instanceof NotChoice) {
+            return new Condition.Not(compileComparison(index,
+                                                       ((NotChoice) choice).getNot(),
+                                                       slots,
+                                                       paths));
+        }
+        return compileComparison(index,
+                                 (DefaultChoice) choice,
+                                 slots,
+                                 paths);
+    }
+
+    private static Condition[] compileChoices(int index,
+                                              List<DefaultChoice> choices,
+                                              Map<String, Integer> slots,
+                                              List<JsonPath> paths) {
+        int count = choices != null ? choices.size() : 0;
+        Condition[] conditions = new Condition[count];
+        for (int i = 0; i < count; i++) {
+            conditions[i] = compileComparison(index,
+                                              choices.get(i),
+                                              slots,
+                                              paths);
+        }
+        return conditions;
+    }
+
+    private static Condition.Comparison compileComparison(int index,
+                                                          DefaultChoice choice,
+                                                          Map<String, Integer> slots,
+                                                          List<JsonPath> paths) {
+        if (choice == null || choice.getPath() == null || choice.getValue() == null || choice.getOperator() == null) {
+            throw new IllegalArgumentException("choice at index " + index + " needs a path, a value and an operator");
+        }
+        Integer slot = slots.get(choice.getPath());
+        if (slot == null) {
+            try {
+                paths.add(JsonPath.compile(choice.getPath()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("choice at index " + index + ": " + e.getMessage(),
+                                                   e);
+            }
+            slot = paths.size() - 1;
+            slots.put(choice.getPath(),
+                      slot);
+        }
+        return new Condition.Comparison(slot,
+                                        choice.getOperator(),
+                                        Constant.parse(choice.getValue()));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.decisions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.jsonpath.JsonPath;
+
+/**
+ * Compiled choices of a switch state, see {@link SwitchCompiler}.
+ * <p>
+ * Choices are tested in declaration order and the first match wins. Each distinct path is resolved at most
+ * once per input, and only when a choice needs it. Long runs of choices comparing the same path are dispatched
+ * through a hash table or a binary search instead of being tested one by one. Programs are immutable and
+ * thread-safe.
+ */
+public final class SwitchProgram {
+
+    /**
+     * Choice index returned when no choice matches
+     */
+    public static final int NO_MATCH = -1;
+
+    private final JsonPath[] paths;
+    private final Dispatch[] dispatches;
+    private final int[] choiceIndexes;
+    private final String[] nextStates;
+    private final String defaultState;
+
+    SwitchProgram(JsonPath[] paths,
+                  Dispatch[] dispatches,
+                  int[] choiceIndexes,
+                  String[] nextStates,
+                  String defaultState) {
+        this.paths = paths;
+        this.dispatches = dispatches;
+        this.choiceIndexes = choiceIndexes;
+        this.nextStates = nextStates;
+        this.defaultState = defaultState;
+    }
+
+    /**
+     * @return index in the switch state choices of the first choice matching the input, {@link #NO_MATCH} if
+     * none does
+     */
+    public int select(JsonNode input) {
+        int condition = match(input);
+        return condition != NO_MATCH ? choiceIndexes[condition] : NO_MATCH;
+    }
+
+    /**
+     * @return next state of the first choice matching the input, the default state if none does
+     */
+    public String getNextState(JsonNode input) {
+        int condition = match(input);
+        return condition != NO_MATCH ? nextStates[condition] : defaultState;
+    }
+
+    public String getDefault() {
+        return defaultState;
+    }
+
+    /**
+     * @return number of distinct paths read by the choices
+     */
+    public int getPathCount() {
+        return paths.length;
+    }
+
+    private int match(JsonNode input) {
+        PathSlots slots = new PathSlots(paths,
+                                        input);
+        for (Dispatch dispatch : dispatches) {
+            int condition = dispatch.match(slots);
+            if (condition != NO_MATCH) {
+                return condition;
+            }
+        }
+        return NO_MATCH;
+    }
+}
@@ -21,10 +21,13 @@ package org.serverless.workflow.api.deserializers;
 import java.io.IOException;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.serverless.workflow.api.choices.AndChoice;
 import org.serverless.workflow.api.choices.DefaultChoice;
 import org.serverless.workflow.api.choices.NotChoice;
@@ -34,6 +37,13 @@ import org.serverless.workflow.api.interfaces.Choice;
 
 public class ChoiceDeserializer extends StdDeserializer<Choice> {
 
+    private static final String AND_FIELD = "and";
+    private static final String NOT_FIELD = "not";
+    private static final String OR_FIELD = "or";
+    private static final String NEXT_STATE_FIELD = "next-state";
+
+    private boolean streaming = true;
+
     public ChoiceDeserializer() {
         this(null);
     }
@@ -42,25 +52,87 @@ public class ChoiceDeserializer extends StdDeserializer<Choice> {
         super(vc);
     }
 
+    /**
+     * @param streaming if true choices are bound straight from the token stream,
+     * otherwise each choice is first read into a {@link JsonNode} tree
+     */
+    public ChoiceDeserializer(boolean streaming) {
+        this(Choice.class);
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     @Override
     public Choice deserialize(JsonParser jp,
                               DeserializationContext ctxt)
             throws IOException {
+        if (streaming) {
+            return deserializeStreaming(jp,
+                                        ctxt);
+        } else {
+            return deserializeTree(jp,
+                                   ctxt);
+        }
+    }
+
+    private Choice deserializeStreaming(JsonParser jp,
+                                        DeserializationContext ctxt) throws IOException {
+
+        JsonToken token = jp.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = jp.nextToken();
+        }
+
+        // "and", "not" and "or" decide the choice type as soon as they are seen,
+        // a single or default choice is only known once the whole object was read
+        TokenBuffer buffer = new TokenBuffer(jp,
+                                             ctxt);
+        boolean hasNextState = false;
+        for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+            String fieldName = jp.getCurrentName();
+
+            Class<? extends Choice> choiceClass = getCompositeChoiceClass(fieldName);
+            if (choiceClass != null) {
+                // replay the buffered fields, then continue from the current field of the live parser
+                JsonParser choiceParser = JsonParserSequence.createFlattened(true,
+                                                                             buffer.asParser(jp),
+                                                                             jp);
+                choiceParser.nextToken();
+                return (Choice) ctxt.findRootValueDeserializer(ctxt.constructType(choiceClass)).deserialize(choiceParser,
+                                                                                                             ctxt);
+            }
+
+            hasNextState |= NEXT_STATE_FIELD.equals(fieldName);
+            buffer.copyCurrentStructure(jp);
+        }
+        buffer.writeEndObject();
+
+        JsonParser choiceParser = buffer.asParser(jp);
+        choiceParser.nextToken();
+        return (Choice) ctxt.findRootValueDeserializer(ctxt.constructType(hasNextState ? SingleChoice.class : DefaultChoice.class)).deserialize(choiceParser,
+                                                                                                                                              ctxt);
+    }
+
+    private Choice deserializeTree(JsonParser jp,
+                                   DeserializationContext ctxt) throws IOException {
 
         ObjectMapper mapper = (ObjectMapper) jp.getCodec();
         JsonNode node = jp.getCodec().readTree(jp);
 
-        if (node.get("and") != null) {
+        if (node.get(AND_FIELD) != null) {
             return mapper.treeToValue(node,
                                       AndChoice.class);
-        } else if (node.get("not") != null) {
+        } else if (node.get(NOT_FIELD) != null) {
             return mapper.treeToValue(node,
                                       NotChoice.class);
-        } else if (node.get("or") != null) {
+        } else if (node.get(OR_FIELD) != null) {
             return mapper.treeToValue(node,
                                       OrChoice.class);
         } else {
-            if(node.get("next-state") != null) {
+            if (node.get(NEXT_STATE_FIELD) != null) {
                 return mapper.treeToValue(node,
                                           SingleChoice.class);
             } else {
@@ -69,4 +141,17 @@ public class ChoiceDeserializer extends StdDeserializer<Choice> {
             }
         }
     }
+
+    private static Class<? extends Choice> getCompositeChoiceClass(String fieldName) {
+        switch (fieldName) {
+            case AND_FIELD:
+                return AndChoice.class;
+            case NOT_FIELD:
+                return NotChoice.class;
+            case OR_FIELD:
+                return OrChoice.class;
+            default:
+                return null;
+        }
+    }
 }
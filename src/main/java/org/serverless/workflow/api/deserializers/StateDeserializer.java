@@ -21,10 +21,14 @@ package org.serverless.workflow.api.deserializers;
 import java.io.IOException;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.serverless.workflow.api.WorkflowPropertySource;
 import org.serverless.workflow.api.interfaces.State;
 import org.serverless.workflow.api.states.DefaultState;
@@ -39,7 +43,10 @@ import org.slf4j.LoggerFactory;
 
 public class StateDeserializer extends StdDeserializer<State> {
 
+    private static final String TYPE_FIELD = "type";
+
     private WorkflowPropertySource context;
+    private boolean streaming = true;
     private static Logger logger = LoggerFactory.getLogger(StateDeserializer.class);
 
     public StateDeserializer() {
@@ -55,14 +62,87 @@ public class StateDeserializer extends StdDeserializer<State> {
         this.context = context;
     }
 
+    /**
+     * @param context property source used to resolve state type values
+     * @param streaming if true states are bound straight from the token stream,
+     * otherwise each state is first read into a {@link JsonNode} tree
+     */
+    public StateDeserializer(WorkflowPropertySource context,
+                             boolean streaming) {
+        this(context);
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     @Override
     public State deserialize(JsonParser jp,
                              DeserializationContext ctxt) throws IOException {
+        if (streaming) {
+            return deserializeStreaming(jp,
+                                        ctxt);
+        } else {
+            return deserializeTree(jp,
+                                   ctxt);
+        }
+    }
+
+    private State deserializeStreaming(JsonParser jp,
+                                       DeserializationContext ctxt) throws IOException {
+
+        JsonToken token = jp.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = jp.nextToken();
+        }
+
+        // fields preceding "type" are buffered, everything after it is read directly from the parser
+        TokenBuffer buffer = null;
+        for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+            String fieldName = jp.getCurrentName();
+            jp.nextToken();
+
+            if (buffer == null) {
+                buffer = new TokenBuffer(jp,
+                                         ctxt);
+            }
+
+            if (TYPE_FIELD.equals(fieldName)) {
+                String typeValue = jp.getText();
+                buffer.writeFieldName(fieldName);
+                buffer.writeString(typeValue);
+
+                JsonParser stateParser = JsonParserSequence.createFlattened(false,
+                                                                            buffer.asParser(jp),
+                                                                            jp);
+                stateParser.nextToken();
+
+                return (State) findStateDeserializer(resolveType(typeValue),
+                                                     ctxt).deserialize(stateParser,
+                                                                       ctxt);
+            }
+
+            buffer.writeFieldName(fieldName);
+            buffer.copyCurrentStructure(jp);
+        }
+
+        return ctxt.reportInputMismatch(this,
+                                        "Missing state property '%s'",
+                                        TYPE_FIELD);
+    }
+
+    private State deserializeTree(JsonParser jp,
+                                  DeserializationContext ctxt) throws IOException {
 
         ObjectMapper mapper = (ObjectMapper) jp.getCodec();
         JsonNode node = jp.getCodec().readTree(jp);
-        String typeValue = node.get("type").asText();
 
+        return mapper.treeToValue(node,
+                                  getStateClass(resolveType(node.get(TYPE_FIELD).asText())));
+    }
+
+    private DefaultState.Type resolveType(String typeValue) {
         if (context != null) {
             try {
                 String result = context.getPropertySource().getProperty(typeValue);
@@ -75,31 +155,31 @@ public class StateDeserializer extends StdDeserializer<State> {
             }
         }
 
-        // based on statetype return the specific state impl
-        DefaultState.Type type = DefaultState.Type.fromValue(typeValue);
+        return DefaultState.Type.fromValue(typeValue);
+    }
+
+    private JsonDeserializer<Object> findStateDeserializer(DefaultState.Type type,
+                                                           DeserializationContext ctxt) throws IOException {
+        return ctxt.findRootValueDeserializer(ctxt.constructType(getStateClass(type)));
+    }
+
+    // based on statetype return the specific state impl
+    private static Class<? extends State> getStateClass(DefaultState.Type type) {
         switch (type) {
             case EVENT:
-                return mapper.treeToValue(node,
-                                          EventState.class);
+                return EventState.class;
             case OPERATION:
-                return mapper.treeToValue(node,
-                                          OperationState.class);
+                return OperationState.class;
             case SWITCH:
-                return mapper.treeToValue(node,
-                                          SwitchState.class);
+                return SwitchState.class;
             case DELAY:
-                return mapper.treeToValue(node,
-                                          DelayState.class);
+                return DelayState.class;
             case PARALLEL:
-                return mapper.treeToValue(node,
-                                          ParallelState.class);
-
+                return ParallelState.class;
             case SUBFLOW:
-                return mapper.treeToValue(node,
-                                          SubflowState.class);
+                return SubflowState.class;
             default:
-                return mapper.treeToValue(node,
-                                          DefaultState.class);
+                return DefaultState.class;
         }
     }
 }
@@ -0,0 +1,72 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.deserializers;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.WorkflowIdGenerator;
+import org.serverless.workflow.api.serializers.WorkflowSerializer;
+
+/**
+ * Deserializes workflows with the default bean deserializer and generates an id for workflows
+ * which do not define one.
+ */
+public class WorkflowDeserializer extends DelegatingDeserializer {
+
+    private static final long serialVersionUID = 1L;
+
+    private WorkflowIdGenerator idGenerator;
+
+    public WorkflowDeserializer(JsonDeserializer<?> delegatee) {
+        this(delegatee,
+             null);
+    }
+
+    /**
+     * @param idGenerator generator for missing ids, if null the id generator configured in
+     * {@link org.serverless.workflow.spi.WorkflowIdGeneratorProvider} is used
+     */
+    public WorkflowDeserializer(JsonDeserializer<?> delegatee,
+                                WorkflowIdGenerator idGenerator) {
+        super(delegatee);
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+        return new WorkflowDeserializer(newDelegatee,
+                                        idGenerator);
+    }
+
+    @Override
+    public Object deserialize(JsonParser jp,
+                              DeserializationContext ctxt) throws IOException {
+        Workflow workflow = (Workflow) super.deserialize(jp,
+                                                         ctxt);
+        if (workflow != null && (workflow.getId() == null || workflow.getId().isEmpty())) {
+            workflow.setId(idGenerator != null ? idGenerator.generateId() : WorkflowSerializer.generateUniqueId());
+        }
+        return workflow;
+    }
+}
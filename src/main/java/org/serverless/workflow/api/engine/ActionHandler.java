@@ -0,0 +1,53 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.actions.Action;
+
+/**
+ * Invokes the functions of workflow actions for a {@link WorkflowEngine}.
+ */
+@FunctionalInterface
+public interface ActionHandler {
+
+    /**
+     * Starts the function of the action. Implementations must not block the calling thread, they return a stage
+     * completed by whatever performs the call, for example a non-blocking HTTP client.
+     * @param input action input selected by the action filter
+     * @return stage completed with the action result, or exceptionally if the function fails
+     */
+    CompletionStage<JsonNode> execute(Action action,
+                                      JsonNode input);
+
+    /**
+     * Adapts a blocking function, running each call on the given executor.
+     */
+    static ActionHandler blocking(BiFunction<Action, JsonNode, JsonNode> function,
+                                  Executor executor) {
+        return (action, input) -> CompletableFuture.supplyAsync(() -> function.apply(action,
+                                                                                     input),
+                                                                executor);
+    }
+}
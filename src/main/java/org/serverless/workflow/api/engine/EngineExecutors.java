@@ -0,0 +1,107 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.engine;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executors for {@link WorkflowEngine}s.
+ * <p>
+ * The default executor runs every task on its own virtual thread where the runtime supports them (Java 21 and
+ * later), looked up reflectively so the library still runs on Java 8. Elsewhere it falls back to a cached pool
+ * of daemon threads, which also gives each concurrent task its own thread but reuses idle ones.
+ */
+public final class EngineExecutors {
+
+    private static Logger logger = LoggerFactory.getLogger(EngineExecutors.class);
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    private EngineExecutors() {
+    }
+
+    /**
+     * @return true if {@link #newDefaultExecutor()} uses virtual threads
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * @return a virtual thread per task executor where available, {@link #newCachedExecutor()} otherwise
+     */
+    public static ExecutorService newDefaultExecutor() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                logger.warn("Unable to create a virtual thread executor, using platform threads",
+                            e);
+            }
+        }
+        return newCachedExecutor();
+    }
+
+    /**
+     * @return a cached pool of daemon platform threads
+     */
+    public static ExecutorService newCachedExecutor() {
+        return Executors.newCachedThreadPool(daemonThreads("workflow-engine-"));
+    }
+
+    /**
+     * @return a single daemon thread scheduling delays and timeouts
+     */
+    public static ScheduledExecutorService newScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                                                                                daemonThreads("workflow-engine-scheduler-"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable,
+                                       prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method findVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // preview releases declare the method but fail unless previews are enabled
+            ((ExecutorService) method.invoke(null)).shutdown();
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
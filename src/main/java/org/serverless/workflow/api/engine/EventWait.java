@@ -0,0 +1,148 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.correlation.CorrelationIndex;
+
+/**
+ * An instance in an event state waiting for one of the state's events. The wait is registered in the correlation
+ * index once for every event and trigger event definition the event expression accepts, and ends with the first
+ * matching event or with the timeout, removing the remaining registrations.
+ * <p>
+ * All waiters are added before any of them is registered, so a state that fails validation half way leaves
+ * nothing in the index, and the list is not modified once another thread can end the wait.
+ */
+final class EventWait {
+
+    private final CorrelationIndex<Waiter> index;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final AtomicBoolean done = new AtomicBoolean();
+    private final CompletableFuture<Match> match = new CompletableFuture<>();
+
+    EventWait(CorrelationIndex<Waiter> index) {
+        this.index = index;
+    }
+
+    void add(String triggerKey,
+             String token,
+             int event) {
+        waiters.add(new Waiter(triggerKey,
+                               token,
+                               event));
+    }
+
+    /**
+     * Puts the added waiters into the index. A wait ended while they were being put, by an event matching an
+     * earlier waiter, removes them again.
+     */
+    void register() {
+        for (Waiter waiter : waiters) {
+            index.put(waiter.triggerKey,
+                      waiter.token,
+                      waiter);
+        }
+        if (done.get()) {
+            removeWaiters();
+        }
+    }
+
+    boolean isEmpty() {
+        return waiters.isEmpty();
+    }
+
+    /**
+     * @return future completed with the first matching event, or exceptionally with a {@link TimeoutException}
+     */
+    CompletableFuture<Match> getMatch() {
+        return match;
+    }
+
+    void expire(TimeoutException timeout) {
+        if (end()) {
+            match.completeExceptionally(timeout);
+        }
+    }
+
+    private boolean end() {
+        if (!done.compareAndSet(false,
+                                true)) {
+            return false;
+        }
+        removeWaiters();
+        return true;
+    }
+
+    private void removeWaiters() {
+        for (Waiter waiter : waiters) {
+            index.remove(waiter.triggerKey,
+                         waiter.token,
+                         waiter);
+        }
+    }
+
+    /**
+     * Registration of the wait for one event and trigger event definition.
+     */
+    final class Waiter {
+
+        private final String triggerKey;
+        private final String token;
+        private final int event;
+
+        private Waiter(String triggerKey,
+                       String token,
+                       int event) {
+            this.triggerKey = triggerKey;
+            this.token = token;
+            this.event = event;
+        }
+
+        /**
+         * Ends the wait with this waiter's event, unless it already ended.
+         * @return true if the wait ended
+         */
+        boolean fire(JsonNode payload) {
+            if (!end()) {
+                return false;
+            }
+            match.complete(new Match(event,
+                                     payload));
+            return true;
+        }
+    }
+
+    static final class Match {
+
+        final int event;
+        final JsonNode payload;
+
+        private Match(int event,
+                      JsonNode payload) {
+            this.event = event;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,532 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.serverless.workflow.api.CompiledExpression;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.actions.Action;
+import org.serverless.workflow.api.actions.Retry;
+import org.serverless.workflow.api.events.Event;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.graph.StateGraph;
+import org.serverless.workflow.api.graph.TransitionType;
+import org.serverless.workflow.api.graph.WorkflowGraph;
+import org.serverless.workflow.api.jsonpath.CompiledFilter;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.EventState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.states.SubflowState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the states of one scope of an instance, the workflow states or the states of a parallel state branch.
+ * <p>
+ * States run one after the other. The state filter selects the input of switch, operation, event, parallel and
+ * subflow states and merges their result; switch and delay states only pass their data on through the output path. A state returns a future of its transition; while those complete immediately
+ * the scope keeps looping on the current thread, otherwise it resumes on the engine executor once the transition
+ * is known, so long chains of states neither grow the stack nor block a thread.
+ */
+final class ScopeExecution {
+
+    private static Logger logger = LoggerFactory.getLogger(ScopeExecution.class);
+
+    private final WorkflowEngine engine;
+    private final WorkflowInstance instance;
+    private final WorkflowGraph graph;
+    private final StateGraph scope;
+    private final boolean root;
+    private final CompletableFuture<JsonNode> completion = new CompletableFuture<>();
+
+    ScopeExecution(WorkflowEngine engine,
+                   WorkflowInstance instance,
+                   StateGraph scope,
+                   boolean root) {
+        this.engine = engine;
+        this.instance = instance;
+        this.graph = instance.getGraph();
+        this.scope = scope;
+        this.root = root;
+    }
+
+    /**
+     * @return future completed with the output of the scope's last state
+     */
+    CompletableFuture<JsonNode> getCompletion() {
+        return completion;
+    }
+
+    void start(JsonNode input) {
+        if (scope.getStateCount() == 0) {
+            completion.complete(input);
+            return;
+        }
+        run(scope.getStartState(),
+            input);
+    }
+
+    private void run(int stateId,
+                     JsonNode data) {
+        while (true) {
+            CompletableFuture<Step> step;
+            try {
+                step = execute(stateId,
+                               data);
+            } catch (RuntimeException e) {
+                completion.completeExceptionally(e);
+                return;
+            }
+            if (!step.isDone()) {
+                step.whenCompleteAsync(this::resume,
+                                       engine.getExecutor());
+                return;
+            }
+            if (step.isCompletedExceptionally()) {
+                step.whenComplete(this::resume);
+                return;
+            }
+            Step next = step.join();
+            if (next.stateId == StateGraph.NONE) {
+                completion.complete(next.data);
+                return;
+            }
+            stateId = next.stateId;
+            data = next.data;
+        }
+    }
+
+    private void resume(Step next,
+                        Throwable error) {
+        if (error != null) {
+            completion.completeExceptionally(WorkflowExecutionException.unwrap(error));
+        } else if (next.stateId == StateGraph.NONE) {
+            completion.complete(next.data);
+        } else {
+            run(next.stateId,
+                next.data);
+        }
+    }
+
+    private CompletableFuture<Step> execute(int stateId,
+                                            JsonNode data) {
+        if (root) {
+            instance.enter(scope.getStateName(stateId));
+        }
+        CompiledFilter filter = scope.getFilter(stateId);
+        JsonNode input = filter.selectInput(data);
+        switch (scope.getStateType(stateId)) {
+            case SWITCH:
+                int target = scope.getSwitchTarget(stateId,
+                                                   input);
+                if (target == StateGraph.NONE) {
+                    throw invalid(stateId,
+                                  "has no choice matching the input and no default");
+                }
+                return CompletableFuture.completedFuture(new Step(target,
+                                                                  filter.selectOutput(data)));
+            case OPERATION:
+                OperationState operationState = (OperationState) scope.getState(stateId);
+                return retryTransition(stateId,
+                                       data,
+                                       runActions(operationState.getActions(),
+                                                  operationState.getActionMode() == OperationState.ActionMode.PARALLEL,
+                                                  0,
+                                                  input)
+                                               .thenApply(result -> next(stateId,
+                                                                         TransitionType.NEXT_STATE,
+                                                                         0,
+                                                                         output(filter,
+                                                                                data,
+                                                                                result))));
+            case DELAY:
+                Duration delay = WorkflowEngine.parseDuration(((DelayState) scope.getState(stateId)).getTimeDelay());
+                if (delay == null) {
+                    throw invalid(stateId,
+                                  "has no time-delay");
+                }
+                return engine.delay(instance,
+                                    delay)
+                        .thenApply(elapsed -> next(stateId,
+                                                   TransitionType.NEXT_STATE,
+                                                   0,
+                                                   filter.selectOutput(data)));
+            case EVENT:
+                return retryTransition(stateId,
+                                       data,
+                                       awaitEvent(stateId,
+                                                  filter,
+                                                  data,
+                                                  input));
+            case PARALLEL:
+                return runBranches(stateId,
+                                   input)
+                        .thenApply(result -> next(stateId,
+                                                  TransitionType.NEXT_STATE,
+                                                  0,
+                                                  output(filter,
+                                                         data,
+                                                         result)));
+            case SUBFLOW:
+                return runSubflow(stateId,
+                                  input)
+                        .thenApply(result -> next(stateId,
+                                                  TransitionType.NEXT_STATE,
+                                                  0,
+                                                  output(filter,
+                                                         data,
+                                                         result)));
+            default:
+                throw invalid(stateId,
+                              "has unsupported type " + scope.getStateType(stateId));
+        }
+    }
+
+    /**
+     * @return the step to the target of the transition, or ending the scope if the state is an end state
+     */
+    private Step next(int stateId,
+                      TransitionType type,
+                      int ordinal,
+                      JsonNode output) {
+        if (scope.isEnd(stateId)) {
+            return new Step(StateGraph.NONE,
+                            output);
+        }
+        int target = type == TransitionType.NEXT_STATE ? scope.getNextState(stateId) : scope.getTransition(stateId,
+                                                                                                            type,
+                                                                                                            ordinal);
+        if (target == StateGraph.NONE) {
+            throw invalid(stateId,
+                          "is not an end state and has no " + type.getLabel());
+        }
+        return new Step(target,
+                        output);
+    }
+
+    /**
+     * Turns actions failing after their last retry into the retry next-state transition, with the state data.
+     */
+    private CompletableFuture<Step> retryTransition(int stateId,
+                                                    JsonNode data,
+                                                    CompletableFuture<Step> step) {
+        return step.handle((next, error) -> {
+            if (error == null) {
+                return next;
+            }
+            Throwable cause = WorkflowExecutionException.unwrap(error);
+            if (cause instanceof RetryTransition) {
+                return new Step(scope.getTransition(stateId,
+                                                    TransitionType.RETRY,
+                                                    ((RetryTransition) cause).ordinal),
+                                data);
+            }
+            throw WorkflowExecutionException.of(cause);
+        });
+    }
+
+    private CompletableFuture<JsonNode> runActions(List<Action> actions,
+                                                   boolean parallel,
+                                                   int ordinalOffset,
+                                                   JsonNode input) {
+        CompletableFuture<JsonNode> data = CompletableFuture.completedFuture(input);
+        if (actions == null || actions.isEmpty()) {
+            return data;
+        }
+        if (!parallel) {
+            for (int i = 0; i < actions.size(); i++) {
+                Action action = actions.get(i);
+                int ordinal = ordinalOffset + i;
+                data = data.thenCompose(current -> {
+                    CompiledFilter filter = graph.getFilter(action.getFilter());
+                    return invoke(action,
+                                  filter.selectInput(current),
+                                  ordinal,
+                                  0).thenApply(result -> output(filter,
+                                                                current,
+                                                                result));
+                });
+            }
+            return data;
+        }
+        List<CompletableFuture<JsonNode>> results = new ArrayList<>(actions.size());
+        for (int i = 0; i < actions.size(); i++) {
+            Action action = actions.get(i);
+            results.add(invoke(action,
+                               graph.getFilter(action.getFilter()).selectInput(input),
+                               ordinalOffset + i,
+                               0));
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    JsonNode current = input;
+                    for (int i = 0; i < actions.size(); i++) {
+                        current = output(graph.getFilter(actions.get(i).getFilter()),
+                                         current,
+                                         results.get(i).join());
+                    }
+                    return current;
+                });
+    }
+
+    /**
+     * Invokes the action, retrying failures as its retry allows.
+     */
+    private CompletableFuture<JsonNode> invoke(Action action,
+                                               JsonNode input,
+                                               int ordinal,
+                                               int attempt) {
+        CompletableFuture<JsonNode> result;
+        try {
+            result = engine.getActionHandler().execute(action,
+                                                       input).toCompletableFuture();
+        } catch (RuntimeException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+        Duration timeout = WorkflowEngine.parseDuration(action.getTimeout());
+        if (timeout != null) {
+            result = engine.within(instance,
+                                   result,
+                                   timeout,
+                                   "Action " + getFunctionName(action));
+        }
+        Retry retry = action.getRetry();
+        if (retry == null) {
+            return result;
+        }
+        return result.handle((value, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(value);
+            }
+            if (attempt < retry.getMaxRetry()) {
+                Duration interval = WorkflowEngine.parseDuration(retry.getRetryInterval());
+                return engine.delay(instance,
+                                    interval != null ? interval : Duration.ZERO)
+                        .thenCompose(elapsed -> invoke(action,
+                                                       input,
+                                                       ordinal,
+                                                       attempt + 1));
+            }
+            CompletableFuture<JsonNode> failed = new CompletableFuture<>();
+            Throwable cause = WorkflowExecutionException.unwrap(error);
+            failed.completeExceptionally(retry.getNextState() != null && !retry.getNextState().isEmpty() ? new RetryTransition(ordinal,
+                                                                                                                            cause) : cause);
+            return failed;
+        }).thenCompose(next -> next);
+    }
+
+    /**
+     * Parks the instance until one of the events arrives, then runs that event's actions.
+     */
+    private CompletableFuture<Step> awaitEvent(int stateId,
+                                               CompiledFilter filter,
+                                               JsonNode data,
+                                               JsonNode input) {
+        List<Event> events = ((EventState) scope.getState(stateId)).getEvents();
+        List<TriggerEvent> triggerEvents = graph.getWorkflow().getTriggerDefs();
+        EventWait wait = new EventWait(engine.getWaiting());
+        Duration timeout = null;
+        int eventCount = events != null ? events.size() : 0;
+        for (int i = 0; i < eventCount; i++) {
+            Event event = events.get(i);
+            if (event.getEventExpression() == null) {
+                throw invalid(stateId,
+                              "has an event without event-expression");
+            }
+            CompiledExpression expression = engine.getExpressionEvaluator().compile(event.getEventExpression());
+            if (triggerEvents != null) {
+                for (TriggerEvent triggerEvent : triggerEvents) {
+                    if (!expression.evaluate(triggerEvent)) {
+                        continue;
+                    }
+                    String token = WorkflowEngine.getToken(triggerEvent,
+                                                           input);
+                    if (token != null) {
+                        wait.add(WorkflowEngine.getTriggerKey(graph.getId(),
+                                                              triggerEvent),
+                                 token,
+                                 i);
+                    }
+                }
+            }
+            Duration eventTimeout = WorkflowEngine.parseDuration(event.getTimeout());
+            if (eventTimeout != null && (timeout == null || eventTimeout.compareTo(timeout) < 0)) {
+                timeout = eventTimeout;
+            }
+        }
+        if (wait.isEmpty()) {
+            throw invalid(stateId,
+                          "has no event matching a trigger event with the correlation token of its input");
+        }
+        wait.register();
+        if (timeout != null) {
+            engine.expireAfter(instance,
+                               wait,
+                               timeout,
+                               "Event state " + scope.getStateName(stateId));
+        }
+        return wait.getMatch().thenComposeAsync(match -> {
+            Event event = events.get(match.event);
+            CompiledFilter eventFilter = graph.getFilter(event.getFilter());
+            JsonNode eventData = output(eventFilter,
+                                        input,
+                                        eventFilter.selectInput(match.payload));
+            return runActions(event.getActions(),
+                              event.getActionMode() == Event.ActionMode.PARALLEL,
+                              getActionOffset(events,
+                                              match.event),
+                              eventData)
+                    .thenApply(result -> next(stateId,
+                                              TransitionType.EVENT,
+                                              match.event,
+                                              output(filter,
+                                                     data,
+                                                     result)));
+        },
+                                                 engine.getExecutor());
+    }
+
+    /**
+     * Runs every branch on the executor.
+     * @return future completed with the outputs of the branches to wait for, in declaration order
+     */
+    private CompletableFuture<JsonNode> runBranches(int stateId,
+                                                    JsonNode input) {
+        List<StateGraph> branches = scope.getBranches(stateId);
+        List<CompletableFuture<JsonNode>> waited = new ArrayList<>(branches.size());
+        for (StateGraph branch : branches) {
+            ScopeExecution execution = new ScopeExecution(engine,
+                                                          instance,
+                                                          branch,
+                                                          false);
+            if (branch.getBranch().isWaitForCompletion()) {
+                waited.add(execution.getCompletion());
+            } else {
+                execution.getCompletion().whenComplete((output, error) -> {
+                    if (error != null) {
+                        logger.warn("Branch {} of instance {} failed",
+                                    branch.getName(),
+                                    instance.getId(),
+                                    error);
+                    }
+                });
+            }
+            engine.execute(instance,
+                           () -> execution.start(input));
+        }
+        return CompletableFuture.allOf(waited.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    ArrayNode outputs = JsonNodeFactory.instance.arrayNode(waited.size());
+                    for (CompletableFuture<JsonNode> output : waited) {
+                        outputs.add(output.join());
+                    }
+                    return outputs;
+                });
+    }
+
+    /**
+     * Starts an instance of the subflow workflow.
+     * @return future completed with the subflow output, or right away with the input if the state does not wait
+     * for completion
+     */
+    private CompletableFuture<JsonNode> runSubflow(int stateId,
+                                                   JsonNode input) {
+        SubflowState subflowState = (SubflowState) scope.getState(stateId);
+        WorkflowGraph subflow = engine.getWorkflow(subflowState.getWorkflowId());
+        if (subflow == null) {
+            throw invalid(stateId,
+                          "starts workflow " + subflowState.getWorkflowId() + " which is not deployed");
+        }
+        if (subflowState.getWorkflowVersion() != null && !subflowState.getWorkflowVersion().equals(subflow.getVersion())) {
+            throw invalid(stateId,
+                          "starts version " + subflowState.getWorkflowVersion() + " of workflow "
+                                  + subflowState.getWorkflowId() + " but version " + subflow.getVersion() + " is deployed");
+        }
+        WorkflowInstance child = engine.start(subflow,
+                                              input);
+        return subflowState.isWaitForCompletion() ? child.getCompletion() : CompletableFuture.completedFuture(input);
+    }
+
+    private WorkflowExecutionException invalid(int stateId,
+                                               String message) {
+        return new WorkflowExecutionException(Workflow.ExecStatus.INVALID,
+                                              scope.getName() + ": state " + scope.getStateName(stateId) + " " + message);
+    }
+
+    /**
+     * @return the input with the result merged as the filter says, and the filter's output selected
+     */
+    private static JsonNode output(CompiledFilter filter,
+                                   JsonNode input,
+                                   JsonNode result) {
+        return filter.selectOutput(filter.mergeResult(input,
+                                                      result));
+    }
+
+    private static int getActionOffset(List<Event> events,
+                                       int event) {
+        int offset = 0;
+        for (int i = 0; i < event; i++) {
+            List<Action> actions = events.get(i).getActions();
+            offset += actions != null ? actions.size() : 0;
+        }
+        return offset;
+    }
+
+    private static String getFunctionName(Action action) {
+        return action.getFunction() != null ? action.getFunction().getName() : "without function";
+    }
+
+    /**
+     * Next state to run and its input, {@link StateGraph#NONE} once the scope is done.
+     */
+    private static final class Step {
+
+        final int stateId;
+        final JsonNode data;
+
+        Step(int stateId,
+             JsonNode data) {
+            this.stateId = stateId;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Failure of an action after its last retry, when the retry has a next-state.
+     */
+    private static final class RetryTransition extends RuntimeException {
+
+        final int ordinal;
+
+        RetryTransition(int ordinal,
+                        Throwable cause) {
+            super(cause);
+            this.ordinal = ordinal;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.engine;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.ExpressionEvaluator;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.correlation.CorrelationIndex;
+import org.serverless.workflow.api.correlation.CorrelationPath;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.expressions.JexlExpressionEvaluator;
+import org.serverless.workflow.api.graph.WorkflowGraph;
+import org.serverless.workflow.api.graph.WorkflowGraphCompiler;
+import org.serverless.workflow.api.routing.EventSubscription;
+import org.serverless.workflow.api.routing.EventSubscriptionIndex;
+import org.serverless.workflow.spi.ExpressionEvaluatorProvider;
+
+/**
+ * Reference in-memory engine running workflow instances.
+ * <p>
+ * Workflows are compiled when deployed. Each instance walks its states without blocking a thread: actions are
+ * started through the {@link ActionHandler}, delays and timeouts are scheduled, and an instance in an event state
+ * is parked until a matching event is {@link #publish(String, String, JsonNode) published}. Whenever a step does
+ * not complete immediately the instance resumes on the engine executor, which by default uses virtual threads
+ * where available, see {@link EngineExecutors}.
+ * <p>
+ * Every instance ends with an exec-status: {@code Success}, {@code Fail} when an action or subflow fails,
+ * {@code Timeout} when an action or event times out, and {@code Invalid} when the definition cannot be executed,
+ * for example a switch state without matching choice or default. The shared workflow definitions are never
+ * modified, the status is reported by {@link WorkflowInstance#getExecStatus()}.
+ * <p>
+ * Action retries apply to every failure of the action; the retry {@code match} is not interpreted.
+ */
+public class WorkflowEngine implements AutoCloseable {
+
+    /**
+     * Correlation token of triggers without correlation-token: every instance waiting for them matches
+     */
+    static final String UNCORRELATED = "";
+
+    // waits are bounded by the event timeouts, the index bounds only guard against leaks
+    private static final Duration MAX_WAIT = Duration.ofDays(365);
+
+    private final ActionHandler actionHandler;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final ExpressionEvaluator expressionEvaluator;
+    private final List<ExecutorService> ownedExecutors = new ArrayList<>();
+
+    private final Map<String, WorkflowGraph> workflows = new ConcurrentHashMap<>();
+    private final EventSubscriptionIndex subscriptions = new EventSubscriptionIndex();
+    private final CorrelationIndex<EventWait.Waiter> waiting = new CorrelationIndex<>(Integer.MAX_VALUE,
+                                                                                     MAX_WAIT);
+    private final AtomicLong instanceCount = new AtomicLong();
+    private final AtomicInteger runningCount = new AtomicInteger();
+
+    /**
+     * Creates an engine with its own default executor and scheduler, shut down by {@link #close()}.
+     */
+    public WorkflowEngine(ActionHandler actionHandler) {
+        this(actionHandler,
+             EngineExecutors.newDefaultExecutor());
+        ownedExecutors.add((ExecutorService) executor);
+    }
+
+    /**
+     * Creates an engine running on the given executor, with its own scheduler shut down by {@link #close()}.
+     */
+    public WorkflowEngine(ActionHandler actionHandler,
+                          Executor executor) {
+        this(actionHandler,
+             executor,
+             EngineExecutors.newScheduler(),
+             ExpressionEvaluatorProvider.getInstance().getCachingEvaluator(JexlExpressionEvaluator.NAME));
+        ownedExecutors.add(scheduler);
+    }
+
+    /**
+     * @param scheduler schedules delays and timeouts, the scheduled tasks only hand over to the executor
+     * @param expressionEvaluator evaluates the event-expression of events against trigger event definitions
+     */
+    public WorkflowEngine(ActionHandler actionHandler,
+                          Executor executor,
+                          ScheduledExecutorService scheduler,
+                          ExpressionEvaluator expressionEvaluator) {
+        this.actionHandler = actionHandler;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.expressionEvaluator = expressionEvaluator;
+    }
+
+    /**
+     * Compiles the workflow and subscribes it to its trigger events, replacing a workflow deployed earlier with
+     * the same id.
+     * @throws IllegalArgumentException if the workflow has no id or cannot be compiled
+     */
+    public WorkflowGraph deploy(Workflow workflow) {
+        if (workflow.getId() == null || workflow.getId().isEmpty()) {
+            throw new IllegalArgumentException("Workflow id is required to deploy a workflow");
+        }
+        WorkflowGraph graph = WorkflowGraphCompiler.compile(workflow);
+        subscriptions.register(workflow);
+        workflows.put(workflow.getId(),
+                      graph);
+        return graph;
+    }
+
+    /**
+     * @return true if a workflow with the given id was deployed, running instances are not affected
+     */
+    public boolean undeploy(String workflowId) {
+        subscriptions.unregister(workflowId);
+        return workflows.remove(workflowId) != null;
+    }
+
+    public boolean isDeployed(String workflowId) {
+        return workflows.containsKey(workflowId);
+    }
+
+    /**
+     * Starts an instance of a deployed workflow on the engine executor.
+     * @throws IllegalArgumentException if no workflow with the given id is deployed
+     */
+    public WorkflowInstance start(String workflowId,
+                                  JsonNode input) {
+        WorkflowGraph graph = workflows.get(workflowId);
+        if (graph == null) {
+            throw new IllegalArgumentException("Workflow " + workflowId + " is not deployed");
+        }
+        return start(graph,
+                     input);
+    }
+
+    /**
+     * Resumes the instances waiting in an event state for the event, correlating it through the
+     * correlation-token of the matching trigger event definitions.
+     * @return number of resumed instances
+     */
+    public int publish(String source,
+                       String type,
+                       JsonNode payload) {
+        int resumed = 0;
+        for (EventSubscription subscription : subscriptions.getSubscriptions(source,
+                                                                             type)) {
+            TriggerEvent triggerEvent = subscription.getTriggerEvent();
+            String token = getToken(triggerEvent,
+                                    payload);
+            if (token == null) {
+                continue;
+            }
+            for (EventWait.Waiter waiter : waiting.take(getTriggerKey(subscription.getWorkflowId(),
+                                                                      triggerEvent),
+                                                        token)) {
+                if (waiter.fire(payload)) {
+                    resumed++;
+                }
+            }
+        }
+        return resumed;
+    }
+
+    /**
+     * @return number of started instances which have not ended yet
+     */
+    public int getRunningCount() {
+        return runningCount.get();
+    }
+
+    /**
+     * @return number of event registrations of instances waiting in event states
+     */
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * Shuts down the executors the engine created.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService ownedExecutor : ownedExecutors) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    WorkflowInstance start(WorkflowGraph graph,
+                           JsonNode input) {
+        runningCount.incrementAndGet();
+        WorkflowInstance instance = new WorkflowInstance(graph.getId() + "-" + instanceCount.incrementAndGet(),
+                                                         graph,
+                                                         runningCount::decrementAndGet);
+        ScopeExecution execution = new ScopeExecution(this,
+                                                      instance,
+                                                      graph.getRoot(),
+                                                      true);
+        execution.getCompletion().whenComplete((output, error) -> {
+            if (error != null) {
+                instance.fail(error);
+            } else {
+                instance.complete(output);
+            }
+        });
+        execute(instance,
+                () -> execution.start(input));
+        return instance;
+    }
+
+    WorkflowGraph getWorkflow(String workflowId) {
+        return workflows.get(workflowId);
+    }
+
+    ActionHandler getActionHandler() {
+        return actionHandler;
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    ExpressionEvaluator getExpressionEvaluator() {
+        return expressionEvaluator;
+    }
+
+    CorrelationIndex<EventWait.Waiter> getWaiting() {
+        return waiting;
+    }
+
+    /**
+     * Runs the task on the executor, failing the instance if the executor rejects it.
+     */
+    void execute(WorkflowInstance instance,
+                 Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            instance.fail(e);
+        }
+    }
+
+    /**
+     * @return future completed on the executor once the delay has elapsed
+     */
+    CompletableFuture<Void> delay(WorkflowInstance instance,
+                                  Duration delay) {
+        CompletableFuture<Void> elapsed = new CompletableFuture<>();
+        scheduler.schedule(() -> execute(instance,
+                                         () -> elapsed.complete(null)),
+                           delay.toNanos(),
+                           TimeUnit.NANOSECONDS);
+        return elapsed;
+    }
+
+    /**
+     * @return future completed like the given one, or exceptionally with a {@link TimeoutException} on the
+     * executor if the given one does not complete in time
+     */
+    <T> CompletableFuture<T> within(WorkflowInstance instance,
+                                    CompletableFuture<T> future,
+                                    Duration timeout,
+                                    String task) {
+        if (future.isDone()) {
+            return future;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ScheduledFuture<?> timer = scheduler.schedule(() -> execute(instance,
+                                                                    () -> result.completeExceptionally(new TimeoutException(task + " timed out after " + timeout))),
+                                                      timeout.toNanos(),
+                                                      TimeUnit.NANOSECONDS);
+        future.whenComplete((value, error) -> {
+            timer.cancel(false);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Ends the wait with a {@link TimeoutException} if no event arrives in time.
+     */
+    void expireAfter(WorkflowInstance instance,
+                     EventWait wait,
+                     Duration timeout,
+                     String task) {
+        ScheduledFuture<?> timer = scheduler.schedule(() -> execute(instance,
+                                                                    () -> wait.expire(new TimeoutException(task + " timed out after " + timeout))),
+                                                      timeout.toNanos(),
+                                                      TimeUnit.NANOSECONDS);
+        wait.getMatch().whenComplete((match, error) -> timer.cancel(false));
+    }
+
+    static String getTriggerKey(String workflowId,
+                                TriggerEvent triggerEvent) {
+        return workflowId + "/" + triggerEvent.getName();
+    }
+
+    /**
+     * @return correlation token of the data for the trigger event, {@link #UNCORRELATED} if the trigger has no
+     * correlation-token, null if the data has no token
+     */
+    static String getToken(TriggerEvent triggerEvent,
+                           JsonNode data) {
+        if (triggerEvent.getCorrelationToken() == null || triggerEvent.getCorrelationToken().isEmpty()) {
+            return UNCORRELATED;
+        }
+        return CorrelationPath.forTrigger(triggerEvent).extract(data);
+    }
+
+    /**
+     * @return the ISO 8601 duration, null if none is given
+     * @throws WorkflowExecutionException with status {@link Workflow.ExecStatus#INVALID} for invalid durations
+     */
+    static Duration parseDuration(String duration) {
+        if (duration == null || duration.isEmpty()) {
+            return null;
+        }
+        try {
+            return Duration.parse(duration);
+        } catch (DateTimeParseException e) {
+            throw new WorkflowExecutionException(Workflow.ExecStatus.INVALID,
+                                                 "Invalid duration " + duration,
+                                                 e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.engine;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.serverless.workflow.api.Workflow;
+
+/**
+ * Failure of a workflow instance, with the exec-status it ended with.
+ */
+public class WorkflowExecutionException extends RuntimeException {
+
+    private final Workflow.ExecStatus execStatus;
+
+    public WorkflowExecutionException(Workflow.ExecStatus execStatus,
+                                      String message) {
+        this(execStatus,
+             message,
+             null);
+    }
+
+    public WorkflowExecutionException(Workflow.ExecStatus execStatus,
+                                      String message,
+                                      Throwable cause) {
+        super(message,
+              cause);
+        this.execStatus = execStatus;
+    }
+
+    public Workflow.ExecStatus getExecStatus() {
+        return execStatus;
+    }
+
+    /**
+     * @return the error itself if it is a workflow execution exception, otherwise an exception with status
+     * {@link Workflow.ExecStatus#TIMEOUT} for timeouts and {@link Workflow.ExecStatus#FAIL} for other errors
+     */
+    static WorkflowExecutionException of(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof WorkflowExecutionException) {
+            return (WorkflowExecutionException) cause;
+        }
+        return new WorkflowExecutionException(cause instanceof TimeoutException ? Workflow.ExecStatus.TIMEOUT : Workflow.ExecStatus.FAIL,
+                                              String.valueOf(cause.getMessage()),
+                                              cause);
+    }
+
+    static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
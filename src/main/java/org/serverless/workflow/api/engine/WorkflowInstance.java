@@ -0,0 +1,123 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.graph.WorkflowGraph;
+
+/**
+ * One execution of a workflow started by a {@link WorkflowEngine}.
+ */
+public final class WorkflowInstance {
+
+    private final String id;
+    private final WorkflowGraph graph;
+    private final Runnable onDone;
+    private final CompletableFuture<JsonNode> result = new CompletableFuture<>();
+    private final AtomicReference<Workflow.ExecStatus> execStatus = new AtomicReference<>();
+    private volatile String currentState;
+
+    /**
+     * @param onDone run once when the instance ends, before its result is completed
+     */
+    WorkflowInstance(String id,
+                     WorkflowGraph graph,
+                     Runnable onDone) {
+        this.id = id;
+        this.graph = graph;
+        this.onDone = onDone;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getWorkflowId() {
+        return graph.getId();
+    }
+
+    public Workflow getWorkflow() {
+        return graph.getWorkflow();
+    }
+
+    /**
+     * @return name of the top-level state the instance is in, or ended in
+     */
+    public String getCurrentState() {
+        return currentState;
+    }
+
+    /**
+     * @return exec-status the instance ended with, null while it runs
+     */
+    public Workflow.ExecStatus getExecStatus() {
+        return execStatus.get();
+    }
+
+    public boolean isDone() {
+        return execStatus.get() != null;
+    }
+
+    /**
+     * @return future completed with the workflow output, or exceptionally with a
+     * {@link WorkflowExecutionException} if the instance does not succeed
+     */
+    public CompletableFuture<JsonNode> getResult() {
+        return result.thenApply(Function.identity());
+    }
+
+    WorkflowGraph getGraph() {
+        return graph;
+    }
+
+    CompletableFuture<JsonNode> getCompletion() {
+        return result;
+    }
+
+    void enter(String stateName) {
+        currentState = stateName;
+    }
+
+    void complete(JsonNode output) {
+        if (execStatus.compareAndSet(null,
+                                     Workflow.ExecStatus.SUCCESS)) {
+            onDone.run();
+            result.complete(output);
+        }
+    }
+
+    void fail(Throwable error) {
+        WorkflowExecutionException exception = WorkflowExecutionException.of(error);
+        if (execStatus.compareAndSet(null,
+                                     exception.getExecStatus())) {
+            onDone.run();
+            result.completeExceptionally(exception);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return id + "/" + currentState;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.expressions;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlException;
+import org.apache.commons.jexl3.JexlExpression;
+import org.apache.commons.jexl3.introspection.JexlSandbox;
+import org.serverless.workflow.api.CompiledExpression;
+import org.serverless.workflow.api.ExpressionEvaluator;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.spi.ExpressionCache;
+
+/**
+ * Evaluates event expressions with Apache Commons JEXL, for example
+ * {@code type == 'order.created' && metadata.priority == 'high'}.
+ * <p>
+ * Expressions can read the trigger event name, source, type, correlationToken and metadata. Only single
+ * expressions are parsed, so loops and statement blocks are rejected. Parsed expressions are cached, and
+ * they run in a white list sandbox which only allows reading metadata and calling a few String methods, so
+ * expressions cannot create objects or reach reflection.
+ */
+public class JexlExpressionEvaluator implements ExpressionEvaluator {
+
+    public static final String NAME = "jexl";
+
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 512;
+    private static final long DEFAULT_CACHE_MAX_WEIGHT = 256 * 1024;
+    private static final int ENGINE_CACHE_SIZE = 16;
+
+    // an empty white list allows every name, so denied members are restricted to a name no class has
+    private static final String NONE = "";
+
+    private static final String[] STRING_METHODS = {
+            "contains",
+            "endsWith",
+            "equals",
+            "equalsIgnoreCase",
+            "isEmpty",
+            "length",
+            "startsWith",
+            "toLowerCase",
+            "toUpperCase",
+            "trim"
+    };
+
+    private final JexlEngine engine;
+    private final ExpressionCache<JexlExpression> expressionCache;
+    // bound once, so cache lookups do not allocate a method reference
+    private final Function<String, JexlExpression> expressionLoader = this::createExpression;
+
+    public JexlExpressionEvaluator() {
+        this(new ExpressionCache<>(DEFAULT_CACHE_MAX_ENTRIES,
+                                   DEFAULT_CACHE_MAX_WEIGHT));
+    }
+
+    public JexlExpressionEvaluator(ExpressionCache<JexlExpression> expressionCache) {
+        this.expressionCache = expressionCache;
+        // expressions are cached here, the engine cache only stays enabled because without one JEXL
+        // does not memoize property and method lookups in the parsed expression
+        this.engine = new JexlBuilder()
+                .sandbox(newSandbox())
+                .strict(true)
+                .silent(false)
+                .cache(ENGINE_CACHE_SIZE)
+                .create();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean evaluate(String expression,
+                            TriggerEvent triggerEvent) {
+        return execute(expression,
+                       expressionCache.get(expression,
+                                       expressionLoader),
+                       triggerEvent);
+    }
+
+    @Override
+    public CompiledExpression compile(String expression) {
+        return new CompiledJexlExpression(expression,
+                                            expressionCache.get(expression,
+                                                            expressionLoader));
+    }
+
+    /**
+     * Runs every expression against one context, so the event metadata accessor is shared by all of them.
+     */
+    @Override
+    public BitSet evaluate(List<String> expressions,
+                           TriggerEvent triggerEvent,
+                           BitSet results) {
+        TriggerEventContext context = new TriggerEventContext(triggerEvent);
+        results.clear();
+        for (int i = 0; i < expressions.size(); i++) {
+            String expression = expressions.get(i);
+            if (execute(expression,
+                        expressionCache.get(expression,
+                                        expressionLoader),
+                        context)) {
+                results.set(i);
+            }
+        }
+        return results;
+    }
+
+    public ExpressionCache<JexlExpression> getExpressionCache() {
+        return expressionCache;
+    }
+
+    /**
+     * @return a white list sandbox which only allows reading event metadata, calling a few String methods and
+     * testing membership in string array literals
+     */
+    public static JexlSandbox newSandbox() {
+        JexlSandbox sandbox = new JexlSandbox(false);
+        sandbox.white(TriggerEventContext.Metadata.class.getName())
+                .write(NONE)
+                .execute(NONE);
+        sandbox.white(String.class.getName())
+                .read(NONE)
+                .write(NONE)
+                .execute(STRING_METHODS);
+        sandbox.white(String[].class.getName())
+                .read(NONE)
+                .write(NONE)
+                .execute("contains");
+        return sandbox;
+    }
+
+    private JexlExpression createExpression(String expression) {
+        try {
+            return engine.createExpression(expression);
+        } catch (JexlException e) {
+            throw new IllegalArgumentException("Invalid jexl expression: " + expression,
+                                               e);
+        }
+    }
+
+    private static final class CompiledJexlExpression implements CompiledExpression {
+
+        private final String expression;
+        private final JexlExpression jexlExpression;
+
+        private CompiledJexlExpression(String expression,
+                                       JexlExpression jexlExpression) {
+            this.expression = expression;
+            this.jexlExpression = jexlExpression;
+        }
+
+        @Override
+        public boolean evaluate(TriggerEvent triggerEvent) {
+            return execute(expression,
+                           jexlExpression,
+                           triggerEvent);
+        }
+
+        /**
+         * Runs the expression for every event with a single reused context.
+         */
+        @Override
+        public BitSet evaluate(List<TriggerEvent> triggerEvents,
+                               BitSet results) {
+            TriggerEventContext context = new TriggerEventContext(null);
+            results.clear();
+            for (int i = 0; i < triggerEvents.size(); i++) {
+                context.reset(triggerEvents.get(i));
+                if (execute(expression,
+                            jexlExpression,
+                            context)) {
+                    results.set(i);
+                }
+            }
+            return results;
+        }
+    }
+
+    private static boolean execute(String expression,
+                                   JexlExpression jexlExpression,
+                                   TriggerEvent triggerEvent) {
+        return execute(expression,
+                       jexlExpression,
+                       new TriggerEventContext(triggerEvent));
+    }
+
+    private static boolean execute(String expression,
+                                   JexlExpression jexlExpression,
+                                   TriggerEventContext context) {
+        try {
+            return Boolean.TRUE.equals(jexlExpression.evaluate(context));
+        } catch (JexlException e) {
+            throw new IllegalArgumentException("Unable to evaluate jexl expression: " + expression,
+                                               e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.expressions;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+import org.serverless.workflow.api.CompiledExpression;
+import org.serverless.workflow.api.ExpressionEvaluator;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.spi.ExpressionCache;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+/**
+ * Evaluates event expressions with the Spring Expression Language, for example
+ * {@code type == 'order.created' and metadata['priority'] == 'high'}.
+ * <p>
+ * The trigger event is the root object, so expressions can read its name, source, type, correlationToken and
+ * metadata. Parsed expressions are cached, and by default hot expressions are compiled to bytecode
+ * ({@link SpelCompilerMode#MIXED}). All evaluations share one read-only data binding context, which has no
+ * type references, constructors, bean references or method calls.
+ */
+public class SpelExpressionEvaluator implements ExpressionEvaluator {
+
+    public static final String NAME = "spel";
+
+    /**
+     * System property with the {@link SpelCompilerMode} of the evaluator discovered through the service loader
+     */
+    public static final String COMPILER_MODE_PROPERTY = "org.serverless.workflow.spel.compilermode";
+
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 512;
+    private static final long DEFAULT_CACHE_MAX_WEIGHT = 256 * 1024;
+
+    private final SpelCompilerMode compilerMode;
+    private final SpelExpressionParser parser;
+    private final EvaluationContext evaluationContext = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+    private final ExpressionCache<Expression> expressionCache;
+    // bound once, so cache lookups do not allocate a method reference
+    private final Function<String, Expression> expressionLoader = this::parseExpression;
+
+    public SpelExpressionEvaluator() {
+        this(SpelCompilerMode.valueOf(System.getProperty(COMPILER_MODE_PROPERTY,
+                                                         SpelCompilerMode.MIXED.name())),
+             new ExpressionCache<>(DEFAULT_CACHE_MAX_ENTRIES,
+                                   DEFAULT_CACHE_MAX_WEIGHT));
+    }
+
+    public SpelExpressionEvaluator(SpelCompilerMode compilerMode,
+                                   ExpressionCache<Expression> expressionCache) {
+        this.compilerMode = compilerMode;
+        this.parser = new SpelExpressionParser(new SpelParserConfiguration(compilerMode,
+                                                                           SpelExpressionEvaluator.class.getClassLoader()));
+        this.expressionCache = expressionCache;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean evaluate(String expression,
+                            TriggerEvent triggerEvent) {
+        return execute(expression,
+                       expressionCache.get(expression,
+                                           expressionLoader),
+                       triggerEvent);
+    }
+
+    @Override
+    public CompiledExpression compile(String expression) {
+        Expression parsedExpression = expressionCache.get(expression,
+                                                          expressionLoader);
+        return triggerEvent -> execute(expression,
+                                       parsedExpression,
+                                       triggerEvent);
+    }
+
+    /**
+     * Evaluates the cached expressions directly, without wrapping each one in a compiled expression.
+     */
+    @Override
+    public BitSet evaluate(List<String> expressions,
+                           TriggerEvent triggerEvent,
+                           BitSet results) {
+        results.clear();
+        for (int i = 0; i < expressions.size(); i++) {
+            String expression = expressions.get(i);
+            if (execute(expression,
+                        expressionCache.get(expression,
+                                            expressionLoader),
+                        triggerEvent)) {
+                results.set(i);
+            }
+        }
+        return results;
+    }
+
+    public SpelCompilerMode getCompilerMode() {
+        return compilerMode;
+    }
+
+    public ExpressionCache<Expression> getExpressionCache() {
+        return expressionCache;
+    }
+
+    private Expression parseExpression(String expression) {
+        try {
+            return parser.parseExpression(expression);
+        } catch (ExpressionException e) {
+            throw new IllegalArgumentException("Invalid spel expression: " + expression,
+                                               e);
+        }
+    }
+
+    private boolean execute(String expression,
+                            Expression parsedExpression,
+                            TriggerEvent triggerEvent) {
+        try {
+            return Boolean.TRUE.equals(parsedExpression.getValue(evaluationContext,
+                                                                 triggerEvent));
+        } catch (ExpressionException e) {
+            throw new IllegalArgumentException("Unable to evaluate spel expression: " + expression,
+                                               e);
+        }
+    }
+}
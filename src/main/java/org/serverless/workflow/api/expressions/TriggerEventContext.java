@@ -0,0 +1,114 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.expressions;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.jexl3.JexlContext;
+import org.serverless.workflow.api.events.TriggerEvent;
+
+/**
+ * Read-only JEXL context which resolves variables straight from the trigger event fields,
+ * without copying them into a map. Batch evaluation reuses one context by resetting its event.
+ */
+final class TriggerEventContext implements JexlContext {
+
+    static final String NAME = "name";
+    static final String SOURCE = "source";
+    static final String TYPE = "type";
+    static final String CORRELATION_TOKEN = "correlationToken";
+    static final String METADATA = "metadata";
+
+    private TriggerEvent triggerEvent;
+    private Metadata metadata;
+
+    TriggerEventContext(TriggerEvent triggerEvent) {
+        this.triggerEvent = triggerEvent;
+    }
+
+    void reset(TriggerEvent triggerEvent) {
+        this.triggerEvent = triggerEvent;
+        this.metadata = null;
+    }
+
+    @Override
+    public Object get(String name) {
+        switch (name) {
+            case NAME:
+                return triggerEvent.getName();
+            case SOURCE:
+                return triggerEvent.getSource();
+            case TYPE:
+                return triggerEvent.getType();
+            case CORRELATION_TOKEN:
+                return triggerEvent.getCorrelationToken();
+            case METADATA:
+                if (metadata == null) {
+                    metadata = Metadata.of(triggerEvent.getMetadata());
+                }
+                return metadata;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void set(String name,
+                    Object value) {
+        throw new UnsupportedOperationException("Trigger event variables are read-only: " + name);
+    }
+
+    @Override
+    public boolean has(String name) {
+        switch (name) {
+            case NAME:
+            case SOURCE:
+            case TYPE:
+            case CORRELATION_TOKEN:
+            case METADATA:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Exposes the event metadata to expressions as {@code metadata.key} or {@code metadata['key']}, without
+     * handing out the map itself.
+     */
+    public static final class Metadata {
+
+        private static final Metadata EMPTY = new Metadata(Collections.emptyMap());
+
+        private final Map<String, String> values;
+
+        private Metadata(Map<String, String> values) {
+            this.values = values;
+        }
+
+        static Metadata of(Map<String, String> values) {
+            return values == null || values.isEmpty() ? EMPTY : new Metadata(values);
+        }
+
+        public String get(String key) {
+            return values.get(key);
+        }
+    }
+}
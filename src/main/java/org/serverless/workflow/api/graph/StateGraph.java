@@ -0,0 +1,244 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.graph;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.serverless.workflow.api.branches.Branch;
+import org.serverless.workflow.api.decisions.SwitchProgram;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.jsonpath.CompiledFilter;
+import org.serverless.workflow.api.states.DefaultState;
+
+/**
+ * Compiled states of one scope: the states of a workflow or of a parallel state branch.
+ * <p>
+ * States are identified by dense ids, their index in the scope's state list. Transitions are stored in
+ * compressed sparse row form: the transitions of state {@code s} are the ids from {@link #getTransitionStart(int)}
+ * (inclusive) to {@link #getTransitionEnd(int)} (exclusive), in the order of {@link Transitions}.
+ * Targets are resolved to state ids. Instances are immutable and can be shared between threads,
+ * provided the model objects they reference are not modified.
+ */
+public class StateGraph {
+
+    /**
+     * Id returned for missing states and transitions
+     */
+    public static final int NONE = -1;
+
+    private static final TransitionType[] TRANSITION_TYPES = TransitionType.values();
+
+    private final String name;
+    private final Branch branch;
+    private final int startState;
+    private final State[] states;
+    private final String[] stateNames;
+    private final DefaultState.Type[] stateTypes;
+    private final boolean[] endStates;
+    private final CompiledFilter[] stateFilters;
+    private final SwitchProgram[] switchPrograms;
+    private final Map<String, Integer> stateIds;
+    private final int[] transitionOffsets;
+    private final int[] transitionTargets;
+    private final byte[] transitionTypes;
+    private final int[] transitionOrdinals;
+    private final int[] nextStates;
+    private final int[] defaultStates;
+    private final int[][] choiceTargets;
+    private final List<List<StateGraph>> branches;
+
+    StateGraph(String name,
+               Branch branch,
+               int startState,
+               State[] states,
+               String[] stateNames,
+               DefaultState.Type[] stateTypes,
+               boolean[] endStates,
+               CompiledFilter[] stateFilters,
+               SwitchProgram[] switchPrograms,
+               Map<String, Integer> stateIds,
+               int[] transitionOffsets,
+               int[] transitionTargets,
+               byte[] transitionTypes,
+               int[] transitionOrdinals,
+               int[] nextStates,
+               int[] defaultStates,
+               int[][] choiceTargets,
+               List<List<StateGraph>> branches) {
+        this.name = name;
+        this.branch = branch;
+        this.startState = startState;
+        this.states = states;
+        this.stateNames = stateNames;
+        this.stateTypes = stateTypes;
+        this.endStates = endStates;
+        this.stateFilters = stateFilters;
+        this.switchPrograms = switchPrograms;
+        this.stateIds = stateIds;
+        this.transitionOffsets = transitionOffsets;
+        this.transitionTargets = transitionTargets;
+        this.transitionTypes = transitionTypes;
+        this.transitionOrdinals = transitionOrdinals;
+        this.nextStates = nextStates;
+        this.defaultStates = defaultStates;
+        this.choiceTargets = choiceTargets;
+        this.branches = branches;
+    }
+
+    /**
+     * @return workflow name for the workflow scope, branch name for a branch scope
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the compiled branch, null for the workflow scope
+     */
+    public Branch getBranch() {
+        return branch;
+    }
+
+    public int getStartState() {
+        return startState;
+    }
+
+    public int getStateCount() {
+        return states.length;
+    }
+
+    /**
+     * @return id of the named state, {@link #NONE} if the scope has no such state
+     */
+    public int getStateId(String stateName) {
+        Integer stateId = stateIds.get(stateName);
+        return stateId != null ? stateId : NONE;
+    }
+
+    public String getStateName(int stateId) {
+        return stateNames[stateId];
+    }
+
+    /**
+     * @return the model object of the state
+     */
+    public State getState(int stateId) {
+        return states[stateId];
+    }
+
+    public DefaultState.Type getStateType(int stateId) {
+        return stateTypes[stateId];
+    }
+
+    public boolean isEnd(int stateId) {
+        return endStates[stateId];
+    }
+
+    /**
+     * @return compiled filter of the state, {@link CompiledFilter#IDENTITY} if it has none
+     */
+    public CompiledFilter getFilter(int stateId) {
+        return stateFilters[stateId];
+    }
+
+    /**
+     * @return compiled choices of a switch state, null for other states
+     */
+    public SwitchProgram getSwitchProgram(int stateId) {
+        return switchPrograms[stateId];
+    }
+
+    /**
+     * @return target of the first choice of the switch state matching the input, of its default if none does,
+     * {@link #NONE} if it has no default or is not a switch state
+     */
+    public int getSwitchTarget(int stateId,
+                               JsonNode input) {
+        SwitchProgram switchProgram = switchPrograms[stateId];
+        if (switchProgram == null) {
+            return NONE;
+        }
+        int choice = switchProgram.select(input);
+        return choice != SwitchProgram.NO_MATCH ? choiceTargets[stateId][choice] : defaultStates[stateId];
+    }
+
+    public int getTransitionCount() {
+        return transitionTargets.length;
+    }
+
+    public int getTransitionStart(int stateId) {
+        return transitionOffsets[stateId];
+    }
+
+    public int getTransitionEnd(int stateId) {
+        return transitionOffsets[stateId + 1];
+    }
+
+    public int getTransitionTarget(int transition) {
+        return transitionTargets[transition];
+    }
+
+    public TransitionType getTransitionType(int transition) {
+        return TRANSITION_TYPES[transitionTypes[transition]];
+    }
+
+    public int getTransitionOrdinal(int transition) {
+        return transitionOrdinals[transition];
+    }
+
+    /**
+     * @return target of the state's next-state, {@link #NONE} if it has none
+     */
+    public int getNextState(int stateId) {
+        return nextStates[stateId];
+    }
+
+    /**
+     * @return target of the switch state's default, {@link #NONE} if it has none
+     */
+    public int getDefaultState(int stateId) {
+        return defaultStates[stateId];
+    }
+
+    /**
+     * @return target of the event or choice next-state, or of the action retry, with the given ordinal,
+     * {@link #NONE} if the state declares no such transition
+     */
+    public int getTransition(int stateId,
+                             TransitionType type,
+                             int ordinal) {
+        for (int transition = transitionOffsets[stateId]; transition < transitionOffsets[stateId + 1]; transition++) {
+            if (transitionTypes[transition] == type.ordinal() && transitionOrdinals[transition] == ordinal) {
+                return transitionTargets[transition];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @return compiled branches of a parallel state, empty for other states
+     */
+    public List<StateGraph> getBranches(int stateId) {
+        List<StateGraph> stateBranches = branches.get(stateId);
+        return stateBranches != null ? stateBranches : Collections.emptyList();
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.validation.ValidationError;
+
+/**
+ * Finds structural problems in compiled workflows.
+ * <p>
+ * All analyses run in time linear in states plus transitions and use no recursion, so they scale to very
+ * large generated workflows:
+ * <ul>
+ * <li>states not reachable from starts-at</li>
+ * <li>reachable states from which no end state can be reached</li>
+ * <li>reachable cycles without a delay or event state (busy loops), found as strongly connected components
+ * of the states which do not wait with Tarjan's algorithm. Retry transitions are ignored here, they are bounded by max-retry and spaced by
+ * retry-interval.</li>
+ * </ul>
+ */
+public class StateGraphAnalyzer {
+
+    private StateGraphAnalyzer() {
+    }
+
+    /**
+     * @return findings for the workflow states and all branches, as {@link ValidationError#WORKFLOW_VALIDATION} errors
+     */
+    public static List<ValidationError> validate(WorkflowGraph workflowGraph) {
+        List<ValidationError> validationErrors = new ArrayList<>();
+        validate("workflow",
+                 workflowGraph.getRoot(),
+                 validationErrors);
+        return validationErrors;
+    }
+
+    /**
+     * @return ids of the states reachable from the start state
+     */
+    public static BitSet getReachableStates(StateGraph graph) {
+        int stateCount = graph.getStateCount();
+        BitSet reachable = new BitSet(stateCount);
+        if (graph.getStartState() == StateGraph.NONE) {
+            return reachable;
+        }
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = graph.getStartState();
+        reachable.set(graph.getStartState());
+        while (head < tail) {
+            int state = queue[head++];
+            for (int transition = graph.getTransitionStart(state); transition < graph.getTransitionEnd(state); transition++) {
+                int target = graph.getTransitionTarget(transition);
+                if (!reachable.get(target)) {
+                    reachable.set(target);
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @return ids of the states from which an end state can be reached
+     */
+    public static BitSet getStatesReachingEnd(StateGraph graph) {
+        int stateCount = graph.getStateCount();
+
+        // reverse adjacency in the same compressed form as the graph
+        int[] reverseOffsets = new int[stateCount + 1];
+        for (int transition = 0; transition < graph.getTransitionCount(); transition++) {
+            reverseOffsets[graph.getTransitionTarget(transition) + 1]++;
+        }
+        for (int state = 0; state < stateCount; state++) {
+            reverseOffsets[state + 1] += reverseOffsets[state];
+        }
+        int[] reverseSources = new int[graph.getTransitionCount()];
+        int[] fill = Arrays.copyOf(reverseOffsets,
+                                   stateCount);
+        for (int state = 0; state < stateCount; state++) {
+            for (int transition = graph.getTransitionStart(state); transition < graph.getTransitionEnd(state); transition++) {
+                reverseSources[fill[graph.getTransitionTarget(transition)]++] = state;
+            }
+        }
+
+        BitSet reachingEnd = new BitSet(stateCount);
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        for (int state = 0; state < stateCount; state++) {
+            if (graph.isEnd(state)) {
+                reachingEnd.set(state);
+                queue[tail++] = state;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            for (int i = reverseOffsets[state]; i < reverseOffsets[state + 1]; i++) {
+                int source = reverseSources[i];
+                if (!reachingEnd.get(source)) {
+                    reachingEnd.set(source);
+                    queue[tail++] = source;
+                }
+            }
+        }
+        return reachingEnd;
+    }
+
+    /**
+     * @return cycles among the given states, ignoring retry transitions, which can be followed without passing a
+     * delay or event state. Each cycle is a strongly connected component of the states which do not wait, given
+     * as state ids.
+     */
+    public static List<int[]> getBusyLoops(StateGraph graph,
+                                           BitSet states) {
+        // a component which contains a waiting state can still hold a shorter cycle around it
+        BitSet busyStates = (BitSet) states.clone();
+        for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+            DefaultState.Type type = graph.getStateType(state);
+            if (type == DefaultState.Type.DELAY || type == DefaultState.Type.EVENT) {
+                busyStates.clear(state);
+            }
+        }
+        return getCycles(graph,
+                         busyStates);
+    }
+
+    /**
+     * Iterative Tarjan strongly connected components over the given states.
+     * @return components with more than one state or with a self transition, each sorted by state id
+     */
+    public static List<int[]> getCycles(StateGraph graph,
+                                        BitSet states) {
+        int stateCount = graph.getStateCount();
+        int[] index = new int[stateCount];
+        int[] lowLink = new int[stateCount];
+        Arrays.fill(index,
+                    -1);
+        BitSet onStack = new BitSet(stateCount);
+        int[] stack = new int[stateCount];
+        int stackSize = 0;
+        int[] callStack = new int[stateCount];
+        int[] callTransition = new int[stateCount];
+        int nextIndex = 0;
+        List<int[]> cycles = new ArrayList<>();
+
+        for (int root = states.nextSetBit(0); root >= 0; root = states.nextSetBit(root + 1)) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int depth = 0;
+            callStack[0] = root;
+            callTransition[0] = graph.getTransitionStart(root);
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack.set(root);
+
+            while (depth >= 0) {
+                int state = callStack[depth];
+                int transition = callTransition[depth];
+                if (transition < graph.getTransitionEnd(state)) {
+                    callTransition[depth]++;
+                    int target = graph.getTransitionTarget(transition);
+                    if (graph.getTransitionType(transition) == TransitionType.RETRY || !states.get(target)) {
+                        continue;
+                    }
+                    if (index[target] == -1) {
+                        index[target] = lowLink[target] = nextIndex++;
+                        stack[stackSize++] = target;
+                        onStack.set(target);
+                        depth++;
+                        callStack[depth] = target;
+                        callTransition[depth] = graph.getTransitionStart(target);
+                    } else if (onStack.get(target)) {
+                        lowLink[state] = Math.min(lowLink[state],
+                                                  index[target]);
+                    }
+                    continue;
+                }
+
+                if (lowLink[state] == index[state]) {
+                    int start = stackSize;
+                    do {
+                        start--;
+                        onStack.clear(stack[start]);
+                    } while (stack[start] != state);
+                    int[] component = Arrays.copyOfRange(stack,
+                                                         start,
+                                                         stackSize);
+                    stackSize = start;
+                    Arrays.sort(component);
+                    if (component.length > 1 || hasSelfTransition(graph,
+                                                                  state)) {
+                        cycles.add(component);
+                    }
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callStack[depth];
+                    lowLink[parent] = Math.min(lowLink[parent],
+                                               lowLink[state]);
+                }
+            }
+        }
+        return cycles;
+    }
+
+    private static boolean hasSelfTransition(StateGraph graph,
+                                             int state) {
+        for (int transition = graph.getTransitionStart(state); transition < graph.getTransitionEnd(state); transition++) {
+            if (graph.getTransitionTarget(transition) == state && graph.getTransitionType(transition) != TransitionType.RETRY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void validate(String scope,
+                                 StateGraph graph,
+                                 List<ValidationError> validationErrors) {
+        BitSet reachable = getReachableStates(graph);
+        BitSet reachingEnd = getStatesReachingEnd(graph);
+
+        for (int state = 0; state < graph.getStateCount(); state++) {
+            if (!reachable.get(state)) {
+                validationErrors.add(newError(scope + ": state '" + graph.getStateName(state) + "' is not reachable from starts-at"));
+            } else if (!reachingEnd.get(state)) {
+                validationErrors.add(newError(scope + ": state '" + graph.getStateName(state) + "' cannot reach an end state"));
+            }
+        }
+
+        for (int[] busyLoop : getBusyLoops(graph,
+                                           reachable)) {
+            StringBuilder names = new StringBuilder();
+            for (int i = 0; i < busyLoop.length; i++) {
+                if (i > 0) {
+                    names.append(", ");
+                }
+                names.append('\'').append(graph.getStateName(busyLoop[i])).append('\'');
+            }
+            validationErrors.add(newError(scope + ": states " + names + " form a loop without a delay or event state"));
+        }
+
+        for (int state = 0; state < graph.getStateCount(); state++) {
+            for (StateGraph branch : graph.getBranches(state)) {
+                validate(scope + "/" + graph.getStateName(state) + "/" + branch.getName(),
+                         branch,
+                         validationErrors);
+            }
+        }
+    }
+
+    private static ValidationError newError(String message) {
+        ValidationError validationError = new ValidationError();
+        validationError.setMessage(message);
+        validationError.setType(ValidationError.WORKFLOW_VALIDATION);
+        return validationError;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.graph;
+
+/**
+ * Kinds of state transitions a workflow definition can declare.
+ */
+public enum TransitionType {
+
+    /**
+     * next-state of an operation, delay, parallel or subflow state
+     */
+    NEXT_STATE("next-state"),
+
+    /**
+     * next-state of an event of an event state
+     */
+    EVENT("event next-state"),
+
+    /**
+     * next-state of an action retry
+     */
+    RETRY("retry next-state"),
+
+    /**
+     * next-state of a switch state choice
+     */
+    CHOICE("choice next-state"),
+
+    /**
+     * default of a switch state
+     */
+    DEFAULT("default");
+
+    private final String label;
+
+    TransitionType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.graph;
+
+/**
+ * Receives the transitions of a state, see {@link Transitions#forEachTransition(org.serverless.workflow.api.interfaces.State, TransitionVisitor)}.
+ */
+@FunctionalInterface
+public interface TransitionVisitor {
+
+    /**
+     * @param type kind of transition
+     * @param ordinal position of the declaring event, action or choice within the state, 0 otherwise,
+     * see {@link Transitions}
+     * @param targetName name of the target state, never null or empty
+     */
+    void visit(TransitionType type,
+               int ordinal,
+               String targetName);
+}
@@ -0,0 +1,171 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.graph;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.serverless.workflow.api.actions.Action;
+import org.serverless.workflow.api.branches.Branch;
+import org.serverless.workflow.api.choices.AndChoice;
+import org.serverless.workflow.api.choices.NotChoice;
+import org.serverless.workflow.api.choices.OrChoice;
+import org.serverless.workflow.api.choices.SingleChoice;
+import org.serverless.workflow.api.events.Event;
+import org.serverless.workflow.api.interfaces.Choice;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.EventState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.states.ParallelState;
+import org.serverless.workflow.api.states.SubflowState;
+import org.serverless.workflow.api.states.SwitchState;
+
+/**
+ * Enumerates the transitions declared by workflow states.
+ * <p>
+ * Transitions are reported in declaration order. The ordinal of a retry transition is the index of its action
+ * within the state, counting the actions of all events of an event state in order. Parallel state branches are separate scopes and are
+ * not reported as transitions, see {@link #getBranches(State)}.
+ */
+public final class Transitions {
+
+    private Transitions() {
+    }
+
+    public static void forEachTransition(State state,
+                                         TransitionVisitor visitor) {
+        if (state instanceof OperationState) {
+            OperationState operationState = (OperationState) state;
+            visitRetries(operationState.getActions(),
+                         0,
+                         visitor);
+            visit(TransitionType.NEXT_STATE,
+                  0,
+                  operationState.getNextState(),
+                  visitor);
+        } else if (state instanceof EventState) {
+            List<Event> events = ((EventState) state).getEvents();
+            if (events != null) {
+                int actionOffset = 0;
+                for (int i = 0; i < events.size(); i++) {
+                    Event event = events.get(i);
+                    actionOffset = visitRetries(event.getActions(),
+                                                actionOffset,
+                                                visitor);
+                    visit(TransitionType.EVENT,
+                          i,
+                          event.getNextState(),
+                          visitor);
+                }
+            }
+        } else if (state instanceof SwitchState) {
+            SwitchState switchState = (SwitchState) state;
+            List<Choice> choices = switchState.getChoices();
+            if (choices != null) {
+                for (int i = 0; i < choices.size(); i++) {
+                    visit(TransitionType.CHOICE,
+                          i,
+                          getNextState(choices.get(i)),
+                          visitor);
+                }
+            }
+            visit(TransitionType.DEFAULT,
+                  0,
+                  switchState.getDefault(),
+                  visitor);
+        } else if (state instanceof DelayState) {
+            visit(TransitionType.NEXT_STATE,
+                  0,
+                  ((DelayState) state).getNextState(),
+                  visitor);
+        } else if (state instanceof ParallelState) {
+            visit(TransitionType.NEXT_STATE,
+                  0,
+                  ((ParallelState) state).getNextState(),
+                  visitor);
+        } else if (state instanceof SubflowState) {
+            visit(TransitionType.NEXT_STATE,
+                  0,
+                  ((SubflowState) state).getNextState(),
+                  visitor);
+        }
+    }
+
+    /**
+     * @return the branches of a parallel state, empty for other states
+     */
+    public static List<Branch> getBranches(State state) {
+        if (state instanceof ParallelState && ((ParallelState) state).getBranches() != null) {
+            return ((ParallelState) state).getBranches();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return next state of a choice, null for choices without one
+     */
+    public static String getNextState(Choice choice) {
+        if (choice instanceof SingleChoice) {
+            return ((SingleChoice) choice).getNextState();
+        }
+        if (choice instanceof AndChoice) {
+            return ((AndChoice) choice).getNextState();
+        }
+        if (choice instanceof OrChoice) {
+            return ((OrChoice) choice).getNextState();
+        }
+        if (choice instanceof NotChoice) {
+            return ((NotChoice) choice).getNextState();
+        }
+        return null;
+    }
+
+    /**
+     * @return offset of the action following the given actions
+     */
+    private static int visitRetries(List<Action> actions,
+                                    int actionOffset,
+                                    TransitionVisitor visitor) {
+        if (actions == null) {
+            return actionOffset;
+        }
+        for (int i = 0; i < actions.size(); i++) {
+            Action action = actions.get(i);
+            if (action.getRetry() != null) {
+                visit(TransitionType.RETRY,
+                      actionOffset + i,
+                      action.getRetry().getNextState(),
+                      visitor);
+            }
+        }
+        return actionOffset + actions.size();
+    }
+
+    private static void visit(TransitionType type,
+                              int ordinal,
+                              String targetName,
+                              TransitionVisitor visitor) {
+        if (targetName != null && !targetName.isEmpty()) {
+            visitor.visit(type,
+                          ordinal,
+                          targetName);
+        }
+    }
+}
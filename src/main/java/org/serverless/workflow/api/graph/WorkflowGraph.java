@@ -0,0 +1,74 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.graph;
+
+import java.util.Map;
+
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.filters.Filter;
+import org.serverless.workflow.api.jsonpath.CompiledFilter;
+
+/**
+ * Compiled, immutable form of a workflow, see {@link WorkflowGraphCompiler}.
+ */
+public class WorkflowGraph {
+
+    private final Workflow workflow;
+    private final StateGraph root;
+    private final Map<Filter, CompiledFilter> filters;
+
+    WorkflowGraph(Workflow workflow,
+                  StateGraph root,
+                  Map<Filter, CompiledFilter> filters) {
+        this.workflow = workflow;
+        this.root = root;
+        this.filters = filters;
+    }
+
+    public Workflow getWorkflow() {
+        return workflow;
+    }
+
+    public String getId() {
+        return workflow.getId();
+    }
+
+    public String getVersion() {
+        return workflow.getVersion();
+    }
+
+    /**
+     * @return compiled top level states of the workflow
+     */
+    public StateGraph getRoot() {
+        return root;
+    }
+
+    /**
+     * @return the compiled form of a state, action or event filter of this workflow, compiled when the
+     * workflow was; {@link CompiledFilter#IDENTITY} for a null filter
+     */
+    public CompiledFilter getFilter(Filter filter) {
+        if (filter == null) {
+            return CompiledFilter.IDENTITY;
+        }
+        CompiledFilter compiledFilter = filters.get(filter);
+        return compiledFilter != null ? compiledFilter : CompiledFilter.compile(filter);
+    }
+}
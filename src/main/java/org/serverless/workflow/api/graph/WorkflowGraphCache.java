@@ -0,0 +1,72 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.graph;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.serverless.workflow.api.Workflow;
+
+/**
+ * Thread-safe cache of compiled workflows keyed by workflow id and version.
+ * <p>
+ * A workflow id and version are expected to identify one definition; workflows modified after compilation must be
+ * {@link #invalidate(String, String) invalidated}. Workflows without an id are compiled on every call.
+ */
+public class WorkflowGraphCache {
+
+    private final ConcurrentMap<String, WorkflowGraph> graphs = new ConcurrentHashMap<>();
+
+    private static class LazyHolder {
+
+        static final WorkflowGraphCache INSTANCE = new WorkflowGraphCache();
+    }
+
+    public static WorkflowGraphCache getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    public WorkflowGraph get(Workflow workflow) {
+        if (workflow.getId() == null || workflow.getId().isEmpty()) {
+            return WorkflowGraphCompiler.compile(workflow);
+        }
+        return graphs.computeIfAbsent(key(workflow.getId(),
+                                          workflow.getVersion()),
+                                      key -> WorkflowGraphCompiler.compile(workflow));
+    }
+
+    public void invalidate(String workflowId,
+                           String workflowVersion) {
+        graphs.remove(key(workflowId,
+                          workflowVersion));
+    }
+
+    public void clear() {
+        graphs.clear();
+    }
+
+    public int size() {
+        return graphs.size();
+    }
+
+    private static String key(String workflowId,
+                              String workflowVersion) {
+        return workflowVersion != null ? workflowId + '\u0000' + workflowVersion : workflowId;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.actions.Action;
+import org.serverless.workflow.api.branches.Branch;
+import org.serverless.workflow.api.decisions.SwitchCompiler;
+import org.serverless.workflow.api.decisions.SwitchProgram;
+import org.serverless.workflow.api.events.Event;
+import org.serverless.workflow.api.filters.Filter;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.jsonpath.CompiledFilter;
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.EventState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.states.ParallelState;
+import org.serverless.workflow.api.states.SubflowState;
+import org.serverless.workflow.api.states.SwitchState;
+
+/**
+ * Compiles workflows into {@link WorkflowGraph}s.
+ * <p>
+ * Compilation expects state references which pass {@link org.serverless.workflow.api.validation.WorkflowSemanticValidator},
+ * and fails with an {@link IllegalArgumentException} on the first duplicate state name or unresolved reference.
+ * The filters of all states, actions and events and the choices of switch states are compiled along, failing on
+ * the first invalid path or choice.
+ */
+public class WorkflowGraphCompiler {
+
+    private WorkflowGraphCompiler() {
+    }
+
+    public static WorkflowGraph compile(Workflow workflow) {
+        Map<Filter, CompiledFilter> filters = new IdentityHashMap<>();
+        StateGraph root = compileScope(workflow.getName(),
+                                       null,
+                                       workflow.getStartsAt(),
+                                       workflow.getStates(),
+                                       filters);
+        return new WorkflowGraph(workflow,
+                                 root,
+                                 filters);
+    }
+
+    private static StateGraph compileScope(String name,
+                                           Branch branch,
+                                           String startsAt,
+                                           List<State> stateList,
+                                           Map<Filter, CompiledFilter> filters) {
+        int stateCount = stateList != null ? stateList.size() : 0;
+        State[] states = new State[stateCount];
+        String[] stateNames = new String[stateCount];
+        DefaultState.Type[] stateTypes = new DefaultState.Type[stateCount];
+        boolean[] endStates = new boolean[stateCount];
+        CompiledFilter[] stateFilters = new CompiledFilter[stateCount];
+        SwitchProgram[] switchPrograms = new SwitchProgram[stateCount];
+        Map<String, Integer> stateIds = new HashMap<>(stateCount * 4 / 3 + 1);
+
+        for (int i = 0; i < stateCount; i++) {
+            State state = stateList.get(i);
+            if (!(state instanceof DefaultState)) {
+                throw new IllegalArgumentException(name + ": unsupported state " + state);
+            }
+            DefaultState defaultState = (DefaultState) state;
+            states[i] = state;
+            stateNames[i] = defaultState.getName();
+            stateTypes[i] = getStateType(name,
+                                         defaultState);
+            endStates[i] = defaultState.isEnd();
+            stateFilters[i] = compileFilters(name,
+                                             defaultState,
+                                             filters);
+            if (state instanceof SwitchState) {
+                switchPrograms[i] = compileSwitch(name,
+                                                  (SwitchState) state);
+            }
+            if (stateIds.putIfAbsent(defaultState.getName(),
+                                     i) != null) {
+                throw new IllegalArgumentException(name + ": duplicate state name '" + defaultState.getName() + "'");
+            }
+        }
+
+        int startState = StateGraph.NONE;
+        if (stateCount > 0) {
+            startState = resolve(name,
+                                 "starts-at",
+                                 startsAt,
+                                 stateIds);
+        }
+
+        TransitionBuilder transitions = new TransitionBuilder(name,
+                                                              stateIds,
+                                                              stateCount);
+        List<List<StateGraph>> branches = new ArrayList<>(Collections.nCopies(stateCount,
+                                                                              null));
+        // choice targets by choice index, so a switch does not scan its transitions for the selected choice
+        int[][] choiceTargets = new int[stateCount][];
+        for (int i = 0; i < stateCount; i++) {
+            transitions.startState(i);
+            Transitions.forEachTransition(states[i],
+                                          transitions);
+            if (switchPrograms[i] != null) {
+                choiceTargets[i] = transitions.getChoiceTargets();
+            }
+
+            List<Branch> stateBranches = Transitions.getBranches(states[i]);
+            if (!stateBranches.isEmpty()) {
+                List<StateGraph> compiledBranches = new ArrayList<>(stateBranches.size());
+                for (Branch stateBranch : stateBranches) {
+                    compiledBranches.add(compileScope(stateBranch.getName(),
+                                                      stateBranch,
+                                                      stateBranch.getStartsAt(),
+                                                      stateBranch.getStates(),
+                                                      filters));
+                }
+                branches.set(i,
+                             Collections.unmodifiableList(compiledBranches));
+            }
+        }
+        transitions.startState(stateCount);
+
+        return new StateGraph(name,
+                              branch,
+                              startState,
+                              states,
+                              stateNames,
+                              stateTypes,
+                              endStates,
+                              stateFilters,
+                              switchPrograms,
+                              stateIds,
+                              transitions.offsets,
+                              Arrays.copyOf(transitions.targets,
+                                            transitions.count),
+                              Arrays.copyOf(transitions.types,
+                                            transitions.count),
+                              Arrays.copyOf(transitions.ordinals,
+                                            transitions.count),
+                              transitions.nextStates,
+                              transitions.defaultStates,
+                              choiceTargets,
+                              branches);
+    }
+
+    /**
+     * @return the type of the state's class; the model's type field is optional and not trusted
+     */
+    private static DefaultState.Type getStateType(String scope,
+                                                  DefaultState state) {
+        if (state instanceof OperationState) {
+            return DefaultState.Type.OPERATION;
+        } else if (state instanceof EventState) {
+            return DefaultState.Type.EVENT;
+        } else if (state instanceof SwitchState) {
+            return DefaultState.Type.SWITCH;
+        } else if (state instanceof DelayState) {
+            return DefaultState.Type.DELAY;
+        } else if (state instanceof ParallelState) {
+            return DefaultState.Type.PARALLEL;
+        } else if (state instanceof SubflowState) {
+            return DefaultState.Type.SUBFLOW;
+        }
+        throw new IllegalArgumentException(scope + ": unsupported state " + state.getName());
+    }
+
+    /**
+     * Compiles the filters of the state and of its actions and events.
+     * @return the compiled filter of the state
+     */
+    private static CompiledFilter compileFilters(String scope,
+                                                 DefaultState state,
+                                                 Map<Filter, CompiledFilter> filters) {
+        if (state instanceof OperationState) {
+            compileActionFilters(scope,
+                                 ((OperationState) state).getActions(),
+                                 filters);
+        } else if (state instanceof EventState && ((EventState) state).getEvents() != null) {
+            for (Event event : ((EventState) state).getEvents()) {
+                compileFilter(scope,
+                              event.getFilter(),
+                              filters);
+                compileActionFilters(scope,
+                                     event.getActions(),
+                                     filters);
+            }
+        }
+        return compileFilter(scope,
+                             state.getFilter(),
+                             filters);
+    }
+
+    private static void compileActionFilters(String scope,
+                                             List<Action> actions,
+                                             Map<Filter, CompiledFilter> filters) {
+        if (actions != null) {
+            for (Action action : actions) {
+                compileFilter(scope,
+                              action.getFilter(),
+                              filters);
+            }
+        }
+    }
+
+    private static CompiledFilter compileFilter(String scope,
+                                                Filter filter,
+                                                Map<Filter, CompiledFilter> filters) {
+        if (filter == null) {
+            return CompiledFilter.IDENTITY;
+        }
+        CompiledFilter compiledFilter = filters.get(filter);
+        if (compiledFilter == null) {
+            try {
+                compiledFilter = CompiledFilter.compile(filter);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(scope + ": " + e.getMessage(),
+                                                   e);
+            }
+            filters.put(filter,
+                        compiledFilter);
+        }
+        return compiledFilter;
+    }
+
+    private static SwitchProgram compileSwitch(String scope,
+                                               SwitchState state) {
+        try {
+            return SwitchCompiler.compile(state);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(scope + ": switch state '" + state.getName() + "' " + e.getMessage(),
+                                               e);
+        }
+    }
+
+    private static int resolve(String scope,
+                               String reference,
+                               String targetName,
+                               Map<String, Integer> stateIds) {
+        Integer stateId = targetName != null ? stateIds.get(targetName) : null;
+        if (stateId == null) {
+            throw new IllegalArgumentException(scope + ": " + reference + " '" + targetName + "' does not name a state");
+        }
+        return stateId;
+    }
+
+    private static class TransitionBuilder implements TransitionVisitor {
+
+        private final String scope;
+        private final Map<String, Integer> stateIds;
+        private final int[] offsets;
+        private final int[] nextStates;
+        private final int[] defaultStates;
+        private int[] targets;
+        private byte[] types;
+        private int[] ordinals;
+        private int count;
+        private int state;
+
+        TransitionBuilder(String scope,
+                          Map<String, Integer> stateIds,
+                          int stateCount) {
+            this.scope = scope;
+            this.stateIds = stateIds;
+            offsets = new int[stateCount + 1];
+            nextStates = new int[stateCount];
+            defaultStates = new int[stateCount];
+            Arrays.fill(nextStates,
+                        StateGraph.NONE);
+            Arrays.fill(defaultStates,
+                        StateGraph.NONE);
+            int capacity = Math.max(stateCount,
+                                    4);
+            targets = new int[capacity];
+            types = new byte[capacity];
+            ordinals = new int[capacity];
+        }
+
+        void startState(int state) {
+            this.state = state;
+            offsets[state] = count;
+        }
+
+        @Override
+        public void visit(TransitionType type,
+                          int ordinal,
+                          String targetName) {
+            int target = resolve(scope,
+                                 type.getLabel() + " of state at index " + state,
+                                 targetName,
+                                 stateIds);
+            if (count == targets.length) {
+                targets = Arrays.copyOf(targets,
+                                        count * 2);
+                types = Arrays.copyOf(types,
+                                      count * 2);
+                ordinals = Arrays.copyOf(ordinals,
+                                         count * 2);
+            }
+            targets[count] = target;
+            types[count] = (byte) type.ordinal();
+            ordinals[count] = ordinal;
+            count++;
+
+            if (type == TransitionType.NEXT_STATE) {
+                nextStates[state] = target;
+            } else if (type == TransitionType.DEFAULT) {
+                defaultStates[state] = target;
+            }
+        }
+
+        /**
+         * @return targets of the current state's choice transitions, indexed by choice ordinal
+         */
+        int[] getChoiceTargets() {
+            int choiceCount = 0;
+            for (int transition = offsets[state]; transition < count; transition++) {
+                if (types[transition] == TransitionType.CHOICE.ordinal()) {
+                    choiceCount = Math.max(choiceCount,
+                                           ordinals[transition] + 1);
+                }
+            }
+            int[] choiceTargets = new int[choiceCount];
+            Arrays.fill(choiceTargets,
+                        StateGraph.NONE);
+            for (int transition = offsets[state]; transition < count; transition++) {
+                if (types[transition] == TransitionType.CHOICE.ordinal()) {
+                    choiceTargets[ordinals[transition]] = targets[transition];
+                }
+            }
+            return choiceTargets;
+        }
+    }
+}
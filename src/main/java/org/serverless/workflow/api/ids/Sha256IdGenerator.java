@@ -0,0 +1,64 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.ids;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+import org.serverless.workflow.api.WorkflowIdGenerator;
+
+/**
+ * Generates ids as the hex encoded SHA-256 digest of a random UUID.
+ */
+public class Sha256IdGenerator implements WorkflowIdGenerator {
+
+    public static final String NAME = "sha-256";
+
+    private static final char[] hexArray = "0123456789ABCDEF".toCharArray();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String generateId() {
+        try {
+            MessageDigest salt = MessageDigest.getInstance("SHA-256");
+
+            salt.update(UUID.randomUUID()
+                                .toString()
+                                .getBytes(StandardCharsets.UTF_8));
+            return bytesToHex(salt.digest());
+        } catch (Exception e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    public static String bytesToHex(byte[] bytes) {
+        char[] hexChars = new char[bytes.length * 2];
+        for (int j = 0; j < bytes.length; j++) {
+            int v = bytes[j] & 0xFF;
+            hexChars[j * 2] = hexArray[v >>> 4];
+            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
+        }
+        return new String(hexChars);
+    }
+}
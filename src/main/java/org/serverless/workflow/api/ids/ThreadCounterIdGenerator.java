@@ -0,0 +1,60 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.ids;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.serverless.workflow.api.WorkflowIdGenerator;
+
+/**
+ * Generates ids from a per thread counter, without any synchronization between threads. An id consists
+ * of a random prefix chosen when the generator is created, a sequence number assigned to each thread on
+ * first use and the thread's counter, all hex encoded. Ids are unique for one generator instance and
+ * increase per thread.
+ */
+public class ThreadCounterIdGenerator implements WorkflowIdGenerator {
+
+    public static final String NAME = "thread-counter";
+
+    private final String prefix = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1) + "-";
+    private final AtomicLong threadSequence = new AtomicLong();
+    private final ThreadLocal<ThreadCounter> counters = ThreadLocal.withInitial(() -> new ThreadCounter(prefix + Long.toHexString(threadSequence.incrementAndGet()) + "-"));
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String generateId() {
+        ThreadCounter counter = counters.get();
+        return counter.threadPrefix + Long.toHexString(++counter.count);
+    }
+
+    private static class ThreadCounter {
+
+        private final String threadPrefix;
+        private long count;
+
+        ThreadCounter(String threadPrefix) {
+            this.threadPrefix = threadPrefix;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.ids;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.serverless.workflow.api.WorkflowIdGenerator;
+
+/**
+ * Generates ULID style ids: a 48 bit millisecond timestamp followed by 80 random bits, encoded as 26
+ * Crockford base32 characters. Ids sort lexicographically in creation order. Ids created within the
+ * same millisecond increment the random part of the previous id, so ids from one generator are
+ * strictly increasing.
+ */
+public class TimeOrderedIdGenerator implements WorkflowIdGenerator {
+
+    public static final String NAME = "time-ordered";
+
+    private static final char[] ENCODING = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ID_LENGTH = 26;
+    private static final int TIME_LENGTH = 10;
+    private static final long RANDOM_HIGH_MASK = 0xFFFFL;
+
+    private long lastTime;
+    private long lastRandomHigh;
+    private long lastRandomLow;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String generateId() {
+        long time;
+        long randomHigh;
+        long randomLow;
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now > lastTime) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                lastTime = now;
+                lastRandomHigh = random.nextLong() & RANDOM_HIGH_MASK;
+                lastRandomLow = random.nextLong();
+            } else if (++lastRandomLow == 0 && (lastRandomHigh = (lastRandomHigh + 1) & RANDOM_HIGH_MASK) == 0) {
+                // random part exhausted within this millisecond (or the clock moved back), borrow the next one
+                lastTime++;
+            }
+            time = lastTime;
+            randomHigh = lastRandomHigh;
+            randomLow = lastRandomLow;
+        }
+
+        return encode(time,
+                      randomHigh,
+                      randomLow);
+    }
+
+    static String encode(long time,
+                         long randomHigh,
+                         long randomLow) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = 0; i < TIME_LENGTH; i++) {
+            chars[i] = ENCODING[(int) (time >>> (5 * (TIME_LENGTH - 1 - i))) & 31];
+        }
+        for (int i = TIME_LENGTH; i < ID_LENGTH; i++) {
+            int shift = 5 * (ID_LENGTH - 1 - i);
+            int value;
+            if (shift >= 64) {
+                value = (int) (randomHigh >>> (shift - 64));
+            } else if (shift > 59) {
+                value = (int) ((randomHigh << (64 - shift)) | (randomLow >>> shift));
+            } else {
+                value = (int) (randomLow >>> shift);
+            }
+            chars[i] = ENCODING[value & 31];
+        }
+        return new String(chars);
+    }
+}
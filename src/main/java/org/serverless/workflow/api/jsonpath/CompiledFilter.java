@@ -0,0 +1,132 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.jsonpath;
+
+import java.util.function.UnaryOperator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.serverless.workflow.api.filters.Filter;
+
+/**
+ * Compiled {@link Filter} of a state, action or event.
+ * <p>
+ * Data flows through a filter in three steps: the input path selects the data the task receives, the result
+ * path places the task result into the original input, and the output path selects the data passed on.
+ * Missing paths default to {@code $}: the whole input, the result replacing the input, and the whole merged
+ * data. No step copies data: selections return nodes of the data itself and merging copies only the objects
+ * along the result path.
+ */
+public final class CompiledFilter {
+
+    /**
+     * Filter of definitions without one, passing the task result on unchanged
+     */
+    public static final CompiledFilter IDENTITY = new CompiledFilter(JsonPath.ROOT,
+                                                                     JsonPath.ROOT,
+                                                                     JsonPath.ROOT);
+
+    private final JsonPath inputPath;
+    private final JsonPath resultPath;
+    private final JsonPath outputPath;
+
+    private CompiledFilter(JsonPath inputPath,
+                           JsonPath resultPath,
+                           JsonPath outputPath) {
+        this.inputPath = inputPath;
+        this.resultPath = resultPath;
+        this.outputPath = outputPath;
+    }
+
+    /**
+     * @return the compiled filter, {@link #IDENTITY} for a null filter
+     * @throws IllegalArgumentException if a path is not valid
+     */
+    public static CompiledFilter compile(Filter filter) {
+        if (filter == null) {
+            return IDENTITY;
+        }
+        JsonPath inputPath = compilePath(filter.getInputPath());
+        JsonPath resultPath = compilePath(filter.getResultPath());
+        JsonPath outputPath = compilePath(filter.getOutputPath());
+        if (inputPath.isRoot() && resultPath.isRoot() && outputPath.isRoot()) {
+            return IDENTITY;
+        }
+        return new CompiledFilter(inputPath,
+                                  resultPath,
+                                  outputPath);
+    }
+
+    public JsonPath getInputPath() {
+        return inputPath;
+    }
+
+    public JsonPath getResultPath() {
+        return resultPath;
+    }
+
+    public JsonPath getOutputPath() {
+        return outputPath;
+    }
+
+    /**
+     * @return the task input selected from the input, a null node if the input has no such node
+     */
+    public JsonNode selectInput(JsonNode input) {
+        return present(inputPath.read(input));
+    }
+
+    /**
+     * @return the input with the task result placed at the result path
+     */
+    public JsonNode mergeResult(JsonNode input,
+                                JsonNode result) {
+        return resultPath.write(input,
+                                result);
+    }
+
+    /**
+     * @return the output selected from the merged data, a null node if the data has no such node
+     */
+    public JsonNode selectOutput(JsonNode data) {
+        return present(outputPath.read(data));
+    }
+
+    /**
+     * Runs the task on the selected input, merges its result into the input and selects the output.
+     */
+    public JsonNode apply(JsonNode input,
+                          UnaryOperator<JsonNode> task) {
+        return selectOutput(mergeResult(input,
+                                        task.apply(selectInput(input))));
+    }
+
+    @Override
+    public String toString() {
+        return "input-path: " + inputPath + ", result-path: " + resultPath + ", output-path: " + outputPath;
+    }
+
+    private static JsonPath compilePath(String path) {
+        return path == null || path.isEmpty() ? JsonPath.ROOT : JsonPath.compile(path);
+    }
+
+    private static JsonNode present(JsonNode node) {
+        return node.isMissingNode() ? NullNode.getInstance() : node;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.jsonpath;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.serverless.workflow.spi.ExpressionCache;
+
+/**
+ * Compiled JSONPath of the definite subset used by workflow definitions: {@code $}, {@code .name},
+ * {@code ['name']} and {@code [index]} segments, the leading {@code $} being optional. Wildcards, recursive
+ * descent and filter expressions are rejected.
+ * <p>
+ * Compiled paths are immutable, thread-safe and shared by every definition using the same path, the most
+ * recently used ones are cached. Reads return nodes of the data itself and writes copy only the nodes along the
+ * path, sharing every other node with the original data, so data passed through paths must be treated as
+ * immutable.
+ */
+public final class JsonPath {
+
+    public static final JsonPath ROOT = new JsonPath("$",
+                                                     new ArrayList<>());
+
+    /**
+     * Most null elements a write pads an array with to reach the index of the path.
+     */
+    public static final int MAX_PADDING = 1024;
+
+    private static final ExpressionCache<JsonPath> compiledPaths = new ExpressionCache<>(4096,
+                                                                                         256 * 1024);
+
+    private final String path;
+    private final String[] fieldNames;
+    private final int[] indexes;
+
+    private JsonPath(String path,
+                     List<Object> segments) {
+        this.path = path;
+        this.fieldNames = new String[segments.size()];
+        this.indexes = new int[segments.size()];
+        for (int i = 0; i < segments.size(); i++) {
+            Object segment = segments.get(i);
+            if (segment instanceof String) {
+                fieldNames[i] = (String) segment;
+                indexes[i] = -1;
+            } else {
+                indexes[i] = (Integer) segment;
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the path is not valid
+     */
+    public static JsonPath compile(String path) {
+        if (ROOT.path.equals(path)) {
+            return ROOT;
+        }
+        return compiledPaths.get(path,
+                                 p -> new JsonPath(p,
+                                                   parse(p)));
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return true for {@code $}, the path selecting the whole document
+     */
+    public boolean isRoot() {
+        return indexes.length == 0;
+    }
+
+    public int getSegmentCount() {
+        return indexes.length;
+    }
+
+    /**
+     * @return field name selected by the segment, null for an array index segment
+     */
+    public String getFieldName(int segment) {
+        return fieldNames[segment];
+    }
+
+    /**
+     * @return array index selected by the segment, -1 for a field name segment
+     */
+    public int getIndex(int segment) {
+        return indexes[segment];
+    }
+
+    /**
+     * @return the selected node, a missing node if the data has no such node
+     */
+    public JsonNode read(JsonNode data) {
+        JsonNode node = data;
+        for (int i = 0; i < indexes.length; i++) {
+            node = fieldNames[i] != null ? node.path(fieldNames[i]) : node.path(indexes[i]);
+        }
+        return node;
+    }
+
+    /**
+     * Sets the node at the path, creating missing objects and arrays and replacing scalars along the way.
+     * Arrays shorter than an index of the path are padded with nulls.
+     * @return the updated copy of the data, the data itself is not modified
+     * @throws IllegalArgumentException if an index is more than {@link #MAX_PADDING} past the end of its array
+     */
+    public JsonNode write(JsonNode data,
+                         JsonNode value) {
+        return write(data,
+                     0,
+                     value);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private JsonNode write(JsonNode node,
+                           int segment,
+                           JsonNode value) {
+        if (segment == indexes.length) {
+            return value;
+        }
+        if (fieldNames[segment] != null) {
+            ObjectNode copy = JsonNodeFactory.instance.objectNode();
+            JsonNode child = null;
+            if (node != null && node.isObject()) {
+                copy.setAll((ObjectNode) node);
+                child = node.get(fieldNames[segment]);
+            }
+            copy.set(fieldNames[segment],
+                     write(child,
+                           segment + 1,
+                           value));
+            return copy;
+        }
+        int index = indexes[segment];
+        ArrayNode copy = JsonNodeFactory.instance.arrayNode();
+        JsonNode child = null;
+        if (node != null && node.isArray()) {
+            copy.addAll((ArrayNode) node);
+            child = node.get(index);
+        }
+        if (index - copy.size() > MAX_PADDING) {
+            throw new IllegalArgumentException("Unable to write " + path + ": index " + index
+                                                       + " is too far past the end of an array of " + copy.size()
+                                                       + " elements");
+        }
+        while (copy.size() <= index) {
+            copy.addNull();
+        }
+        copy.set(index,
+                 write(child,
+                       segment + 1,
+                       value));
+        return copy;
+    }
+
+    private static List<Object> parse(String path) {
+        List<Object> segments = new ArrayList<>();
+        int i = 0;
+        int length = path.length();
+        if (path.startsWith("$")) {
+            i = 1;
+        } else if (length > 0 && path.charAt(0) != '[') {
+            i = readName(path,
+                         0,
+                         segments);
+        }
+        while (i < length) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                i = readName(path,
+                             i + 1,
+                             segments);
+            } else if (c == '[') {
+                int end = path.indexOf(']',
+                                       i);
+                if (end < 0) {
+                    throw invalidPath(path);
+                }
+                String selector = path.substring(i + 1,
+                                                 end).trim();
+                if (selector.length() >= 2 && (selector.charAt(0) == '\'' || selector.charAt(0) == '"')
+                        && selector.charAt(selector.length() - 1) == selector.charAt(0)) {
+                    segments.add(selector.substring(1,
+                                                    selector.length() - 1));
+                } else {
+                    try {
+                        int index = Integer.parseInt(selector);
+                        if (index < 0) {
+                            throw invalidPath(path);
+                        }
+                        segments.add(index);
+                    } catch (NumberFormatException e) {
+                        throw invalidPath(path);
+                    }
+                }
+                i = end + 1;
+            } else {
+                throw invalidPath(path);
+            }
+        }
+        return segments;
+    }
+
+    private static int readName(String path,
+                                int start,
+                                List<Object> segments) {
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+            end++;
+        }
+        if (end == start || path.substring(start,
+                                           end).equals("*")) {
+            throw invalidPath(path);
+        }
+        segments.add(path.substring(start,
+                                    end));
+        return end;
+    }
+
+    private static IllegalArgumentException invalidPath(String path) {
+        return new IllegalArgumentException("Invalid JSONPath: " + path);
+    }
+}
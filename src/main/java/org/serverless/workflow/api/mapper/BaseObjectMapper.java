@@ -21,6 +21,7 @@ package org.serverless.workflow.api.mapper;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import org.serverless.workflow.api.WorkflowIdGenerator;
 import org.serverless.workflow.api.WorkflowPropertySource;
 
 public class BaseObjectMapper extends ObjectMapper {
@@ -29,12 +30,51 @@ public class BaseObjectMapper extends ObjectMapper {
 
     public BaseObjectMapper(JsonFactory factory,
                             WorkflowPropertySource workflowPropertySource) {
+        this(factory,
+             workflowPropertySource,
+             IdGeneration.ON_WRITE);
+    }
+
+    public BaseObjectMapper(JsonFactory factory,
+                            WorkflowPropertySource workflowPropertySource,
+                            IdGeneration idGeneration) {
+        this(factory,
+             workflowPropertySource,
+             idGeneration,
+             true);
+    }
+
+    /**
+     * @param indent whether output is pretty-printed, compact output is written on a single line
+     */
+    public BaseObjectMapper(JsonFactory factory,
+                            WorkflowPropertySource workflowPropertySource,
+                            IdGeneration idGeneration,
+                            boolean indent) {
+        this(factory,
+             workflowPropertySource,
+             idGeneration,
+             null,
+             indent);
+    }
+
+    /**
+     * @param idGenerator generator for workflow ids, if null the id generator configured in
+     * {@link org.serverless.workflow.spi.WorkflowIdGeneratorProvider} is used
+     */
+    public BaseObjectMapper(JsonFactory factory,
+                            WorkflowPropertySource workflowPropertySource,
+                            IdGeneration idGeneration,
+                            WorkflowIdGenerator idGenerator,
+                            boolean indent) {
         super(factory);
 
-        workflowModule = new WorkflowModule((workflowPropertySource));
+        workflowModule = new WorkflowModule(workflowPropertySource,
+                                            idGeneration,
+                                            idGenerator);
 
         configure(SerializationFeature.INDENT_OUTPUT,
-                  true);
+                  indent);
         registerModule(workflowModule);
     }
 
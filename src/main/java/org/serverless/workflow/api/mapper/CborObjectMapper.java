@@ -0,0 +1,55 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.mapper;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.serverless.workflow.api.WorkflowIdGenerator;
+import org.serverless.workflow.api.WorkflowPropertySource;
+
+/**
+ * Reads and writes workflows in the binary CBOR format.
+ */
+public class CborObjectMapper extends BaseObjectMapper {
+
+    public CborObjectMapper() {
+        this(null);
+    }
+
+    public CborObjectMapper(WorkflowPropertySource context) {
+        this(context,
+             IdGeneration.ON_WRITE);
+    }
+
+    public CborObjectMapper(WorkflowPropertySource context,
+                            IdGeneration idGeneration) {
+        this(context,
+             idGeneration,
+             null);
+    }
+
+    public CborObjectMapper(WorkflowPropertySource context,
+                            IdGeneration idGeneration,
+                            WorkflowIdGenerator idGenerator) {
+        super(new CBORFactory(),
+              context,
+              idGeneration,
+              idGenerator,
+              false);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.mapper;
+
+/**
+ * Defines when an id is generated for a workflow which does not define one.
+ */
+public enum IdGeneration {
+
+    /**
+     * A new id is written each time the workflow is serialized. The workflow itself is left without an id.
+     */
+    ON_WRITE,
+
+    /**
+     * The id is generated once and set on the workflow when it is deserialized. Serialization writes
+     * the workflow as it is, so a loaded workflow always serializes to the same output.
+     */
+    ON_LOAD
+}
@@ -18,6 +18,7 @@
 
 package org.serverless.workflow.api.mapper;
 
+import org.serverless.workflow.api.WorkflowIdGenerator;
 import org.serverless.workflow.api.WorkflowPropertySource;
 
 public class JsonObjectMapper extends BaseObjectMapper {
@@ -27,7 +28,34 @@ public class JsonObjectMapper extends BaseObjectMapper {
     }
 
     public JsonObjectMapper(WorkflowPropertySource context) {
+        this(context,
+             IdGeneration.ON_WRITE);
+    }
+
+    public JsonObjectMapper(WorkflowPropertySource context,
+                            IdGeneration idGeneration) {
+        this(context,
+             idGeneration,
+             true);
+    }
+
+    public JsonObjectMapper(WorkflowPropertySource context,
+                            IdGeneration idGeneration,
+                            boolean indent) {
+        this(context,
+             idGeneration,
+             null,
+             indent);
+    }
+
+    public JsonObjectMapper(WorkflowPropertySource context,
+                            IdGeneration idGeneration,
+                            WorkflowIdGenerator idGenerator,
+                            boolean indent) {
         super(null,
-              context);
+              context,
+              idGeneration,
+              idGenerator,
+              indent);
     }
 }
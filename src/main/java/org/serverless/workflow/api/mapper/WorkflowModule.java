@@ -18,7 +18,13 @@
 
 package org.serverless.workflow.api.mapper;
 
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.WorkflowIdGenerator;
 import org.serverless.workflow.api.WorkflowPropertySource;
 import org.serverless.workflow.api.choices.DefaultChoice;
 import org.serverless.workflow.api.deserializers.ChoiceDeserializer;
@@ -29,6 +35,7 @@ import org.serverless.workflow.api.deserializers.ExtensionDeserializer;
 import org.serverless.workflow.api.deserializers.OperationStateActionModeDeserializer;
 import org.serverless.workflow.api.deserializers.StateDeserializer;
 import org.serverless.workflow.api.deserializers.StringValueDeserializer;
+import org.serverless.workflow.api.deserializers.WorkflowDeserializer;
 import org.serverless.workflow.api.events.Event;
 import org.serverless.workflow.api.interfaces.Choice;
 import org.serverless.workflow.api.interfaces.Extension;
@@ -52,6 +59,8 @@ import org.serverless.workflow.api.states.SwitchState;
 public class WorkflowModule extends SimpleModule {
 
     private WorkflowPropertySource workflowPropertySource;
+    private IdGeneration idGeneration;
+    private WorkflowIdGenerator idGenerator;
     private ExtensionSerializer extensionSerializer;
     private ExtensionDeserializer extensionDeserializer;
 
@@ -60,8 +69,28 @@ public class WorkflowModule extends SimpleModule {
     }
 
     public WorkflowModule(WorkflowPropertySource workflowPropertySource) {
+        this(workflowPropertySource,
+             IdGeneration.ON_WRITE);
+    }
+
+    public WorkflowModule(WorkflowPropertySource workflowPropertySource,
+                          IdGeneration idGeneration) {
+        this(workflowPropertySource,
+             idGeneration,
+             null);
+    }
+
+    /**
+     * @param idGenerator generator for workflow ids, if null the id generator configured in
+     * {@link org.serverless.workflow.spi.WorkflowIdGeneratorProvider} is used
+     */
+    public WorkflowModule(WorkflowPropertySource workflowPropertySource,
+                          IdGeneration idGeneration,
+                          WorkflowIdGenerator idGenerator) {
         super("workflow-module");
         this.workflowPropertySource = workflowPropertySource;
+        this.idGeneration = idGeneration;
+        this.idGenerator = idGenerator;
         extensionSerializer = new ExtensionSerializer();
         extensionDeserializer = new ExtensionDeserializer(workflowPropertySource);
         addDefaultSerializers();
@@ -69,7 +98,8 @@ public class WorkflowModule extends SimpleModule {
     }
 
     private void addDefaultSerializers() {
-        addSerializer(new WorkflowSerializer());
+        addSerializer(new WorkflowSerializer(idGeneration,
+                                             idGenerator));
         addSerializer(new EventStateSerializer());
         addSerializer(new DelayStateSerializer());
         addSerializer(new OperationStateSerializer());
@@ -106,6 +136,29 @@ public class WorkflowModule extends SimpleModule {
         addDeserializer(DefaultChoice.Operator.class,
                         new DefaultChoiceOperatorDeserializer(workflowPropertySource));
         addDeserializer(Extension.class, extensionDeserializer);
+
+        if (idGeneration == IdGeneration.ON_LOAD) {
+            setDeserializerModifier(new BeanDeserializerModifier() {
+                @Override
+                public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config,
+                                                              BeanDescription beanDesc,
+                                                              JsonDeserializer<?> deserializer) {
+                    if (Workflow.class.equals(beanDesc.getBeanClass())) {
+                        return new WorkflowDeserializer(deserializer,
+                                                        idGenerator);
+                    }
+                    return deserializer;
+                }
+            });
+        }
+    }
+
+    public IdGeneration getIdGeneration() {
+        return idGeneration;
+    }
+
+    public WorkflowIdGenerator getIdGenerator() {
+        return idGenerator;
     }
 
     public ExtensionSerializer getExtensionSerializer() {
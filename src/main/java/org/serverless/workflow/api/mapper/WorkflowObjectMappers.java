@@ -0,0 +1,341 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.mapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.WorkflowIdGenerator;
+import org.serverless.workflow.api.WorkflowPropertySource;
+
+/**
+ * Thread-safe registry of shared workflow object mappers.
+ * <p>
+ * One mapper is created per format, property source, id generation and id generator, and is never reconfigured
+ * afterwards. The returned {@link ObjectReader} and {@link ObjectWriter} instances are immutable and
+ * are bound to {@link Workflow} when they are created, so the root (de)serializers are resolved once
+ * and Jackson's caches are shared by every caller. Use {@code with(..)} / {@code without(..)} on them
+ * to derive per-request variants cheaply. The shared mappers themselves are never handed out,
+ * {@code newMapper} builds a new, unshared mapper with the same configuration on every call.
+ * <p>
+ * Property sources and id generators are matched by identity, a null id generator stands for the one
+ * configured in {@link org.serverless.workflow.spi.WorkflowIdGeneratorProvider}. Entries are kept until
+ * {@link #clear()}, so the registry grows by one entry per distinct property source and id generator it is
+ * asked for. Indentation only applies to the text formats.
+ */
+public class WorkflowObjectMappers {
+
+    private final ConcurrentMap<MapperKey, MapperEntry> mappers = new ConcurrentHashMap<>();
+
+    private static class LazyHolder {
+
+        static final WorkflowObjectMappers INSTANCE = new WorkflowObjectMappers();
+    }
+
+    public static WorkflowObjectMappers getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    /**
+     * Builds a new mapper on every call, which is costly; use {@link #getReader} and {@link #getWriter} unless
+     * the mapper has to be reconfigured.
+     * @return a new mapper configured like the shared one, which the caller may reconfigure without affecting
+     * other callers
+     */
+    public ObjectMapper newMapper(WorkflowFormat format,
+                                  WorkflowPropertySource workflowPropertySource) {
+        return newMapper(format,
+                         workflowPropertySource,
+                         IdGeneration.ON_WRITE);
+    }
+
+    /**
+     * Builds a new mapper on every call, which is costly; use {@link #getReader} and {@link #getWriter} unless
+     * the mapper has to be reconfigured.
+     * @return a new mapper configured like the shared one, which the caller may reconfigure without affecting
+     * other callers
+     */
+    public ObjectMapper newMapper(WorkflowFormat format,
+                                  WorkflowPropertySource workflowPropertySource,
+                                  IdGeneration idGeneration) {
+        return createMapper(new MapperKey(format,
+                                          workflowPropertySource,
+                                          idGeneration,
+                                          null));
+    }
+
+    /**
+     * Converts the workflow to a tree with the shared mapper, without going through text.
+     */
+    public JsonNode toTree(Workflow workflow,
+                           WorkflowPropertySource workflowPropertySource,
+                           IdGeneration idGeneration) {
+        return getEntry(WorkflowFormat.JSON,
+                        workflowPropertySource,
+                        idGeneration,
+                        null).mapper.valueToTree(workflow);
+    }
+
+    public ObjectReader getReader(WorkflowFormat format,
+                                  WorkflowPropertySource workflowPropertySource) {
+        return getReader(format,
+                         workflowPropertySource,
+                         IdGeneration.ON_WRITE);
+    }
+
+    public ObjectReader getReader(WorkflowFormat format,
+                                  WorkflowPropertySource workflowPropertySource,
+                                  IdGeneration idGeneration) {
+        return getReader(format,
+                         workflowPropertySource,
+                         idGeneration,
+                         null);
+    }
+
+    public ObjectReader getReader(WorkflowFormat format,
+                                  WorkflowPropertySource workflowPropertySource,
+                                  IdGeneration idGeneration,
+                                  WorkflowIdGenerator idGenerator) {
+        return getEntry(format,
+                        workflowPropertySource,
+                        idGeneration,
+                        idGenerator).reader;
+    }
+
+    public ObjectWriter getWriter(WorkflowFormat format,
+                                  WorkflowPropertySource workflowPropertySource,
+                                  boolean indent) {
+        return getWriter(format,
+                         workflowPropertySource,
+                         IdGeneration.ON_WRITE,
+                         indent);
+    }
+
+    public ObjectWriter getWriter(WorkflowFormat format,
+                                  WorkflowPropertySource workflowPropertySource,
+                                  IdGeneration idGeneration,
+                                  boolean indent) {
+        return getWriter(format,
+                         workflowPropertySource,
+                         idGeneration,
+                         null,
+                         indent);
+    }
+
+    public ObjectWriter getWriter(WorkflowFormat format,
+                                  WorkflowPropertySource workflowPropertySource,
+                                  IdGeneration idGeneration,
+                                  WorkflowIdGenerator idGenerator,
+                                  boolean indent) {
+        MapperEntry entry = getEntry(format,
+                                     workflowPropertySource,
+                                     idGeneration,
+                                     idGenerator);
+        return indent ? entry.indentWriter : entry.compactWriter;
+    }
+
+    /**
+     * Writes the workflow to the stream without buffering it as a String. The stream is flushed but not closed.
+     */
+    public void writeWorkflow(Workflow workflow,
+                              WorkflowFormat format,
+                              boolean indent,
+                              OutputStream out) throws IOException {
+        write(getWriter(format,
+                        null,
+                        indent),
+              workflow,
+              out);
+    }
+
+    /**
+     * Writes the workflow to a blocking channel. The channel is not closed.
+     */
+    public void writeWorkflow(Workflow workflow,
+                              WorkflowFormat format,
+                              boolean indent,
+                              WritableByteChannel channel) throws IOException {
+        writeWorkflow(workflow,
+                      format,
+                      indent,
+                      Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Writes the workflow into the buffer, starting at its current position.
+     * @return number of bytes written
+     * @throws BufferOverflowException if the workflow does not fit in the remaining buffer
+     */
+    public int writeWorkflow(Workflow workflow,
+                             WorkflowFormat format,
+                             boolean indent,
+                             ByteBuffer buffer) throws IOException {
+        return write(getWriter(format,
+                               null,
+                               indent),
+                     workflow,
+                     buffer);
+    }
+
+    /**
+     * Writes the workflow to the stream with the given writer. The stream is flushed but not closed.
+     */
+    public static void write(ObjectWriter writer,
+                             Workflow workflow,
+                             OutputStream out) throws IOException {
+        writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out,
+                                                                          workflow);
+    }
+
+    /**
+     * Writes the workflow into the buffer with the given writer, starting at its current position.
+     * @return number of bytes written
+     * @throws BufferOverflowException if the workflow does not fit in the remaining buffer, the buffer position
+     * is then left where it was
+     */
+    public static int write(ObjectWriter writer,
+                            Workflow workflow,
+                            ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        try {
+            write(writer,
+                  workflow,
+                  new ByteBufferOutputStream(buffer));
+        } catch (BufferOverflowException e) {
+            // earlier chunks were already put, cast for the Java 8 Buffer.position signature
+            ((Buffer) buffer).position(start);
+            throw e;
+        }
+        return buffer.position() - start;
+    }
+
+    /**
+     * Removes all registered mappers, for example after property sources have been replaced, releasing the
+     * entries of property sources and id generators which are no longer used.
+     */
+    public void clear() {
+        mappers.clear();
+    }
+
+    private MapperEntry getEntry(WorkflowFormat format,
+                                 WorkflowPropertySource workflowPropertySource,
+                                 IdGeneration idGeneration,
+                                 WorkflowIdGenerator idGenerator) {
+        return mappers.computeIfAbsent(new MapperKey(format,
+                                                     workflowPropertySource,
+                                                     idGeneration,
+                                                     idGenerator),
+                                       MapperEntry::new);
+    }
+
+    private static ObjectMapper createMapper(MapperKey key) {
+        switch (key.format) {
+            case YAML:
+                return new YamlObjectMapper(key.workflowPropertySource,
+                                            key.idGeneration,
+                                            key.idGenerator,
+                                            true);
+            case SMILE:
+                return new SmileObjectMapper(key.workflowPropertySource,
+                                             key.idGeneration,
+                                             key.idGenerator);
+            case CBOR:
+                return new CborObjectMapper(key.workflowPropertySource,
+                                            key.idGeneration,
+                                            key.idGenerator);
+            case JSON:
+            default:
+                return new JsonObjectMapper(key.workflowPropertySource,
+                                            key.idGeneration,
+                                            key.idGenerator,
+                                            true);
+        }
+    }
+
+    private static class MapperEntry {
+
+        private final ObjectMapper mapper;
+        private final ObjectReader reader;
+        private final ObjectWriter indentWriter;
+        private final ObjectWriter compactWriter;
+
+        MapperEntry(MapperKey key) {
+            mapper = createMapper(key);
+            reader = mapper.readerFor(Workflow.class);
+            ObjectWriter writer = mapper.writerFor(Workflow.class);
+            indentWriter = writer.with(SerializationFeature.INDENT_OUTPUT);
+            compactWriter = writer.without(SerializationFeature.INDENT_OUTPUT);
+        }
+    }
+
+    private static class MapperKey {
+
+        private final WorkflowFormat format;
+        private final WorkflowPropertySource workflowPropertySource;
+        private final IdGeneration idGeneration;
+        private final WorkflowIdGenerator idGenerator;
+
+        MapperKey(WorkflowFormat format,
+                  WorkflowPropertySource workflowPropertySource,
+                  IdGeneration idGeneration,
+                  WorkflowIdGenerator idGenerator) {
+            this.format = Objects.requireNonNull(format);
+            this.workflowPropertySource = workflowPropertySource;
+            this.idGeneration = Objects.requireNonNull(idGeneration);
+            this.idGenerator = idGenerator;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MapperKey)) {
+                return false;
+            }
+            MapperKey other = (MapperKey) o;
+            return format == other.format &&
+                    workflowPropertySource == other.workflowPropertySource &&
+                    idGeneration == other.idGeneration &&
+                    idGenerator == other.idGenerator;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 31 * format.hashCode() + System.identityHashCode(workflowPropertySource);
+            hash = 31 * hash + idGeneration.hashCode();
+            return 31 * hash + System.identityHashCode(idGenerator);
+        }
+    }
+}
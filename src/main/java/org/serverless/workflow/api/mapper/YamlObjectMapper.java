@@ -20,6 +20,7 @@ package org.serverless.workflow.api.mapper;
 
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import org.serverless.workflow.api.WorkflowIdGenerator;
 import org.serverless.workflow.api.WorkflowPropertySource;
 
 public class YamlObjectMapper extends BaseObjectMapper {
@@ -29,7 +30,34 @@ public class YamlObjectMapper extends BaseObjectMapper {
     }
 
     public YamlObjectMapper(WorkflowPropertySource context) {
+        this(context,
+             IdGeneration.ON_WRITE);
+    }
+
+    public YamlObjectMapper(WorkflowPropertySource context,
+                            IdGeneration idGeneration) {
+        this(context,
+             idGeneration,
+             true);
+    }
+
+    public YamlObjectMapper(WorkflowPropertySource context,
+                            IdGeneration idGeneration,
+                            boolean indent) {
+        this(context,
+             idGeneration,
+             null,
+             indent);
+    }
+
+    public YamlObjectMapper(WorkflowPropertySource context,
+                            IdGeneration idGeneration,
+                            WorkflowIdGenerator idGenerator,
+                            boolean indent) {
         super(new YAMLFactory().enable(YAMLGenerator.Feature.MINIMIZE_QUOTES),
-              context);
+              context,
+              idGeneration,
+              idGenerator,
+              indent);
     }
 }
@@ -0,0 +1,77 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.routing;
+
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.events.TriggerEvent;
+
+/**
+ * Trigger event definition of a registered workflow, as returned by the {@link EventSubscriptionIndex}.
+ * <p>
+ * The workflow id, source and type are captured at registration, so the subscription keeps its routes even if
+ * the workflow or trigger event is modified afterwards.
+ */
+public final class EventSubscription {
+
+    private final Workflow workflow;
+    private final TriggerEvent triggerEvent;
+    private final String workflowId;
+    private final String source;
+    private final String type;
+
+    EventSubscription(Workflow workflow,
+                      TriggerEvent triggerEvent) {
+        this.workflow = workflow;
+        this.triggerEvent = triggerEvent;
+        this.workflowId = workflow.getId();
+        this.source = triggerEvent.getSource();
+        this.type = triggerEvent.getType();
+    }
+
+    public Workflow getWorkflow() {
+        return workflow;
+    }
+
+    public String getWorkflowId() {
+        return workflowId;
+    }
+
+    public TriggerEvent getTriggerEvent() {
+        return triggerEvent;
+    }
+
+    /**
+     * @return the source the subscription was registered for
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the type the subscription was registered for
+     */
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return workflowId + "/" + triggerEvent.getName();
+    }
+}
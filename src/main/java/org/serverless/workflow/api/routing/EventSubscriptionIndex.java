@@ -0,0 +1,209 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.events.TriggerEvent;
+
+/**
+ * Inverted index from CloudEvent source and type to the trigger event definitions of registered workflows.
+ * <p>
+ * Lookups take two hash lookups and never lock or allocate. Each (source, type) pair maps to an immutable
+ * list which is copied on write, so registering and unregistering workflows, which is serialized, never blocks
+ * readers, and a list returned by a lookup is a consistent snapshot. Re-registering a workflow swaps its
+ * subscriptions on each route in one update.
+ */
+public class EventSubscriptionIndex {
+
+    private final Map<String, Map<String, List<EventSubscription>>> subscriptionsBySource = new ConcurrentHashMap<>();
+    private final Map<String, List<EventSubscription>> subscriptionsByWorkflow = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the trigger event definitions of the workflow, replacing those of a workflow registered earlier
+     * with the same id.
+     * @throws IllegalArgumentException if the workflow has no id or a trigger event has no source or type
+     */
+    public synchronized void register(Workflow workflow) {
+        if (workflow.getId() == null || workflow.getId().isEmpty()) {
+            throw new IllegalArgumentException("Workflow id is required to register event subscriptions");
+        }
+        List<EventSubscription> subscriptions = new ArrayList<>();
+        if (workflow.getTriggerDefs() != null) {
+            for (TriggerEvent triggerEvent : workflow.getTriggerDefs()) {
+                if (triggerEvent.getSource() == null || triggerEvent.getType() == null) {
+                    throw new IllegalArgumentException("Trigger event " + triggerEvent.getName() + " of workflow "
+                                                               + workflow.getId() + " has no source or type");
+                }
+                subscriptions.add(new EventSubscription(workflow,
+                                                        triggerEvent));
+            }
+        }
+
+        List<EventSubscription> previous = subscriptionsByWorkflow.get(workflow.getId());
+        // routes the workflow keeps are swapped in one step, so readers never miss them during a redeploy
+        replace(previous != null ? previous : Collections.emptyList(),
+                subscriptions);
+        subscriptionsByWorkflow.put(workflow.getId(),
+                                    subscriptions);
+    }
+
+    /**
+     * Removes the trigger event definitions of the workflow with the given id, from the routes they were
+     * registered with.
+     * @return true if such a workflow was registered
+     */
+    public synchronized boolean unregister(String workflowId) {
+        List<EventSubscription> subscriptions = subscriptionsByWorkflow.remove(workflowId);
+        if (subscriptions == null) {
+            return false;
+        }
+        replace(subscriptions,
+                Collections.emptyList());
+        return true;
+    }
+
+    /**
+     * @return the subscriptions of all registered workflows to events with the given source and type,
+     * an empty list if there are none
+     */
+    public List<EventSubscription> getSubscriptions(String source,
+                                                    String type) {
+        if (source == null || type == null) {
+            return Collections.emptyList();
+        }
+        Map<String, List<EventSubscription>> subscriptionsByType = subscriptionsBySource.get(source);
+        if (subscriptionsByType == null) {
+            return Collections.emptyList();
+        }
+        List<EventSubscription> subscriptions = subscriptionsByType.get(type);
+        return subscriptions != null ? subscriptions : Collections.emptyList();
+    }
+
+    public List<EventSubscription> getSubscriptions(TriggerEvent event) {
+        return getSubscriptions(event.getSource(),
+                                event.getType());
+    }
+
+    public boolean isRegistered(String workflowId) {
+        return subscriptionsByWorkflow.containsKey(workflowId);
+    }
+
+    /**
+     * @return the number of registered workflows
+     */
+    public int size() {
+        return subscriptionsByWorkflow.size();
+    }
+
+    public synchronized void clear() {
+        subscriptionsBySource.clear();
+        subscriptionsByWorkflow.clear();
+    }
+
+    /**
+     * Replaces subscriptions on every route they were or will be registered with, with one update per route.
+     */
+    private void replace(List<EventSubscription> removed,
+                         List<EventSubscription> added) {
+        Map<String, Map<String, List<EventSubscription>>> removedByRoute = byRoute(removed);
+        Map<String, Map<String, List<EventSubscription>>> addedByRoute = byRoute(added);
+
+        for (Map.Entry<String, Map<String, List<EventSubscription>>> sourceEntry : addedByRoute.entrySet()) {
+            Map<String, List<EventSubscription>> removedByType = removedByRoute.getOrDefault(sourceEntry.getKey(),
+                                                                                             Collections.emptyMap());
+            Map<String, List<EventSubscription>> subscriptionsByType = subscriptionsBySource
+                    .computeIfAbsent(sourceEntry.getKey(),
+                                     source -> new ConcurrentHashMap<>());
+            for (Map.Entry<String, List<EventSubscription>> typeEntry : sourceEntry.getValue().entrySet()) {
+                subscriptionsByType.compute(typeEntry.getKey(),
+                                            (type, current) -> replaced(current,
+                                                                        removedByType.getOrDefault(type,
+                                                                                                   Collections.emptyList()),
+                                                                        typeEntry.getValue()));
+            }
+        }
+
+        for (Map.Entry<String, Map<String, List<EventSubscription>>> sourceEntry : removedByRoute.entrySet()) {
+            String source = sourceEntry.getKey();
+            Map<String, List<EventSubscription>> addedByType = addedByRoute.getOrDefault(source,
+                                                                                         Collections.emptyMap());
+            Map<String, List<EventSubscription>> subscriptionsByType = subscriptionsBySource.get(source);
+            for (Map.Entry<String, List<EventSubscription>> typeEntry : sourceEntry.getValue().entrySet()) {
+                if (!addedByType.containsKey(typeEntry.getKey())) {
+                    subscriptionsByType.computeIfPresent(typeEntry.getKey(),
+                                                         (type, current) -> replaced(current,
+                                                                                     typeEntry.getValue(),
+                                                                                     Collections.emptyList()));
+                }
+            }
+            if (subscriptionsByType.isEmpty()) {
+                subscriptionsBySource.remove(source);
+            }
+        }
+    }
+
+    private static Map<String, Map<String, List<EventSubscription>>> byRoute(List<EventSubscription> subscriptions) {
+        Map<String, Map<String, List<EventSubscription>>> subscriptionsByRoute = new HashMap<>();
+        for (EventSubscription subscription : subscriptions) {
+            subscriptionsByRoute.computeIfAbsent(subscription.getSource(),
+                                                 source -> new HashMap<>())
+                    .computeIfAbsent(subscription.getType(),
+                                     type -> new ArrayList<>())
+                    .add(subscription);
+        }
+        return subscriptionsByRoute;
+    }
+
+    private static List<EventSubscription> replaced(List<EventSubscription> current,
+                                                    List<EventSubscription> removed,
+                                                    List<EventSubscription> added) {
+        List<EventSubscription> subscriptions = new ArrayList<>((current != null ? current.size() : 0) + added.size());
+        if (current != null) {
+            for (EventSubscription existing : current) {
+                if (!containsSame(removed,
+                                  existing)) {
+                    subscriptions.add(existing);
+                }
+            }
+        }
+        subscriptions.addAll(added);
+        if (subscriptions.size() == 1) {
+            return Collections.singletonList(subscriptions.get(0));
+        }
+        // returning null removes the mapping
+        return subscriptions.isEmpty() ? null : Collections.unmodifiableList(subscriptions);
+    }
+
+    private static boolean containsSame(List<EventSubscription> subscriptions,
+                                        EventSubscription subscription) {
+        for (EventSubscription candidate : subscriptions) {
+            if (candidate == subscription) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.serializers;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import org.serverless.workflow.api.states.DefaultState;
+
+/**
+ * Base for state serializers. The state "type" is derived from the serializer's state class rather than
+ * read from the model, so writing a state never changes it and the same state instance can be written
+ * from many threads at once.
+ */
+public abstract class BaseStateSerializer<T extends DefaultState> extends DelegatingBeanSerializer<T> {
+
+    private static final String TYPE_PROPERTY = "type";
+
+    private final DefaultState.Type type;
+
+    protected BaseStateSerializer(Class<T> t,
+                                  DefaultState.Type type,
+                                  JsonSerializer<Object> beanSerializer) {
+        super(t,
+              beanSerializer);
+        this.type = type;
+    }
+
+    public DefaultState.Type getType() {
+        return type;
+    }
+
+    @Override
+    public void serialize(T state,
+                          JsonGenerator gen,
+                          SerializerProvider provider) throws IOException {
+        serializeBean(state,
+                      gen,
+                      provider);
+    }
+
+    @Override
+    protected BeanSerializerFactory getBeanSerializerFactory() {
+        return (BeanSerializerFactory) super.getBeanSerializerFactory().withSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                                                             BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                for (int i = 0; i < beanProperties.size(); i++) {
+                    if (TYPE_PROPERTY.equals(beanProperties.get(i).getName())) {
+                        beanProperties.set(i,
+                                           new StateTypePropertyWriter(beanProperties.get(i),
+                                                                       type));
+                    }
+                }
+                return beanProperties;
+            }
+        });
+    }
+
+    /**
+     * Writes a fixed state type in place of the value of the model's "type" property.
+     */
+    private static class StateTypePropertyWriter extends BeanPropertyWriter {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DefaultState.Type type;
+
+        StateTypePropertyWriter(BeanPropertyWriter base,
+                                DefaultState.Type type) {
+            super(base);
+            this.type = type;
+        }
+
+        @Override
+        public void serializeAsField(Object bean,
+                                     JsonGenerator gen,
+                                     SerializerProvider prov) throws IOException {
+            gen.writeFieldName(_name);
+            gen.writeString(type.value());
+        }
+    }
+}
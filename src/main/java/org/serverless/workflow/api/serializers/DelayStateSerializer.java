@@ -18,38 +18,30 @@
 
 package org.serverless.workflow.api.serializers;
 
-import java.io.IOException;
-
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.SerializerProvider;
-import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
-import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import org.serverless.workflow.api.states.DefaultState;
 import org.serverless.workflow.api.states.DelayState;
 
-public class DelayStateSerializer extends StdSerializer<DelayState> {
+public class DelayStateSerializer extends BaseStateSerializer<DelayState> {
 
     public DelayStateSerializer() {
         this(DelayState.class);
     }
 
     protected DelayStateSerializer(Class<DelayState> t) {
-        super(t);
+        super(t,
+              DefaultState.Type.DELAY,
+              null);
     }
 
-    @Override
-    public void serialize(DelayState delayState,
-                          JsonGenerator gen,
-                          SerializerProvider provider) throws IOException {
-
-        // set defaults for delay state
-        delayState.setType(DefaultState.Type.DELAY);
+    protected DelayStateSerializer(JsonSerializer<Object> beanSerializer) {
+        super(DelayState.class,
+              DefaultState.Type.DELAY,
+              beanSerializer);
+    }
 
-        // serialize after setting default bean values...
-        BeanSerializerFactory.instance.createSerializer(provider,
-                                                        TypeFactory.defaultInstance().constructType(DelayState.class)).serialize(delayState,
-                                                                                                                                 gen,
-                                                                                                                                 provider);
+    @Override
+    protected DelayStateSerializer withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        return new DelayStateSerializer(beanSerializer);
     }
 }
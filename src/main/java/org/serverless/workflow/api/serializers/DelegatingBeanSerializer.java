@@ -0,0 +1,95 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.serializers;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Base for serializers which set model defaults and then write the value with the plain bean serializer
+ * of the handled type. The bean serializer is resolved once when Jackson contextualizes this serializer
+ * and is then cached along with it, instead of being introspected again for every value written.
+ */
+public abstract class DelegatingBeanSerializer<T> extends StdSerializer<T> implements ContextualSerializer {
+
+    private final JsonSerializer<Object> beanSerializer;
+
+    protected DelegatingBeanSerializer(Class<T> t) {
+        this(t,
+             null);
+    }
+
+    protected DelegatingBeanSerializer(Class<T> t,
+                                       JsonSerializer<Object> beanSerializer) {
+        super(t);
+        this.beanSerializer = beanSerializer;
+    }
+
+    /**
+     * @return copy of this serializer which delegates to the given, already resolved, bean serializer
+     */
+    protected abstract DelegatingBeanSerializer<T> withBeanSerializer(JsonSerializer<Object> beanSerializer);
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider,
+                                              BeanProperty property) throws JsonMappingException {
+        if (beanSerializer != null) {
+            return this;
+        }
+        return withBeanSerializer(createBeanSerializer(provider));
+    }
+
+    protected void serializeBean(T value,
+                                 JsonGenerator gen,
+                                 SerializerProvider provider) throws IOException {
+        JsonSerializer<Object> serializer = beanSerializer;
+        if (serializer == null) {
+            // not contextualized, e.g. invoked directly instead of through a mapper
+            serializer = createBeanSerializer(provider);
+        }
+        serializer.serialize(value,
+                             gen,
+                             provider);
+    }
+
+    /**
+     * @return factory used to create the bean serializer this serializer delegates to
+     */
+    protected BeanSerializerFactory getBeanSerializerFactory() {
+        return BeanSerializerFactory.instance;
+    }
+
+    private JsonSerializer<Object> createBeanSerializer(SerializerProvider provider) throws JsonMappingException {
+        JsonSerializer<Object> serializer = getBeanSerializerFactory().createSerializer(provider,
+                                                                                        provider.constructType(handledType()));
+        if (serializer instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) serializer).resolve(provider);
+        }
+        return serializer;
+    }
+}
@@ -18,38 +18,30 @@
 
 package org.serverless.workflow.api.serializers;
 
-import java.io.IOException;
-
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.SerializerProvider;
-import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
-import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import org.serverless.workflow.api.states.DefaultState;
 import org.serverless.workflow.api.states.EventState;
 
-public class EventStateSerializer extends StdSerializer<EventState> {
+public class EventStateSerializer extends BaseStateSerializer<EventState> {
 
     public EventStateSerializer() {
         this(EventState.class);
     }
 
     protected EventStateSerializer(Class<EventState> t) {
-        super(t);
+        super(t,
+              DefaultState.Type.EVENT,
+              null);
     }
 
-    @Override
-    public void serialize(EventState eventState,
-                          JsonGenerator gen,
-                          SerializerProvider provider) throws IOException {
-
-        // set defaults for end state
-        eventState.setType(DefaultState.Type.EVENT);
+    protected EventStateSerializer(JsonSerializer<Object> beanSerializer) {
+        super(EventState.class,
+              DefaultState.Type.EVENT,
+              beanSerializer);
+    }
 
-        // serialize after setting default bean values...
-        BeanSerializerFactory.instance.createSerializer(provider,
-                                                        TypeFactory.defaultInstance().constructType(EventState.class)).serialize(eventState,
-                                                                                                                                 gen,
-                                                                                                                                 provider);
+    @Override
+    protected EventStateSerializer withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        return new EventStateSerializer(beanSerializer);
     }
 }
@@ -18,38 +18,30 @@
 
 package org.serverless.workflow.api.serializers;
 
-import java.io.IOException;
-
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.SerializerProvider;
-import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
-import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import org.serverless.workflow.api.states.DefaultState;
 import org.serverless.workflow.api.states.OperationState;
 
-public class OperationStateSerializer extends StdSerializer<OperationState> {
+public class OperationStateSerializer extends BaseStateSerializer<OperationState> {
 
     public OperationStateSerializer() {
         this(OperationState.class);
     }
 
     protected OperationStateSerializer(Class<OperationState> t) {
-        super(t);
+        super(t,
+              DefaultState.Type.OPERATION,
+              null);
     }
 
-    @Override
-    public void serialize(OperationState operationState,
-                          JsonGenerator gen,
-                          SerializerProvider provider) throws IOException {
-
-        // set defaults for delay state
-        operationState.setType(DefaultState.Type.OPERATION);
+    protected OperationStateSerializer(JsonSerializer<Object> beanSerializer) {
+        super(OperationState.class,
+              DefaultState.Type.OPERATION,
+              beanSerializer);
+    }
 
-        // serialize after setting default bean values...
-        BeanSerializerFactory.instance.createSerializer(provider,
-                                                        TypeFactory.defaultInstance().constructType(OperationState.class)).serialize(operationState,
-                                                                                                                                     gen,
-                                                                                                                                     provider);
+    @Override
+    protected OperationStateSerializer withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        return new OperationStateSerializer(beanSerializer);
     }
 }
@@ -18,38 +18,30 @@
 
 package org.serverless.workflow.api.serializers;
 
-import java.io.IOException;
-
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.SerializerProvider;
-import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
-import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import org.serverless.workflow.api.states.DefaultState;
 import org.serverless.workflow.api.states.ParallelState;
 
-public class ParallelStateSerializer extends StdSerializer<ParallelState> {
+public class ParallelStateSerializer extends BaseStateSerializer<ParallelState> {
 
     public ParallelStateSerializer() {
         this(ParallelState.class);
     }
 
     protected ParallelStateSerializer(Class<ParallelState> t) {
-        super(t);
+        super(t,
+              DefaultState.Type.PARALLEL,
+              null);
     }
 
-    @Override
-    public void serialize(ParallelState parallelState,
-                          JsonGenerator gen,
-                          SerializerProvider provider) throws IOException {
-
-        // set defaults for end state
-        parallelState.setType(DefaultState.Type.PARALLEL);
+    protected ParallelStateSerializer(JsonSerializer<Object> beanSerializer) {
+        super(ParallelState.class,
+              DefaultState.Type.PARALLEL,
+              beanSerializer);
+    }
 
-        // serialize after setting default bean values...
-        BeanSerializerFactory.instance.createSerializer(provider,
-                                                        TypeFactory.defaultInstance().constructType(ParallelState.class)).serialize(parallelState,
-                                                                                                                                    gen,
-                                                                                                                                    provider);
+    @Override
+    protected ParallelStateSerializer withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        return new ParallelStateSerializer(beanSerializer);
     }
 }
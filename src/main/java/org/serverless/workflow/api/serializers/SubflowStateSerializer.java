@@ -18,38 +18,30 @@
 
 package org.serverless.workflow.api.serializers;
 
-import java.io.IOException;
-
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.SerializerProvider;
-import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
-import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import org.serverless.workflow.api.states.DefaultState;
 import org.serverless.workflow.api.states.SubflowState;
 
-public class SubflowStateSerializer extends StdSerializer<SubflowState> {
+public class SubflowStateSerializer extends BaseStateSerializer<SubflowState> {
 
     public SubflowStateSerializer() {
         this(SubflowState.class);
     }
 
     protected SubflowStateSerializer(Class<SubflowState> t) {
-        super(t);
+        super(t,
+              DefaultState.Type.SUBFLOW,
+              null);
     }
 
-    @Override
-    public void serialize(SubflowState subflowState,
-                          JsonGenerator gen,
-                          SerializerProvider provider) throws IOException {
-
-        // set defaults for end state
-        subflowState.setType(DefaultState.Type.SUBFLOW);
+    protected SubflowStateSerializer(JsonSerializer<Object> beanSerializer) {
+        super(SubflowState.class,
+              DefaultState.Type.SUBFLOW,
+              beanSerializer);
+    }
 
-        // serialize after setting default bean values...
-        BeanSerializerFactory.instance.createSerializer(provider,
-                                                        TypeFactory.defaultInstance().constructType(SubflowState.class)).serialize(subflowState,
-                                                                                                                                 gen,
-                                                                                                                                 provider);
+    @Override
+    protected SubflowStateSerializer withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        return new SubflowStateSerializer(beanSerializer);
     }
 }
@@ -18,38 +18,30 @@
 
 package org.serverless.workflow.api.serializers;
 
-import java.io.IOException;
-
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.SerializerProvider;
-import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
-import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import org.serverless.workflow.api.states.DefaultState;
 import org.serverless.workflow.api.states.SwitchState;
 
-public class SwitchStateSerializer extends StdSerializer<SwitchState> {
+public class SwitchStateSerializer extends BaseStateSerializer<SwitchState> {
 
     public SwitchStateSerializer() {
         this(SwitchState.class);
     }
 
     protected SwitchStateSerializer(Class<SwitchState> t) {
-        super(t);
+        super(t,
+              DefaultState.Type.SWITCH,
+              null);
     }
 
-    @Override
-    public void serialize(SwitchState switchState,
-                          JsonGenerator gen,
-                          SerializerProvider provider) throws IOException {
-
-        // set defaults for end state
-        switchState.setType(DefaultState.Type.SWITCH);
+    protected SwitchStateSerializer(JsonSerializer<Object> beanSerializer) {
+        super(SwitchState.class,
+              DefaultState.Type.SWITCH,
+              beanSerializer);
+    }
 
-        // serialize after setting default bean values...
-        BeanSerializerFactory.instance.createSerializer(provider,
-                                                        TypeFactory.defaultInstance().constructType(SwitchState.class)).serialize(switchState,
-                                                                                                                                  gen,
-                                                                                                                                  provider);
+    @Override
+    protected SwitchStateSerializer withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        return new SwitchStateSerializer(beanSerializer);
     }
 }
@@ -21,13 +21,11 @@ package org.serverless.workflow.api.serializers;
 import java.io.IOException;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
-import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 import org.serverless.workflow.api.events.TriggerEvent;
 
-public class TriggerEventSerializer extends StdSerializer<TriggerEvent> {
+public class TriggerEventSerializer extends DelegatingBeanSerializer<TriggerEvent> {
 
     public TriggerEventSerializer() {
         this(TriggerEvent.class);
@@ -37,15 +35,24 @@ public class TriggerEventSerializer extends StdSerializer<TriggerEvent> {
         super(t);
     }
 
+    protected TriggerEventSerializer(JsonSerializer<Object> beanSerializer) {
+        super(TriggerEvent.class,
+              beanSerializer);
+    }
+
+    @Override
+    protected TriggerEventSerializer withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        return new TriggerEventSerializer(beanSerializer);
+    }
+
     @Override
     public void serialize(TriggerEvent triggerEvent,
                           JsonGenerator gen,
                           SerializerProvider provider) throws IOException {
 
         // serialize after setting default bean values...
-        BeanSerializerFactory.instance.createSerializer(provider,
-                                                        TypeFactory.defaultInstance().constructType(TriggerEvent.class)).serialize(triggerEvent,
-                                                                                                                                   gen,
-                                                                                                                                   provider);
+        serializeBean(triggerEvent,
+                      gen,
+                      provider);
     }
 }
@@ -19,29 +19,48 @@
 package org.serverless.workflow.api.serializers;
 
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.util.UUID;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.WorkflowIdGenerator;
 import org.serverless.workflow.api.events.TriggerEvent;
 import org.serverless.workflow.api.interfaces.Extension;
 import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.ids.Sha256IdGenerator;
+import org.serverless.workflow.api.mapper.IdGeneration;
+import org.serverless.workflow.spi.WorkflowIdGeneratorProvider;
 
 public class WorkflowSerializer extends StdSerializer<Workflow> {
 
+    private IdGeneration idGeneration = IdGeneration.ON_WRITE;
+    private WorkflowIdGenerator idGenerator;
+
     public WorkflowSerializer() {
         this(Workflow.class);
     }
 
+    public WorkflowSerializer(IdGeneration idGeneration) {
+        this(idGeneration,
+             null);
+    }
+
+    /**
+     * @param idGenerator generator for ids written on serialization, if null the id generator
+     * configured in {@link WorkflowIdGeneratorProvider} is used
+     */
+    public WorkflowSerializer(IdGeneration idGeneration,
+                              WorkflowIdGenerator idGenerator) {
+        this(Workflow.class);
+        this.idGeneration = idGeneration;
+        this.idGenerator = idGenerator;
+    }
+
     protected WorkflowSerializer(Class<Workflow> t) {
         super(t);
     }
 
-    private static final char[] hexArray = "0123456789ABCDEF".toCharArray();
-
     @Override
     public void serialize(Workflow workflow,
                           JsonGenerator gen,
@@ -55,9 +74,9 @@ public class WorkflowSerializer extends StdSerializer<Workflow> {
         if(workflow.getId() !=null && !workflow.getId().isEmpty()) {
             gen.writeStringField("id",
                                  workflow.getId());
-        } else {
+        } else if (idGeneration == IdGeneration.ON_WRITE) {
             gen.writeStringField("id",
-                                 generateUniqueId());
+                                 idGenerator != null ? idGenerator.generateId() : generateUniqueId());
         }
 
         if(workflow.getDescription() != null && !workflow.getDescription().isEmpty()) {
@@ -81,27 +100,29 @@ public class WorkflowSerializer extends StdSerializer<Workflow> {
         }
 
         if (workflow.getStartsAt() != null && !workflow.getStartsAt().isEmpty()) {
-            gen.writeObjectField("starts-at",
+            gen.writeStringField("starts-at",
                                  workflow.getStartsAt());
         } else {
-            gen.writeObjectField("starts-at",
+            gen.writeStringField("starts-at",
                                  "");
         }
 
         if (workflow.getExecStatus() != null) {
-            gen.writeObjectField("exec-status",
+            gen.writeStringField("exec-status",
                                  workflow.getExecStatus().value());
         }
 
         if (workflow.getMetadata() != null && !workflow.getMetadata().isEmpty()) {
-            gen.writeObjectField("metadata",
-                                 workflow.getMetadata());
+            provider.defaultSerializeField("metadata",
+                                           workflow.getMetadata(),
+                                           gen);
         }
 
         if (workflow.getTriggerDefs() != null && !workflow.getTriggerDefs().isEmpty()) {
             gen.writeArrayFieldStart("trigger-defs");
             for (TriggerEvent triggerEvent : workflow.getTriggerDefs()) {
-                gen.writeObject(triggerEvent);
+                provider.defaultSerializeValue(triggerEvent,
+                                               gen);
             }
             gen.writeEndArray();
         }
@@ -109,7 +130,8 @@ public class WorkflowSerializer extends StdSerializer<Workflow> {
         if (workflow.getStates() != null && !workflow.getStates().isEmpty()) {
             gen.writeArrayFieldStart("states");
             for (State state : workflow.getStates()) {
-                gen.writeObject(state);
+                provider.defaultSerializeValue(state,
+                                               gen);
             }
             gen.writeEndArray();
         } else {
@@ -120,7 +142,8 @@ public class WorkflowSerializer extends StdSerializer<Workflow> {
         if(workflow.getExtensions() != null && !workflow.getExtensions().isEmpty()) {
             gen.writeArrayFieldStart("extensions");
             for (Extension extension : workflow.getExtensions()) {
-                gen.writeObject(extension);
+                provider.defaultSerializeValue(extension,
+                                               gen);
             }
             gen.writeEndArray();
         }
@@ -128,27 +151,14 @@ public class WorkflowSerializer extends StdSerializer<Workflow> {
         gen.writeEndObject();
     }
 
+    /**
+     * @return new id from the id generator configured in {@link WorkflowIdGeneratorProvider}
+     */
     public static String generateUniqueId() {
-        try {
-            MessageDigest salt = MessageDigest.getInstance("SHA-256");
-
-            salt.update(UUID.randomUUID()
-                                .toString()
-                                .getBytes("UTF-8"));
-            String digest = bytesToHex(salt.digest());
-            return digest;
-        } catch (Exception e) {
-            return UUID.randomUUID().toString();
-        }
+        return WorkflowIdGeneratorProvider.getInstance().get().generateId();
     }
 
     public static String bytesToHex(byte[] bytes) {
-        char[] hexChars = new char[bytes.length * 2];
-        for (int j = 0; j < bytes.length; j++) {
-            int v = bytes[j] & 0xFF;
-            hexChars[j * 2] = hexArray[v >>> 4];
-            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
-        }
-        return new String(hexChars);
+        return Sha256IdGenerator.bytesToHex(bytes);
     }
 }
@@ -0,0 +1,196 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.validation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.WorkflowManager;
+import org.serverless.workflow.api.WorkflowValidator;
+import org.serverless.workflow.api.mapper.WorkflowFormat;
+import org.serverless.workflow.api.mapper.WorkflowObjectMappers;
+
+/**
+ * Validator which keeps no per-validation state in shared fields.
+ * <p>
+ * Schema validation uses the cached workflow schema. Strict validation is delegated to
+ * {@link #validateWorkflow(Workflow)}, which checks state references with {@link WorkflowSemanticValidator}
+ * and which implementations can override to add workflow checks.
+ * Input given through {@link #setJson(String)} and {@link #setYaml(String)} is shared by all threads, the last
+ * markup set is validated; callers validating concurrently should use the stateless methods instead.
+ */
+public class BaseWorkflowValidator implements WorkflowValidator {
+
+    private volatile WorkflowManager workflowManager;
+    private volatile boolean enabled = true;
+    private volatile boolean schemaValidationEnabled = true;
+    private volatile boolean strictValidationEnabled = true;
+
+    private volatile Markup markup;
+
+    @Override
+    public WorkflowValidator setWorkflowManager(WorkflowManager workflowManager) {
+        this.workflowManager = workflowManager;
+        return this;
+    }
+
+    public WorkflowManager getWorkflowManager() {
+        return workflowManager;
+    }
+
+    @Override
+    public void setJson(String json) {
+        this.markup = new Markup(json,
+                                 WorkflowFormat.JSON);
+    }
+
+    @Override
+    public void setYaml(String yaml) {
+        this.markup = new Markup(yaml,
+                                 WorkflowFormat.YAML);
+    }
+
+    /**
+     * @return validation errors of the markup set last, a schema error if no markup was set
+     */
+    @Override
+    public List<ValidationError> validate() {
+        Markup current = markup;
+        if (current == null || current.text == null) {
+            List<ValidationError> validationErrors = new ArrayList<>();
+            validationErrors.add(newSchemaError("No workflow to validate"));
+            return validationErrors;
+        }
+        return validate(current.text,
+                        current.format);
+    }
+
+    @Override
+    public List<ValidationError> validate(String json) {
+        return validate(json,
+                        WorkflowFormat.JSON);
+    }
+
+    @Override
+    public List<ValidationError> validateYaml(String yaml) {
+        return validate(yaml,
+                        WorkflowFormat.YAML);
+    }
+
+    @Override
+    public List<ValidationError> validate(Workflow workflow) {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        List<ValidationError> validationErrors = new ArrayList<>();
+        if (schemaValidationEnabled) {
+            validationErrors.addAll(WorkflowSchemaValidator.validate(workflow));
+        }
+        if (strictValidationEnabled && validationErrors.isEmpty()) {
+            validationErrors.addAll(validateWorkflow(workflow));
+        }
+        return validationErrors;
+    }
+
+    /**
+     * Strict validation of a parsed workflow, run when schema validation found no errors.
+     * @return validation errors of {@link WorkflowSemanticValidator}
+     */
+    protected List<ValidationError> validateWorkflow(Workflow workflow) {
+        return WorkflowSemanticValidator.validate(workflow);
+    }
+
+    @Override
+    public boolean isValid() {
+        return validate().isEmpty();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void setSchemaValidationEnabled(boolean schemaValidationEnabled) {
+        this.schemaValidationEnabled = schemaValidationEnabled;
+    }
+
+    @Override
+    public void setStrictValidationEnabled(boolean strictValidationEnabled) {
+        this.strictValidationEnabled = strictValidationEnabled;
+    }
+
+    /**
+     * Clears the markup set by {@link #setJson(String)} or {@link #setYaml(String)}.
+     */
+    @Override
+    public void reset() {
+        markup = null;
+    }
+
+    private List<ValidationError> validate(String markup,
+                                           WorkflowFormat format) {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        ObjectReader reader = WorkflowObjectMappers.getInstance().getReader(format,
+                                                                            null);
+        List<ValidationError> validationErrors = new ArrayList<>();
+        try {
+            JsonNode workflowNode = reader.readTree(markup);
+            if (workflowNode == null) {
+                validationErrors.add(newSchemaError("No workflow to validate"));
+                return validationErrors;
+            }
+            if (schemaValidationEnabled) {
+                validationErrors.addAll(WorkflowSchemaValidator.validate(workflowNode));
+            }
+            if (strictValidationEnabled && validationErrors.isEmpty()) {
+                validationErrors.addAll(validateWorkflow(reader.readValue(workflowNode)));
+            }
+        } catch (IOException e) {
+            validationErrors.add(newSchemaError("Unable to read workflow: " + e.getMessage()));
+        }
+        return validationErrors;
+    }
+
+    private static class Markup {
+
+        private final String text;
+        private final WorkflowFormat format;
+
+        Markup(String text,
+               WorkflowFormat format) {
+            this.text = text;
+            this.format = format;
+        }
+    }
+
+    private static ValidationError newSchemaError(String message) {
+        ValidationError validationError = new ValidationError();
+        validationError.setMessage(message);
+        validationError.setType(ValidationError.SCHEMA_VALIDATION);
+        return validationError;
+    }
+}
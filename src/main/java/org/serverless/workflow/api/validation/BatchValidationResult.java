@@ -0,0 +1,63 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.validation;
+
+import java.util.List;
+
+/**
+ * Validation result of one definition of a batch.
+ */
+public class BatchValidationResult<T> {
+
+    private final int index;
+    private final T definition;
+    private final List<ValidationError> validationErrors;
+
+    public BatchValidationResult(int index,
+                                 T definition,
+                                 List<ValidationError> validationErrors) {
+        this.index = index;
+        this.definition = definition;
+        this.validationErrors = validationErrors;
+    }
+
+    /**
+     * @return position of the definition in the batch input
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public T getDefinition() {
+        return definition;
+    }
+
+    public List<ValidationError> getValidationErrors() {
+        return validationErrors;
+    }
+
+    public boolean isValid() {
+        return validationErrors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return index + ":" + validationErrors;
+    }
+}
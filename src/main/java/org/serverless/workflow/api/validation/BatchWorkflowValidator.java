@@ -0,0 +1,275 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.validation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.WorkflowValidator;
+
+/**
+ * Validates many workflow definitions in parallel with the stateless methods of a {@link WorkflowValidator}.
+ * <p>
+ * Definitions are validated on a {@link ForkJoinPool}, the common pool by default. Results are handed to the
+ * caller's consumer on the calling thread as they complete, either in completion order or, when ordered, in
+ * input order. With fail fast enabled no further results are delivered after the first invalid one, and
+ * definitions which have not started validation yet are skipped.
+ * <p>
+ * Definitions are taken from the input only as results are delivered, so that at most twice the pool's
+ * parallelism are validating or waiting for delivery at any time. If validation ends early, because of fail
+ * fast, an interrupt or an exception thrown by the consumer, the remaining tasks are cancelled.
+ * <p>
+ * The stateless methods are only safe to call concurrently when the validator overrides them, the
+ * {@link WorkflowValidator} defaults go through its setters. Validators which keep the defaults are called
+ * one definition at a time, so their results still belong to the right definition.
+ * <p>
+ * Instances are immutable and can be shared.
+ */
+public class BatchWorkflowValidator {
+
+    private final WorkflowValidator workflowValidator;
+    private final Function<String, List<ValidationError>> jsonValidation;
+    private final Function<Workflow, List<ValidationError>> workflowValidation;
+    private final ForkJoinPool pool;
+    private final boolean ordered;
+    private final boolean failFast;
+
+    public BatchWorkflowValidator(WorkflowValidator workflowValidator) {
+        this(workflowValidator,
+             ForkJoinPool.commonPool());
+    }
+
+    public BatchWorkflowValidator(WorkflowValidator workflowValidator,
+                                  ForkJoinPool pool) {
+        this(workflowValidator,
+             pool,
+             false,
+             false);
+    }
+
+    private BatchWorkflowValidator(WorkflowValidator workflowValidator,
+                                   ForkJoinPool pool,
+                                   boolean ordered,
+                                   boolean failFast) {
+        this.workflowValidator = workflowValidator;
+        this.jsonValidation = overrides(workflowValidator,
+                                        String.class) ? workflowValidator::validate : this::validateSerialized;
+        // the default validate(Workflow) goes through validate(String)
+        this.workflowValidation = overrides(workflowValidator,
+                                            Workflow.class) || overrides(workflowValidator,
+                                                                         String.class) ?
+                workflowValidator::validate : this::validateSerialized;
+        this.pool = pool;
+        this.ordered = ordered;
+        this.failFast = failFast;
+    }
+
+    /**
+     * @param ordered true to deliver results in input order instead of completion order
+     */
+    public BatchWorkflowValidator withOrdered(boolean ordered) {
+        return new BatchWorkflowValidator(workflowValidator,
+                                          pool,
+                                          ordered,
+                                          failFast);
+    }
+
+    /**
+     * @param failFast true to stop after the first invalid definition
+     */
+    public BatchWorkflowValidator withFailFast(boolean failFast) {
+        return new BatchWorkflowValidator(workflowValidator,
+                                          pool,
+                                          ordered,
+                                          failFast);
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    /**
+     * Validates JSON definitions, delivering each result to the consumer as it becomes available.
+     * @return true if every delivered result is valid, false if validation was interrupted
+     */
+    public boolean validateJson(Stream<String> jsons,
+                                Consumer<BatchValidationResult<String>> resultConsumer) {
+        return validate(jsons.iterator(),
+                        jsonValidation,
+                        resultConsumer);
+    }
+
+    /**
+     * Validates workflows, delivering each result to the consumer as it becomes available.
+     * @return true if every delivered result is valid, false if validation was interrupted
+     */
+    public boolean validateWorkflows(Stream<Workflow> workflows,
+                                     Consumer<BatchValidationResult<Workflow>> resultConsumer) {
+        return validate(workflows.iterator(),
+                        workflowValidation,
+                        resultConsumer);
+    }
+
+    /**
+     * @return the delivered results of the JSON definitions
+     */
+    public List<BatchValidationResult<String>> validateJson(Collection<String> jsons) {
+        List<BatchValidationResult<String>> results = new ArrayList<>(jsons.size());
+        validateJson(jsons.stream(),
+                     results::add);
+        return results;
+    }
+
+    /**
+     * @return the delivered results of the workflows
+     */
+    public List<BatchValidationResult<Workflow>> validateWorkflows(Collection<Workflow> workflows) {
+        List<BatchValidationResult<Workflow>> results = new ArrayList<>(workflows.size());
+        validateWorkflows(workflows.stream(),
+                          results::add);
+        return results;
+    }
+
+    private <T> boolean validate(Iterator<T> definitions,
+                                 Function<T, List<ValidationError>> validation,
+                                 Consumer<BatchValidationResult<T>> resultConsumer) {
+        BlockingQueue<BatchValidationResult<T>> completed = new LinkedBlockingQueue<>();
+        AtomicBoolean stopped = new AtomicBoolean();
+        Map<Integer, Future<?>> running = new HashMap<>();
+        int maxUndelivered = Math.max(2,
+                                      pool.getParallelism() * 2);
+
+        boolean valid = true;
+        boolean finished = false;
+        Map<Integer, BatchValidationResult<T>> pending = new HashMap<>();
+        int submitted = 0;
+        int delivered = 0;
+        try {
+            while (!stopped.get()) {
+                // bounds both the tasks in flight and the results held back for ordering
+                while (submitted - delivered < maxUndelivered && definitions.hasNext()) {
+                    int index = submitted++;
+                    T definition = definitions.next();
+                    running.put(index,
+                                pool.submit(() -> {
+                                    List<ValidationError> validationErrors = stopped.get() ?
+                                            Collections.emptyList() : validateDefinition(definition,
+                                                                                         validation);
+                                    completed.add(new BatchValidationResult<>(index,
+                                                                              definition,
+                                                                              validationErrors));
+                                }));
+                }
+                if (delivered == submitted) {
+                    break;
+                }
+                BatchValidationResult<T> result = completed.take();
+                running.remove(result.getIndex());
+                if (!ordered) {
+                    delivered++;
+                    valid &= deliver(result,
+                                     resultConsumer,
+                                     stopped);
+                    continue;
+                }
+                pending.put(result.getIndex(),
+                            result);
+                while (!stopped.get() && pending.containsKey(delivered)) {
+                    valid &= deliver(pending.remove(delivered++),
+                                     resultConsumer,
+                                     stopped);
+                }
+            }
+            finished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            valid = false;
+        } finally {
+            if (!finished || stopped.get()) {
+                stopped.set(true);
+                running.values().forEach(task -> task.cancel(false));
+            }
+        }
+        return valid;
+    }
+
+    private <T> boolean deliver(BatchValidationResult<T> result,
+                                Consumer<BatchValidationResult<T>> resultConsumer,
+                                AtomicBoolean stopped) {
+        resultConsumer.accept(result);
+        if (failFast && !result.isValid()) {
+            stopped.set(true);
+        }
+        return result.isValid();
+    }
+
+    private static <T> List<ValidationError> validateDefinition(T definition,
+                                                                Function<T, List<ValidationError>> validation) {
+        try {
+            List<ValidationError> validationErrors = validation.apply(definition);
+            return validationErrors != null ? validationErrors : Collections.emptyList();
+        } catch (Throwable e) {
+            // errors too, a task which ends without a result would leave the caller waiting for it
+            ValidationError validationError = new ValidationError();
+            validationError.setMessage("Unable to validate workflow: " + e.getMessage());
+            validationError.setType(ValidationError.WORKFLOW_VALIDATION);
+            return Collections.singletonList(validationError);
+        }
+    }
+
+    private List<ValidationError> validateSerialized(String json) {
+        synchronized (workflowValidator) {
+            return workflowValidator.validate(json);
+        }
+    }
+
+    private List<ValidationError> validateSerialized(Workflow workflow) {
+        synchronized (workflowValidator) {
+            return workflowValidator.validate(workflow);
+        }
+    }
+
+    private static boolean overrides(WorkflowValidator workflowValidator,
+                                     Class<?> parameterType) {
+        try {
+            return !workflowValidator.getClass().getMethod("validate",
+                                                           parameterType).isDefault();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
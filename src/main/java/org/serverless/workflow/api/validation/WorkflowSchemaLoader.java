@@ -18,22 +18,107 @@
 
 package org.serverless.workflow.api.validation;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.everit.json.schema.Schema;
 import org.everit.json.schema.loader.SchemaLoader;
 import org.everit.json.schema.loader.internal.DefaultSchemaClient;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.serverless.workflow.api.schemaclient.ResourceSchemaClient;
+import org.serverless.workflow.api.states.DefaultState;
 
+/**
+ * Loads the workflow-01 JSON schemas.
+ * <p>
+ * Compiled schemas are immutable and thread-safe. They are built on first use, resolving all references once,
+ * and then shared until {@link #reload()} is called.
+ */
 public class WorkflowSchemaLoader {
 
-    private static final JSONObject workflowSchema = new JSONObject(new JSONTokener(WorkflowSchemaLoader.class.getResourceAsStream("/schema/workflow-01/workflow.json")));
+    public static final String WORKFLOW_SCHEMA = "workflow.json";
+    public static final String ACTION_SCHEMA = "actions/action.json";
+    public static final String SINGLE_CHOICE_SCHEMA = "choices/singlechoice.json";
+    public static final String AND_CHOICE_SCHEMA = "choices/andchoice.json";
+    public static final String NOT_CHOICE_SCHEMA = "choices/notchoice.json";
+    public static final String OR_CHOICE_SCHEMA = "choices/orchoice.json";
+
+    private static final String SCHEMA_RESOURCE_PATH = "/schema/workflow-01/";
+    private static final String SCHEMA_BASE_URI = "https://wg-serverless.org/";
+
+    private static final Object lock = new Object();
+    private static volatile Schema workflowSchema;
+    private static final Map<String, Schema> subschemas = new ConcurrentHashMap<>();
 
+    /**
+     * @return the compiled workflow schema, built on first use
+     */
     public static Schema getWorkflowSchema() {
+        Schema schema = workflowSchema;
+        if (schema == null) {
+            synchronized (lock) {
+                schema = workflowSchema;
+                if (schema == null) {
+                    schema = loadSchema(WORKFLOW_SCHEMA);
+                    workflowSchema = schema;
+                }
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * @param path schema path relative to the workflow-01 schema directory, for example {@link #ACTION_SCHEMA}
+     * @return the compiled schema, built on first use
+     */
+    public static Schema getSchema(String path) {
+        if (WORKFLOW_SCHEMA.equals(path)) {
+            return getWorkflowSchema();
+        }
+        return subschemas.computeIfAbsent(path,
+                                          WorkflowSchemaLoader::loadSchema);
+    }
+
+    public static Schema getStateSchema(DefaultState.Type type) {
+        return getSchema("states/" + type.value().toLowerCase() + "state.json");
+    }
+
+    public static Schema getActionSchema() {
+        return getSchema(ACTION_SCHEMA);
+    }
+
+    /**
+     * Drops all compiled schemas, they are rebuilt from the schema resources on next use.
+     */
+    public static void reload() {
+        synchronized (lock) {
+            workflowSchema = null;
+            subschemas.clear();
+        }
+    }
+
+    /**
+     * Builds a new schema from the schema resources, without using or updating the cache.
+     * @param path schema path relative to the workflow-01 schema directory
+     */
+    public static Schema loadSchema(String path) {
+        JSONObject schemaJson;
+        try (InputStream schemaStream = WorkflowSchemaLoader.class.getResourceAsStream(SCHEMA_RESOURCE_PATH + path)) {
+            if (schemaStream == null) {
+                throw new IllegalArgumentException("Unknown workflow schema: " + path);
+            }
+            schemaJson = new JSONObject(new JSONTokener(schemaStream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         SchemaLoader schemaLoader = SchemaLoader.builder()
                 .schemaClient(new ResourceSchemaClient(new DefaultSchemaClient()))
-                .schemaJson(workflowSchema)
-                .resolutionScope("classpath:schema/workflow-01/")
+                .schemaJson(schemaJson)
+                .resolutionScope(SCHEMA_BASE_URI + path)
                 .draftV7Support()
                 .build();
         return schemaLoader.load().build();
@@ -0,0 +1,114 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.everit.json.schema.Schema;
+import org.everit.json.schema.ValidationException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.mapper.IdGeneration;
+import org.serverless.workflow.api.mapper.WorkflowObjectMappers;
+
+/**
+ * Validates workflows against the workflow schema without going through JSON text.
+ * <p>
+ * A {@link Workflow} is converted to a Jackson tree with the shared workflow mapper, and the tree is copied
+ * node by node into the {@code org.json} model used by the schema.
+ */
+public class WorkflowSchemaValidator {
+
+    private WorkflowSchemaValidator() {
+    }
+
+    public static List<ValidationError> validate(Workflow workflow) {
+        return validate(WorkflowObjectMappers.getInstance().toTree(workflow,
+                                                                   null,
+                                                                   IdGeneration.ON_LOAD));
+    }
+
+    public static List<ValidationError> validate(JsonNode workflowNode) {
+        return validate(WorkflowSchemaLoader.getWorkflowSchema(),
+                        workflowNode);
+    }
+
+    /**
+     * @param schema schema to validate against, for example a state schema from {@link WorkflowSchemaLoader}
+     */
+    public static List<ValidationError> validate(Schema schema,
+                                                 JsonNode node) {
+        try {
+            schema.validate(toJson(node));
+        } catch (ValidationException e) {
+            List<ValidationError> validationErrors = new ArrayList<>();
+            for (String message : e.getAllMessages()) {
+                ValidationError validationError = new ValidationError();
+                validationError.setMessage(message);
+                validationError.setType(ValidationError.SCHEMA_VALIDATION);
+                validationErrors.add(validationError);
+            }
+            return validationErrors;
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the {@code org.json} value of the node: a JSONObject, JSONArray, String, Number, Boolean
+     * or {@link JSONObject#NULL}
+     */
+    public static Object toJson(JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT:
+                JSONObject jsonObject = new JSONObject();
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    jsonObject.put(field.getKey(),
+                                   toJson(field.getValue()));
+                }
+                return jsonObject;
+            case ARRAY:
+                JSONArray jsonArray = new JSONArray();
+                for (JsonNode element : node) {
+                    jsonArray.put(toJson(element));
+                }
+                return jsonArray;
+            case STRING:
+            case BINARY:
+                return node.asText();
+            case NUMBER:
+                return node.numberValue();
+            case BOOLEAN:
+                return node.booleanValue();
+            case POJO:
+                return node.toString();
+            case NULL:
+            case MISSING:
+            default:
+                return JSONObject.NULL;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.validation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.branches.Branch;
+import org.serverless.workflow.api.graph.Transitions;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.states.DefaultState;
+
+/**
+ * Checks the state references of a workflow, which schema validation cannot express.
+ * <p>
+ * Each scope, the workflow states and the states of every parallel state branch, gets one name table.
+ * State names must be unique within their scope, and starts-at as well as every transition must name a state of
+ * the same scope. Each state and transition is visited once.
+ */
+public class WorkflowSemanticValidator {
+
+    private WorkflowSemanticValidator() {
+    }
+
+    public static List<ValidationError> validate(Workflow workflow) {
+        List<ValidationError> validationErrors = new ArrayList<>();
+        validateScope("workflow",
+                      workflow.getStartsAt(),
+                      workflow.getStates(),
+                      validationErrors);
+        return validationErrors;
+    }
+
+    private static void validateScope(String scope,
+                                      String startsAt,
+                                      List<State> states,
+                                      List<ValidationError> validationErrors) {
+        int stateCount = states != null ? states.size() : 0;
+        Map<String, Integer> stateIndexes = new HashMap<>(stateCount * 4 / 3 + 1);
+        for (int i = 0; i < stateCount; i++) {
+            String name = getName(states.get(i));
+            if (name == null || name.isEmpty()) {
+                validationErrors.add(newError(scope + ": state at index " + i + " has no name"));
+            } else if (stateIndexes.putIfAbsent(name,
+                                                i) != null) {
+                validationErrors.add(newError(scope + ": duplicate state name '" + name + "'"));
+            }
+        }
+
+        if (startsAt == null || startsAt.isEmpty()) {
+            validationErrors.add(newError(scope + ": starts-at is not set"));
+        } else if (!stateIndexes.containsKey(startsAt)) {
+            validationErrors.add(newError(scope + ": starts-at '" + startsAt + "' does not name a state"));
+        }
+
+        for (int i = 0; i < stateCount; i++) {
+            State state = states.get(i);
+            String stateName = getName(state);
+            Transitions.forEachTransition(state,
+                                          (type, ordinal, targetName) -> {
+                                              if (!stateIndexes.containsKey(targetName)) {
+                                                  validationErrors.add(newError(scope + ": state '" + stateName + "' " + type.getLabel() +
+                                                                                        " '" + targetName + "' does not name a state"));
+                                              }
+                                          });
+
+            List<Branch> branches = Transitions.getBranches(state);
+            Set<String> branchNames = new HashSet<>();
+            for (Branch branch : branches) {
+                String branchScope = scope + "/" + stateName + "/" + branch.getName();
+                if (branch.getName() != null && !branchNames.add(branch.getName())) {
+                    validationErrors.add(newError(scope + ": state '" + stateName + "' has duplicate branch name '" + branch.getName() + "'"));
+                }
+                validateScope(branchScope,
+                              branch.getStartsAt(),
+                              branch.getStates(),
+                              validationErrors);
+            }
+        }
+    }
+
+    private static String getName(State state) {
+        return state instanceof DefaultState ? ((DefaultState) state).getName() : null;
+    }
+
+    private static ValidationError newError(String message) {
+        ValidationError validationError = new ValidationError();
+        validationError.setMessage(message);
+        validationError.setType(ValidationError.WORKFLOW_VALIDATION);
+        return validationError;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.spi;
+
+import org.serverless.workflow.api.CompiledExpression;
+import org.serverless.workflow.api.ExpressionEvaluator;
+import org.serverless.workflow.api.events.TriggerEvent;
+
+/**
+ * Expression evaluator which compiles each expression once with its delegate and keeps the compiled
+ * expressions in an {@link ExpressionCache}. Batches of events are evaluated by the cached compiled
+ * expression, which may evaluate them faster than one event at a time.
+ */
+public class CachingExpressionEvaluator implements ExpressionEvaluator {
+
+    private final ExpressionEvaluator delegate;
+    private final ExpressionCache<CompiledExpression> cache;
+
+    public CachingExpressionEvaluator(ExpressionEvaluator delegate,
+                                      ExpressionCache<CompiledExpression> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean evaluate(String expression,
+                            TriggerEvent triggerEvent) {
+        return compile(expression).evaluate(triggerEvent);
+    }
+
+    @Override
+    public CompiledExpression compile(String expression) {
+        return cache.get(expression,
+                         delegate::compile);
+    }
+
+    public ExpressionEvaluator getDelegate() {
+        return delegate;
+    }
+
+    public ExpressionCache<CompiledExpression> getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.spi;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded least recently used cache of values keyed by expression text.
+ * <p>
+ * The cache is bounded both by number of entries and by total weight, the summed length of the cached
+ * expressions, so a few very large expressions cannot hold on to unbounded memory. Values are created
+ * outside the cache lock; when two threads miss on the same expression concurrently the first stored value wins.
+ */
+public class ExpressionCache<V> {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<String, V> entries = new LinkedHashMap<>(16,
+                                                                         0.75f,
+                                                                         true);
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpressionCache(int maxEntries,
+                           long maxWeight) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    public V get(String expression,
+                 Function<String, V> loader) {
+        synchronized (entries) {
+            V value = entries.get(expression);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+        }
+        misses.increment();
+        V loaded = loader.apply(expression);
+        synchronized (entries) {
+            V value = entries.get(expression);
+            if (value != null) {
+                return value;
+            }
+            if (weigh(expression) <= maxWeight) {
+                entries.put(expression,
+                            loaded);
+                weight += weigh(expression);
+                evict();
+            }
+        }
+        return loaded;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return summed length of the cached expressions
+     */
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, V>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            weight -= weigh(eldest.next().getKey());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long weigh(String expression) {
+        return expression.length();
+    }
+}
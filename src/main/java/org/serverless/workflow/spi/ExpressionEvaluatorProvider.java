@@ -21,14 +21,30 @@ package org.serverless.workflow.spi;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.serverless.workflow.api.CompiledExpression;
 import org.serverless.workflow.api.ExpressionEvaluator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ExpressionEvaluatorProvider {
 
+    /**
+     * System property with the maximum number of compiled expressions cached per evaluator
+     */
+    public static final String CACHE_MAX_ENTRIES_PROPERTY = "org.serverless.workflow.expressioncache.maxentries";
+
+    /**
+     * System property with the maximum summed expression length cached per evaluator
+     */
+    public static final String CACHE_MAX_WEIGHT_PROPERTY = "org.serverless.workflow.expressioncache.maxweight";
+
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 1024;
+    private static final long DEFAULT_CACHE_MAX_WEIGHT = 1024 * 1024;
+
     private Map<String, ExpressionEvaluator> expressionEvaluatorMap = new HashMap<>();
+    private Map<String, CachingExpressionEvaluator> cachingEvaluatorMap = new ConcurrentHashMap<>();
     private static Logger logger = LoggerFactory.getLogger(ExpressionEvaluatorProvider.class);
 
     public ExpressionEvaluatorProvider() {
@@ -52,4 +68,24 @@ public class ExpressionEvaluatorProvider {
     public Map<String, ExpressionEvaluator> get() {
         return expressionEvaluatorMap;
     }
+
+    /**
+     * @return the named evaluator behind a shared cache of compiled expressions, null if there is no such evaluator
+     */
+    public CachingExpressionEvaluator getCachingEvaluator(String evaluatorName) {
+        ExpressionEvaluator expressionEvaluator = expressionEvaluatorMap.get(evaluatorName);
+        if (expressionEvaluator == null) {
+            return null;
+        }
+        return cachingEvaluatorMap.computeIfAbsent(evaluatorName,
+                                                   name -> new CachingExpressionEvaluator(expressionEvaluator,
+                                                                                          newCache()));
+    }
+
+    private static ExpressionCache<CompiledExpression> newCache() {
+        return new ExpressionCache<>(Integer.getInteger(CACHE_MAX_ENTRIES_PROPERTY,
+                                                        DEFAULT_CACHE_MAX_ENTRIES),
+                                     Long.getLong(CACHE_MAX_WEIGHT_PROPERTY,
+                                                  DEFAULT_CACHE_MAX_WEIGHT));
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.spi;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import org.serverless.workflow.api.WorkflowIdGenerator;
+import org.serverless.workflow.api.ids.TimeOrderedIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class WorkflowIdGeneratorProvider {
+
+    /**
+     * System property naming the id generator returned by {@link #get()}
+     */
+    public static final String ID_GENERATOR_PROPERTY = "org.serverless.workflow.idgenerator";
+
+    private Map<String, WorkflowIdGenerator> idGeneratorMap = new HashMap<>();
+    private volatile WorkflowIdGenerator idGenerator;
+    private static Logger logger = LoggerFactory.getLogger(WorkflowIdGeneratorProvider.class);
+
+    public WorkflowIdGeneratorProvider() {
+        ServiceLoader<WorkflowIdGenerator> foundIdGenerators = ServiceLoader.load(WorkflowIdGenerator.class);
+        foundIdGenerators.forEach(idGenerator -> {
+            idGeneratorMap.put(idGenerator.getName(),
+                               idGenerator);
+            logger.info("Found id generator with name: " + idGenerator.getName());
+        });
+
+        String configuredName = System.getProperty(ID_GENERATOR_PROPERTY,
+                                                   TimeOrderedIdGenerator.NAME);
+        idGenerator = idGeneratorMap.get(configuredName);
+        if (idGenerator == null) {
+            logger.info("Id generator " + configuredName + " not found, using " + TimeOrderedIdGenerator.NAME);
+            idGenerator = idGeneratorMap.computeIfAbsent(TimeOrderedIdGenerator.NAME,
+                                                         name -> new TimeOrderedIdGenerator());
+        }
+    }
+
+    private static class LazyHolder {
+
+        static final WorkflowIdGeneratorProvider INSTANCE = new WorkflowIdGeneratorProvider();
+    }
+
+    public static WorkflowIdGeneratorProvider getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    /**
+     * @return the configured id generator
+     */
+    public WorkflowIdGenerator get() {
+        return idGenerator;
+    }
+
+    public WorkflowIdGenerator get(String idGeneratorName) {
+        return idGeneratorMap.get(idGeneratorName);
+    }
+
+    public Map<String, WorkflowIdGenerator> getIdGenerators() {
+        return idGeneratorMap;
+    }
+
+    /**
+     * Makes the named id generator the one returned by {@link #get()}
+     */
+    public void setIdGenerator(String idGeneratorName) {
+        WorkflowIdGenerator found = idGeneratorMap.get(idGeneratorName);
+        if (found == null) {
+            throw new IllegalArgumentException("Id generator not registered: " + idGeneratorName);
+        }
+        idGenerator = found;
+    }
+}
@@ -36,6 +36,7 @@ public class WorkflowManagerProvider {
         Iterator<WorkflowManager> it = foundWorkflowManagers.iterator();
         if (it.hasNext()) {
             workflowManager = it.next();
+            workflowManager.setIdGenerator(WorkflowIdGeneratorProvider.getInstance().get());
             logger.info("Found workflow manager: " + workflowManager.toString());
         }
     }
@@ -0,0 +1,146 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.expressions.JexlExpressionEvaluator;
+import org.serverless.workflow.api.expressions.SpelExpressionEvaluator;
+import org.serverless.workflow.spi.ExpressionEvaluatorProvider;
+
+public class BatchExpressionEvaluationTest {
+
+    // valid in both jexl and spel
+    private static final String EXPRESSION = "type == 'order.created' and metadata['priority'] == 'high'";
+
+    private static final List<String> EXPRESSIONS = Arrays.asList("type == 'order.created'",
+                                                                  "type == 'order.deleted'",
+                                                                  "metadata['priority'] == 'high'",
+                                                                  "source == 'shop'");
+
+    private static List<TriggerEvent> triggerEvents(int count) {
+        List<TriggerEvent> triggerEvents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            triggerEvents.add(new TriggerEvent().withName("event-" + i)
+                                      .withSource("shop")
+                                      .withType(i % 2 == 0 ? "order.created" : "order.updated")
+                                      .withMetadata(Collections.singletonMap("priority",
+                                                                             i % 3 == 0 ? "high" : "low")));
+        }
+        return triggerEvents;
+    }
+
+    private static ExpressionEvaluator loopingEvaluator() {
+        // uses the default batch methods
+        ExpressionEvaluator jexlEvaluator = new JexlExpressionEvaluator();
+        return new ExpressionEvaluator() {
+            @Override
+            public String getName() {
+                return "looping";
+            }
+
+            @Override
+            public boolean evaluate(String expression,
+                                    TriggerEvent triggerEvent) {
+                return jexlEvaluator.evaluate(expression,
+                                              triggerEvent);
+            }
+        };
+    }
+
+    private static void assertBatchResults(ExpressionEvaluator evaluator) {
+        List<TriggerEvent> triggerEvents = triggerEvents(100);
+        BitSet expected = new BitSet();
+        for (int i = 0; i < triggerEvents.size(); i++) {
+            expected.set(i,
+                         evaluator.evaluate(EXPRESSION,
+                                            triggerEvents.get(i)));
+        }
+        Assertions.assertEquals(17,
+                                expected.cardinality(),
+                                evaluator.getName());
+
+        // results are reused, stale bits must be cleared
+        BitSet results = new BitSet();
+        results.set(0,
+                    200);
+        Assertions.assertEquals(expected,
+                                evaluator.evaluate(EXPRESSION,
+                                                   triggerEvents,
+                                                   results),
+                                evaluator.getName());
+        Assertions.assertEquals(expected,
+                                evaluator.evaluate(EXPRESSION,
+                                                   triggerEvents.toArray(new TriggerEvent[0]),
+                                                   results),
+                                evaluator.getName());
+
+        CompiledExpression compiledExpression = evaluator.compile(EXPRESSION);
+        results.set(0,
+                    200);
+        Assertions.assertEquals(expected,
+                                compiledExpression.evaluate(triggerEvents,
+                                                            results),
+                                evaluator.getName());
+        Assertions.assertEquals(expected,
+                                compiledExpression.evaluate(triggerEvents.toArray(new TriggerEvent[0]),
+                                                            results),
+                                evaluator.getName());
+
+        BitSet expressionResults = evaluator.evaluate(EXPRESSIONS,
+                                                      triggerEvents.get(0),
+                                                      new BitSet());
+        Assertions.assertEquals("{0, 2, 3}",
+                                expressionResults.toString(),
+                                evaluator.getName());
+        Assertions.assertEquals("{3}",
+                                evaluator.evaluate(EXPRESSIONS,
+                                                   triggerEvents.get(1),
+                                                   expressionResults).toString(),
+                                evaluator.getName());
+    }
+
+    @Test
+    public void testDefaultBatchEvaluation() {
+        assertBatchResults(loopingEvaluator());
+    }
+
+    @Test
+    public void testJexlBatchEvaluation() {
+        assertBatchResults(new JexlExpressionEvaluator());
+    }
+
+    @Test
+    public void testSpelBatchEvaluation() {
+        assertBatchResults(new SpelExpressionEvaluator());
+    }
+
+    @Test
+    public void testCachingEvaluatorBatchEvaluation() {
+        assertBatchResults(ExpressionEvaluatorProvider.getInstance().getCachingEvaluator(JexlExpressionEvaluator.NAME));
+        assertBatchResults(ExpressionEvaluatorProvider.getInstance().getCachingEvaluator(SpelExpressionEvaluator.NAME));
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.testproviders.TestWorkflowValidator;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.serverless.workflow.api.validation.BaseWorkflowValidator;
+import org.serverless.workflow.api.validation.BatchValidationResult;
+import org.serverless.workflow.api.validation.BatchWorkflowValidator;
+import org.serverless.workflow.api.validation.ValidationError;
+
+public class BatchWorkflowValidatorTest {
+
+    private static final int DEFINITIONS = 40;
+    private static final int INVALID_INDEX = 25;
+
+    private static ForkJoinPool pool;
+    private static List<String> definitions;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        pool = new ForkJoinPool(4);
+
+        JsonObjectMapper mapper = new JsonObjectMapper();
+        String valid = new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")));
+        ObjectNode invalidNode = (ObjectNode) mapper.readTree(valid);
+        invalidNode.remove("states");
+        String invalid = mapper.writeValueAsString(invalidNode);
+
+        definitions = new ArrayList<>();
+        for (int i = 0; i < DEFINITIONS; i++) {
+            definitions.add(i == INVALID_INDEX ? invalid : valid);
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testOrdered() {
+        BatchWorkflowValidator validator = new BatchWorkflowValidator(new BaseWorkflowValidator(),
+                                                                      pool).withOrdered(true);
+
+        List<BatchValidationResult<String>> results = validator.validateJson(definitions);
+
+        Assertions.assertEquals(DEFINITIONS,
+                                results.size());
+        for (int i = 0; i < DEFINITIONS; i++) {
+            Assertions.assertEquals(i,
+                                    results.get(i).getIndex());
+            Assertions.assertEquals(i != INVALID_INDEX,
+                                    results.get(i).isValid());
+        }
+    }
+
+    @Test
+    public void testUnordered() {
+        BatchWorkflowValidator validator = new BatchWorkflowValidator(new BaseWorkflowValidator(),
+                                                                      pool);
+        List<BatchValidationResult<String>> results = new ArrayList<>();
+
+        boolean valid = validator.validateJson(definitions.stream(),
+                                               results::add);
+
+        Assertions.assertFalse(valid);
+        Assertions.assertEquals(DEFINITIONS,
+                                results.stream().map(BatchValidationResult::getIndex).distinct().count());
+        Assertions.assertEquals(1,
+                                results.stream().filter(result -> !result.isValid()).count());
+    }
+
+    @Test
+    public void testOrderedFailFast() {
+        BatchWorkflowValidator validator = new BatchWorkflowValidator(new BaseWorkflowValidator(),
+                                                                      pool).withOrdered(true).withFailFast(true);
+
+        List<BatchValidationResult<String>> results = validator.validateJson(definitions);
+
+        Assertions.assertEquals(INVALID_INDEX + 1,
+                                results.size());
+        Assertions.assertFalse(results.get(INVALID_INDEX).isValid());
+    }
+
+    @Test
+    public void testUnorderedFailFast() {
+        BatchWorkflowValidator validator = new BatchWorkflowValidator(new BaseWorkflowValidator(),
+                                                                      pool).withFailFast(true);
+
+        List<BatchValidationResult<String>> results = validator.validateJson(definitions);
+
+        Assertions.assertFalse(results.get(results.size() - 1).isValid());
+        Assertions.assertEquals(1,
+                                results.stream().filter(result -> !result.isValid()).count());
+    }
+
+    @Test
+    public void testWorkflows() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+        List<Workflow> workflows = definitions.stream().limit(INVALID_INDEX).map(json -> {
+            try {
+                return mapper.readValue(json,
+                                        Workflow.class);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).collect(Collectors.toList());
+
+        List<BatchValidationResult<Workflow>> results = new BatchWorkflowValidator(new BaseWorkflowValidator(),
+                                                                                   pool).validateWorkflows(workflows);
+
+        Assertions.assertEquals(INVALID_INDEX,
+                                results.size());
+        Assertions.assertTrue(results.stream().allMatch(BatchValidationResult::isValid));
+    }
+
+    @Test
+    public void testBoundedInFlight() {
+        int maxUndelivered = pool.getParallelism() * 2;
+        AtomicInteger taken = new AtomicInteger();
+        AtomicInteger delivered = new AtomicInteger();
+        BatchWorkflowValidator validator = new BatchWorkflowValidator(new BaseWorkflowValidator(),
+                                                                      pool).withOrdered(true);
+
+        Assertions.assertTrue(validator.validateJson(Stream.generate(() -> definitions.get(0))
+                                                             .limit(DEFINITIONS * 5)
+                                                             .peek(json -> taken.incrementAndGet()),
+                                                     result -> {
+                                                         Assertions.assertTrue(taken.get() - delivered.get() <= maxUndelivered);
+                                                         delivered.incrementAndGet();
+                                                     }));
+        Assertions.assertEquals(DEFINITIONS * 5,
+                                delivered.get());
+    }
+
+    @Test
+    public void testConsumerFailureCancelsTasks() throws Exception {
+        AtomicInteger validated = new AtomicInteger();
+        WorkflowValidator countingValidator = new BaseWorkflowValidator() {
+            @Override
+            public List<ValidationError> validate(String json) {
+                validated.incrementAndGet();
+                return super.validate(json);
+            }
+        };
+        BatchWorkflowValidator validator = new BatchWorkflowValidator(countingValidator,
+                                                                      pool);
+
+        Assertions.assertThrows(IllegalStateException.class,
+                                () -> validator.validateJson(Stream.generate(() -> definitions.get(0))
+                                                                     .limit(DEFINITIONS * 5),
+                                                             result -> {
+                                                                 throw new IllegalStateException("consumer failed");
+                                                             }));
+        pool.awaitQuiescence(1,
+                             TimeUnit.MINUTES);
+        Assertions.assertTrue(validated.get() <= pool.getParallelism() * 2,
+                              validated.get() + " definitions validated");
+    }
+
+    @Test
+    public void testValidationErrorIsReported() {
+        WorkflowValidator failingValidator = new BaseWorkflowValidator() {
+            @Override
+            public List<ValidationError> validate(String json) {
+                throw new StackOverflowError();
+            }
+        };
+
+        List<BatchValidationResult<String>> results = new BatchWorkflowValidator(failingValidator,
+                                                                                 pool).validateJson(definitions);
+
+        Assertions.assertEquals(DEFINITIONS,
+                                results.size());
+        Assertions.assertTrue(results.stream().noneMatch(BatchValidationResult::isValid));
+    }
+
+    @Test
+    public void testInterruptedIsNotValid() {
+        BatchWorkflowValidator validator = new BatchWorkflowValidator(new BaseWorkflowValidator(),
+                                                                      pool);
+
+        Thread.currentThread().interrupt();
+        try {
+            Assertions.assertFalse(validator.validateJson(definitions.stream(),
+                                                          result -> {
+                                                          }));
+            Assertions.assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testSetterBasedValidator() {
+        // keeps the default stateless methods, which go through the shared setter state
+        WorkflowValidator setterValidator = new TestWorkflowValidator() {
+            private String json;
+
+            @Override
+            public void setJson(String json) {
+                this.json = json;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+
+            @Override
+            public List<ValidationError> validate() {
+                ValidationError validationError = new ValidationError();
+                validationError.setMessage(json);
+                return Collections.singletonList(validationError);
+            }
+        };
+        List<String> jsons = new ArrayList<>();
+        for (int i = 0; i < DEFINITIONS * 5; i++) {
+            jsons.add(String.valueOf(i));
+        }
+
+        List<BatchValidationResult<String>> results = new BatchWorkflowValidator(setterValidator,
+                                                                                 pool).validateJson(jsons);
+
+        Assertions.assertEquals(jsons.size(),
+                                results.size());
+        for (BatchValidationResult<String> result : results) {
+            Assertions.assertEquals(result.getDefinition(),
+                                    result.getValidationErrors().get(0).getMessage());
+        }
+    }
+}
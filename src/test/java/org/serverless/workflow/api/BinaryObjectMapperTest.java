@@ -0,0 +1,87 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.mapper.CborObjectMapper;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.mapper.SmileObjectMapper;
+import org.serverless.workflow.api.mapper.WorkflowFormat;
+import org.serverless.workflow.api.testproviders.TestWorkflowManager;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+public class BinaryObjectMapperTest {
+
+    @Test
+    public void testSmileRoundTrip() throws Exception {
+        assertRoundTrip(new SmileObjectMapper());
+    }
+
+    @Test
+    public void testCborRoundTrip() throws Exception {
+        assertRoundTrip(new CborObjectMapper());
+    }
+
+    @Test
+    public void testManagerBinaryFormats() throws Exception {
+        JsonObjectMapper jsonMapper = new JsonObjectMapper();
+        WorkflowManager manager = new TestWorkflowManager();
+        manager.setWorkflow(jsonMapper.readValue(loadWorkflow(),
+                                                 Workflow.class));
+        String json = jsonMapper.writeValueAsString(manager.getWorkflow());
+
+        byte[] smile = manager.toSmile();
+        byte[] cbor = manager.toCbor();
+        Assertions.assertTrue(smile.length < json.length());
+        Assertions.assertTrue(cbor.length < json.length());
+
+        JSONAssert.assertEquals(json,
+                                jsonMapper.writeValueAsString(manager.toWorkflow(smile,
+                                                                                 WorkflowFormat.SMILE)),
+                                true);
+        JSONAssert.assertEquals(json,
+                                jsonMapper.writeValueAsString(manager.toWorkflow(cbor,
+                                                                                 WorkflowFormat.CBOR)),
+                                true);
+    }
+
+    private static void assertRoundTrip(ObjectMapper binaryMapper) throws Exception {
+        JsonObjectMapper jsonMapper = new JsonObjectMapper();
+        Workflow original = jsonMapper.readValue(loadWorkflow(),
+                                                 Workflow.class);
+        String json = jsonMapper.writeValueAsString(original);
+
+        byte[] bytes = binaryMapper.writeValueAsBytes(original);
+        Workflow workflow = binaryMapper.readValue(bytes,
+                                                   Workflow.class);
+
+        JSONAssert.assertEquals(json,
+                                jsonMapper.writeValueAsString(workflow),
+                                true);
+    }
+
+    private static String loadWorkflow() throws Exception {
+        return new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")));
+    }
+}
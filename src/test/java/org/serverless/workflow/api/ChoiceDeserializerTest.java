@@ -0,0 +1,110 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.choices.AndChoice;
+import org.serverless.workflow.api.choices.DefaultChoice;
+import org.serverless.workflow.api.choices.NotChoice;
+import org.serverless.workflow.api.choices.OrChoice;
+import org.serverless.workflow.api.choices.SingleChoice;
+import org.serverless.workflow.api.deserializers.ChoiceDeserializer;
+import org.serverless.workflow.api.interfaces.Choice;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.states.SwitchState;
+import org.serverless.workflow.api.utils.TestUtils;
+
+public class ChoiceDeserializerTest {
+
+    private static final String testChoices = "[\n" +
+            "  { \"path\": \"$.a\", \"value\": \"1\", \"operator\": \"Equals\" },\n" +
+            "  { \"path\": \"$.a\", \"value\": \"1\", \"operator\": \"Equals\", \"next-state\": \"one\" },\n" +
+            "  { \"next-state\": \"two\", \"path\": \"$.a\", \"value\": \"2\", \"operator\": \"LessThan\" },\n" +
+            "  { \"metadata\": { \"k\": \"v\" }, \"next-state\": \"three\", \"and\": [ { \"path\": \"$.b\", \"value\": \"3\", \"operator\": \"Equals\" } ] },\n" +
+            "  { \"or\": [ { \"path\": \"$.c\", \"value\": \"4\", \"operator\": \"GreaterThan\" } ], \"next-state\": \"four\" },\n" +
+            "  { \"next-state\": \"five\", \"not\": { \"path\": \"$.d\", \"value\": \"5\", \"operator\": \"Equals\" } }\n" +
+            "]";
+
+    @Test
+    public void testStreamingChoiceTypes() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+
+        Choice[] choices = mapper.readValue(testChoices,
+                                            Choice[].class);
+
+        Assertions.assertEquals(6,
+                                choices.length);
+        Assertions.assertEquals(DefaultChoice.class,
+                                choices[0].getClass());
+        Assertions.assertEquals(SingleChoice.class,
+                                choices[1].getClass());
+        Assertions.assertEquals(SingleChoice.class,
+                                choices[2].getClass());
+        Assertions.assertEquals("two",
+                                ((SingleChoice) choices[2]).getNextState());
+        Assertions.assertEquals(AndChoice.class,
+                                choices[3].getClass());
+        Assertions.assertEquals("three",
+                                ((AndChoice) choices[3]).getNextState());
+        Assertions.assertEquals("v",
+                                ((AndChoice) choices[3]).getMetadata().get("k"));
+        Assertions.assertEquals(OrChoice.class,
+                                choices[4].getClass());
+        Assertions.assertEquals(NotChoice.class,
+                                choices[5].getClass());
+        Assertions.assertEquals("$.d",
+                                ((NotChoice) choices[5]).getNot().getPath());
+
+        Assertions.assertEquals(treeMapper().writeValueAsString(treeMapper().readValue(testChoices,
+                                                                                       Choice[].class)),
+                                mapper.writeValueAsString(choices));
+    }
+
+    @Test
+    public void testStreamingMatchesTree() throws Exception {
+        String json = new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")),
+                                 "UTF-8");
+
+        JsonObjectMapper streamingMapper = new JsonObjectMapper();
+        JsonObjectMapper treeMapper = treeMapper();
+
+        Workflow streamed = streamingMapper.readValue(json,
+                                                      Workflow.class);
+        SwitchState switchState = (SwitchState) streamed.getStates().get(2);
+        Assertions.assertEquals(4,
+                                switchState.getChoices().size());
+
+        Assertions.assertEquals(treeMapper.writeValueAsString(treeMapper.readValue(json,
+                                                                                   Workflow.class)),
+                                streamingMapper.writeValueAsString(streamed));
+    }
+
+    private static JsonObjectMapper treeMapper() {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+        SimpleModule treeModule = new SimpleModule("tree-choice-module");
+        treeModule.addDeserializer(Choice.class,
+                                   new ChoiceDeserializer(false));
+        mapper.registerModule(treeModule);
+        return mapper;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.mapper.IdGeneration;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.mapper.YamlObjectMapper;
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.utils.TestUtils;
+
+public class ConcurrentSerializationTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 200;
+
+    @Test
+    public void testIdGeneratedOnLoad() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper(null,
+                                                       IdGeneration.ON_LOAD);
+
+        Workflow workflow = mapper.readValue(loadWorkflowWithoutId(),
+                                             Workflow.class);
+
+        Assertions.assertNotNull(workflow.getId());
+        Assertions.assertFalse(workflow.getId().isEmpty());
+        Assertions.assertEquals(mapper.writeValueAsString(workflow),
+                                mapper.writeValueAsString(workflow));
+    }
+
+    @Test
+    public void testIdGeneratedOnWrite() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+
+        Workflow workflow = mapper.readValue(loadWorkflowWithoutId(),
+                                             Workflow.class);
+
+        Assertions.assertNull(workflow.getId());
+        Assertions.assertNotEquals(mapper.writeValueAsString(workflow),
+                                   mapper.writeValueAsString(workflow));
+    }
+
+    @Test
+    public void testStateTypeNotWritten() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+        Workflow workflow = mapper.readValue(loadWorkflowWithoutId(),
+                                             Workflow.class);
+        String expected = mapper.writeValueAsString(workflow.withId("test-id"));
+
+        for (State state : workflow.getStates()) {
+            ((DefaultState) state).setType(null);
+        }
+
+        Assertions.assertEquals(expected,
+                                mapper.writeValueAsString(workflow));
+        for (State state : workflow.getStates()) {
+            Assertions.assertNull(state.getType());
+        }
+    }
+
+    @Test
+    public void testConcurrentJsonSerialization() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper(null,
+                                                       IdGeneration.ON_LOAD);
+        Workflow workflow = mapper.readValue(loadWorkflowWithoutId(),
+                                             Workflow.class);
+
+        assertConcurrentWritesMatch(() -> mapper.writeValueAsString(workflow));
+    }
+
+    @Test
+    public void testConcurrentYamlSerialization() throws Exception {
+        YamlObjectMapper mapper = new YamlObjectMapper(null,
+                                                       IdGeneration.ON_LOAD);
+        Workflow workflow = new JsonObjectMapper(null,
+                                                 IdGeneration.ON_LOAD).readValue(loadWorkflowWithoutId(),
+                                                                                 Workflow.class);
+
+        assertConcurrentWritesMatch(() -> mapper.writeValueAsString(workflow));
+    }
+
+    private static void assertConcurrentWritesMatch(Callable<String> write) throws Exception {
+        String expected = write.call();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int mismatches = 0;
+                    for (int j = 0; j < WRITES_PER_THREAD; j++) {
+                        if (!expected.equals(write.call())) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> result : results) {
+                Assertions.assertEquals(0,
+                                        result.get(1,
+                                                   TimeUnit.MINUTES).intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String loadWorkflowWithoutId() throws Exception {
+        String json = new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")),
+                                 "UTF-8");
+        return json.replace("\"id\": \"all-states-wf\",",
+                            "");
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.testproviders.TestWorkflowValidator;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.serverless.workflow.api.validation.BaseWorkflowValidator;
+import org.serverless.workflow.api.validation.ValidationError;
+
+public class ConcurrentValidationTest {
+
+    private static final int THREADS = 8;
+    private static final int VALIDATIONS_PER_THREAD = 50;
+
+    private static final String STRICT_ERROR = "strict-check";
+
+    @Test
+    public void testStatelessValidation() throws Exception {
+        WorkflowValidator validator = new StrictNameValidator();
+        String validJson = loadWorkflow();
+        String invalidJson = removeStates(validJson);
+        String strictInvalidJson = validJson.replace("\"all-states\"",
+                                                     "\"" + STRICT_ERROR + "\"");
+        // quote all strings so the YAML scalars keep their JSON types
+        String validYaml = new ObjectMapper(new YAMLFactory()).writeValueAsString(new JsonObjectMapper().readTree(validJson));
+        Workflow validWorkflow = new JsonObjectMapper().readValue(validJson,
+                                                                  Workflow.class);
+
+        Assertions.assertTrue(validator.validate(validJson).isEmpty());
+        Assertions.assertTrue(validator.validateYaml(validYaml).isEmpty());
+        Assertions.assertTrue(validator.validate(validWorkflow).isEmpty());
+        Assertions.assertEquals(ValidationError.SCHEMA_VALIDATION,
+                                validator.validate(invalidJson).get(0).getType());
+        Assertions.assertEquals(ValidationError.WORKFLOW_VALIDATION,
+                                validator.validate(strictInvalidJson).get(0).getType());
+
+        runConcurrently(index -> {
+            switch (index % 4) {
+                case 0:
+                    return validator.validate(validJson).isEmpty();
+                case 1:
+                    return !validator.validate(invalidJson).isEmpty();
+                case 2:
+                    return validator.validateYaml(validYaml).isEmpty();
+                default:
+                    return validator.validate(strictInvalidJson).size() == 1;
+            }
+        });
+    }
+
+    @Test
+    public void testDefaultStatelessMethods() throws Exception {
+        List<String> markups = new ArrayList<>();
+        WorkflowValidator validator = new TestWorkflowValidator() {
+            @Override
+            public void setJson(String json) {
+                markups.add(json);
+            }
+
+            @Override
+            public void setYaml(String yaml) {
+                markups.add(yaml);
+            }
+
+            @Override
+            public List<ValidationError> validate() {
+                return Collections.emptyList();
+            }
+        };
+        String validJson = loadWorkflow();
+
+        Assertions.assertTrue(validator.validate(validJson).isEmpty());
+        Assertions.assertTrue(validator.validateYaml("name: test-wf").isEmpty());
+        Assertions.assertTrue(validator.validate(new JsonObjectMapper().readValue(validJson,
+                                                                                  Workflow.class)).isEmpty());
+        Assertions.assertEquals(3,
+                                markups.size());
+        Assertions.assertEquals(validJson,
+                                markups.get(0));
+        Assertions.assertEquals("name: test-wf",
+                                markups.get(1));
+        Assertions.assertEquals(new JsonObjectMapper().readTree(validJson).get("name"),
+                                new JsonObjectMapper().readTree(markups.get(2)).get("name"));
+    }
+
+    @Test
+    public void testLegacyValidation() throws Exception {
+        WorkflowValidator validator = new StrictNameValidator();
+        String validJson = loadWorkflow();
+        String invalidJson = removeStates(validJson);
+
+        List<ValidationError> errors = validator.validate();
+        Assertions.assertEquals(1,
+                                errors.size());
+        Assertions.assertEquals(ValidationError.SCHEMA_VALIDATION,
+                                errors.get(0).getType());
+
+        validator.setJson(validJson);
+        Assertions.assertTrue(validator.isValid());
+        validator.setJson(invalidJson);
+        Assertions.assertFalse(validator.isValid());
+        validator.setYaml(new ObjectMapper(new YAMLFactory()).writeValueAsString(new JsonObjectMapper().readTree(validJson)));
+        Assertions.assertTrue(validator.isValid());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> validator.setJson(invalidJson)).get(1,
+                                                                      TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertFalse(validator.isValid());
+
+        validator.reset();
+        Assertions.assertFalse(validator.isValid());
+    }
+
+    private static void runConcurrently(ValidationTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < VALIDATIONS_PER_THREAD; j++) {
+                        if (!task.run(thread + j)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                Assertions.assertTrue(result.get(2,
+                                                 TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String loadWorkflow() throws Exception {
+        return new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")));
+    }
+
+    private static String removeStates(String json) throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+        ObjectNode workflowNode = (ObjectNode) mapper.readTree(json);
+        workflowNode.remove("states");
+        return mapper.writeValueAsString(workflowNode);
+    }
+
+    private interface ValidationTask {
+
+        boolean run(int index) throws Exception;
+    }
+
+    private static class StrictNameValidator extends BaseWorkflowValidator {
+
+        @Override
+        protected List<ValidationError> validateWorkflow(Workflow workflow) {
+            if (!STRICT_ERROR.equals(workflow.getName())) {
+                return Collections.emptyList();
+            }
+            ValidationError validationError = new ValidationError();
+            validationError.setMessage("Invalid name");
+            validationError.setType(ValidationError.WORKFLOW_VALIDATION);
+            return Collections.singletonList(validationError);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.correlation.CorrelationIndex;
+import org.serverless.workflow.api.correlation.CorrelationPath;
+import org.serverless.workflow.api.events.TriggerEvent;
+
+public class CorrelationTest {
+
+    private static final String PAYLOAD = "{\"id\":\"event-1\",\"skipped\":{\"order\":{\"id\":\"wrong\"}},"
+            + "\"order\":{\"items\":[{\"sku\":\"a\"},{\"sku\":\"b\",\"qty\":2}],\"id\":\"order-42\",\"total\":12.5,"
+            + "\"paid\":true,\"note\":null,\"customer-id\":\"c-7\"}}";
+
+    private static class TestClock extends Clock {
+
+        private long millis;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        void advance(Duration duration) {
+            millis += duration.toMillis();
+        }
+    }
+
+    @Test
+    public void testExtractPaths() throws Exception {
+        String[][] expected = {
+                {"$.order.id", "order-42"},
+                {"order.id", "order-42"},
+                {"$.order.items[1].sku", "b"},
+                {"$['order']['customer-id']", "c-7"},
+                {"$.order.items[1].qty", "2"},
+                {"$.order.total", "12.5"},
+                {"$.order.paid", "true"},
+                {"$.order.note", null},
+                {"$.order.items", null},
+                {"$.order.items[5].sku", null},
+                {"$.order.missing", null},
+                {"$.id.nested", null}
+        };
+        ObjectMapper mapper = new ObjectMapper();
+        for (String[] pathAndValue : expected) {
+            CorrelationPath path = CorrelationPath.compile(pathAndValue[0]);
+            Assertions.assertEquals(pathAndValue[1],
+                                    path.extract(PAYLOAD),
+                                    pathAndValue[0]);
+            Assertions.assertEquals(pathAndValue[1],
+                                    path.extract(PAYLOAD.getBytes(StandardCharsets.UTF_8)),
+                                    pathAndValue[0]);
+            Assertions.assertEquals(pathAndValue[1],
+                                    path.extract(new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8))),
+                                    pathAndValue[0]);
+            Assertions.assertEquals(pathAndValue[1],
+                                    path.extract(mapper.readTree(PAYLOAD)),
+                                    pathAndValue[0]);
+        }
+    }
+
+    @Test
+    public void testNumericTokens() throws Exception {
+        String[][] expected = {
+                {"{\"id\":1.50}", "1.5"},
+                {"{\"id\":1.5}", "1.5"},
+                {"{\"id\":1e2}", "100"},
+                {"{\"id\":100.0}", "100"},
+                {"{\"id\":100}", "100"},
+                {"{\"id\":-0}", "0"},
+                {"{\"id\":0.0}", "0"},
+                {"{\"id\":12345678901234567890}", "12345678901234567890"},
+                // out of double range, only streaming keeps the exact value
+                {"{\"id\":1e400}", "1E+400"}
+        };
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper decimalMapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        CorrelationPath path = CorrelationPath.compile("$.id");
+        for (String[] payloadAndToken : expected) {
+            String payload = payloadAndToken[0];
+            Assertions.assertEquals(payloadAndToken[1],
+                                    path.extract(payload),
+                                    payload);
+            if (!payload.contains("e400")) {
+                Assertions.assertEquals(payloadAndToken[1],
+                                        path.extract(mapper.readTree(payload)),
+                                        payload);
+                Assertions.assertEquals(payloadAndToken[1],
+                                        path.extract(decimalMapper.readTree(payload)),
+                                        payload);
+            }
+        }
+    }
+
+    @Test
+    public void testExtractStopsAtValue() {
+        // the rest of the payload is never read, so it does not need to be valid
+        Assertions.assertEquals("order-42",
+                                CorrelationPath.compile("$.id").extract("{\"id\":\"order-42\", this is not json"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> CorrelationPath.compile("$.other").extract("{\"id\":\"order-42\", this is not json"));
+    }
+
+    @Test
+    public void testCompilePaths() {
+        Assertions.assertSame(CorrelationPath.compile("$.order.id"),
+                              CorrelationPath.forTrigger(new TriggerEvent().withCorrelationToken("$.order.id")));
+        Assertions.assertNull(CorrelationPath.forTrigger(new TriggerEvent()));
+        for (String path : Arrays.asList("$.",
+                                         "$..id",
+                                         "$.order[",
+                                         "$.order[x]",
+                                         "$.order[-1]",
+                                         "$.*",
+                                         "$id")) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> CorrelationPath.compile(path),
+                                    path);
+        }
+    }
+
+    @Test
+    public void testPutAndTake() {
+        CorrelationIndex<String> index = new CorrelationIndex<>(10,
+                                                                Duration.ofMinutes(1));
+        index.put("order-paid",
+                  "order-42",
+                  "instance-1");
+        index.put("order-paid",
+                  "order-42",
+                  "instance-2");
+        index.put("order-shipped",
+                  "order-42",
+                  "instance-3");
+
+        Assertions.assertEquals(Arrays.asList("instance-1",
+                                              "instance-2"),
+                                index.get("order-paid",
+                                          "order-42"));
+        Assertions.assertTrue(index.remove("order-paid",
+                                           "order-42",
+                                           "instance-1"));
+        Assertions.assertFalse(index.remove("order-paid",
+                                            "order-42",
+                                            "instance-1"));
+        Assertions.assertEquals(Collections.singletonList("instance-2"),
+                                index.take("order-paid",
+                                           "order-42"));
+        Assertions.assertTrue(index.take("order-paid",
+                                         "order-42").isEmpty());
+        Assertions.assertTrue(index.get("order-paid",
+                                        null).isEmpty());
+        Assertions.assertEquals(1,
+                                index.size());
+    }
+
+    @Test
+    public void testHotKey() {
+        int instances = 100000;
+        CorrelationIndex<String> index = new CorrelationIndex<>(instances * 2,
+                                                                Duration.ofMinutes(1));
+        for (int i = 0; i < instances; i++) {
+            index.put("order-paid",
+                      "",
+                      "instance-" + i);
+        }
+        // a duplicate registration is removed after the first one
+        index.put("order-paid",
+                  "",
+                  "instance-0");
+
+        // removing every other waiter from one key stays fast
+        for (int i = instances - 1; i >= 0; i -= 2) {
+            Assertions.assertTrue(index.remove("order-paid",
+                                               "",
+                                               "instance-" + i));
+        }
+        Assertions.assertTrue(index.remove("order-paid",
+                                           "",
+                                           "instance-0"));
+        List<String> waiting = index.get("order-paid",
+                                         "");
+        Assertions.assertEquals(instances / 2,
+                                waiting.size());
+        Assertions.assertEquals("instance-2",
+                                waiting.get(0));
+        Assertions.assertEquals("instance-0",
+                                waiting.get(waiting.size() - 1));
+        Assertions.assertEquals(instances / 2,
+                                index.take("order-paid",
+                                           "").size());
+        Assertions.assertEquals(0,
+                                index.size());
+    }
+
+    @Test
+    public void testTimeToLive() {
+        TestClock clock = new TestClock();
+        CorrelationIndex<String> index = new CorrelationIndex<>(10,
+                                                                Duration.ofSeconds(30),
+                                                                clock);
+        index.put("order-paid",
+                  "order-1",
+                  "instance-1");
+        clock.advance(Duration.ofSeconds(20));
+        index.put("order-paid",
+                  "order-2",
+                  "instance-2");
+        clock.advance(Duration.ofSeconds(10));
+
+        // expired instances are not returned even before they are removed
+        Assertions.assertTrue(index.get("order-paid",
+                                        "order-1").isEmpty());
+        Assertions.assertEquals(2,
+                                index.size());
+        Assertions.assertEquals(1,
+                                index.evictExpired());
+        Assertions.assertEquals(Collections.singletonList("instance-2"),
+                                index.get("order-paid",
+                                          "order-2"));
+
+        clock.advance(Duration.ofSeconds(20));
+        index.put("order-paid",
+                  "order-3",
+                  "instance-3");
+        Assertions.assertEquals(1,
+                                index.size());
+        Assertions.assertEquals(2,
+                                index.getExpirations());
+    }
+
+    @Test
+    public void testEvictsOldestWhenFull() {
+        CorrelationIndex<String> index = new CorrelationIndex<>(3,
+                                                                Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            index.put("order-paid",
+                      "order-" + i,
+                      "instance-" + i);
+        }
+        Assertions.assertEquals(3,
+                                index.size());
+        Assertions.assertEquals(2,
+                                index.getEvictions());
+        Assertions.assertTrue(index.get("order-paid",
+                                        "order-1").isEmpty());
+        Assertions.assertEquals(Collections.singletonList("instance-2"),
+                                index.get("order-paid",
+                                          "order-2"));
+    }
+
+    @Test
+    public void testRouteEventPayload() {
+        TriggerEvent trigger = new TriggerEvent("order-paid",
+                                                "shop",
+                                                "order.paid").withCorrelationToken("$.order.id");
+        CorrelationIndex<String> index = new CorrelationIndex<>(10,
+                                                                Duration.ofMinutes(1));
+        index.put(trigger.getName(),
+                  "order-42",
+                  "instance-1");
+
+        String token = CorrelationPath.forTrigger(trigger).extract(PAYLOAD);
+        Assertions.assertEquals(Collections.singletonList("instance-1"),
+                                index.take(trigger.getName(),
+                                           token));
+    }
+}
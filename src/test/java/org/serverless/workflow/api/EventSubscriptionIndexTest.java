@@ -0,0 +1,244 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.routing.EventSubscription;
+import org.serverless.workflow.api.routing.EventSubscriptionIndex;
+
+public class EventSubscriptionIndexTest {
+
+    private static Workflow workflow(String id,
+                                     TriggerEvent... triggerEvents) {
+        return new Workflow().withId(id)
+                .withName(id)
+                .withTriggerDefs(new ArrayList<>(Arrays.asList(triggerEvents)));
+    }
+
+    private static TriggerEvent trigger(String name,
+                                        String source,
+                                        String type) {
+        return new TriggerEvent(name,
+                                source,
+                                type);
+    }
+
+    private static List<String> names(List<EventSubscription> subscriptions) {
+        return subscriptions.stream().map(EventSubscription::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRegisterAndLookup() {
+        EventSubscriptionIndex index = new EventSubscriptionIndex();
+        index.register(workflow("orders",
+                                trigger("created",
+                                        "shop",
+                                        "order.created"),
+                                trigger("cancelled",
+                                        "shop",
+                                        "order.cancelled")));
+        index.register(workflow("billing",
+                                trigger("order",
+                                        "shop",
+                                        "order.created")));
+
+        Assertions.assertEquals(Arrays.asList("orders/created",
+                                              "billing/order"),
+                                names(index.getSubscriptions("shop",
+                                                             "order.created")));
+        Assertions.assertEquals(Arrays.asList("orders/cancelled"),
+                                names(index.getSubscriptions(new TriggerEvent().withSource("shop")
+                                                                     .withType("order.cancelled"))));
+        Assertions.assertTrue(index.getSubscriptions("shop",
+                                                     "order.shipped").isEmpty());
+        Assertions.assertTrue(index.getSubscriptions("warehouse",
+                                                     "order.created").isEmpty());
+        Assertions.assertTrue(index.getSubscriptions(null,
+                                                     "order.created").isEmpty());
+        Assertions.assertEquals(2,
+                                index.size());
+    }
+
+    @Test
+    public void testUnregisterAndReplace() {
+        EventSubscriptionIndex index = new EventSubscriptionIndex();
+        index.register(workflow("orders",
+                                trigger("created",
+                                        "shop",
+                                        "order.created")));
+        index.register(workflow("billing",
+                                trigger("order",
+                                        "shop",
+                                        "order.created")));
+        List<EventSubscription> snapshot = index.getSubscriptions("shop",
+                                                                  "order.created");
+
+        Assertions.assertTrue(index.unregister("orders"));
+        Assertions.assertFalse(index.unregister("orders"));
+        Assertions.assertEquals(Arrays.asList("billing/order"),
+                                names(index.getSubscriptions("shop",
+                                                             "order.created")));
+        // earlier lookups are not affected
+        Assertions.assertEquals(2,
+                                snapshot.size());
+
+        index.register(workflow("billing",
+                                trigger("refund",
+                                        "payments",
+                                        "refund.requested")));
+        Assertions.assertTrue(index.getSubscriptions("shop",
+                                                     "order.created").isEmpty());
+        Assertions.assertEquals(Arrays.asList("billing/refund"),
+                                names(index.getSubscriptions("payments",
+                                                             "refund.requested")));
+        Assertions.assertEquals(1,
+                                index.size());
+    }
+
+    @Test
+    public void testUnregisterModifiedTriggers() {
+        EventSubscriptionIndex index = new EventSubscriptionIndex();
+        TriggerEvent created = trigger("created",
+                                       "shop",
+                                       "order.created");
+        TriggerEvent paid = trigger("paid",
+                                    "shop",
+                                    "order.paid");
+        index.register(workflow("orders",
+                                created,
+                                paid));
+
+        created.setSource(null);
+        paid.setType("order.refunded");
+        Assertions.assertEquals(Arrays.asList("orders/created"),
+                                names(index.getSubscriptions("shop",
+                                                             "order.created")));
+
+        Assertions.assertTrue(index.unregister("orders"));
+        Assertions.assertTrue(index.getSubscriptions("shop",
+                                                     "order.created").isEmpty());
+        Assertions.assertTrue(index.getSubscriptions("shop",
+                                                     "order.paid").isEmpty());
+    }
+
+    @Test
+    public void testInvalidWorkflows() {
+        EventSubscriptionIndex index = new EventSubscriptionIndex();
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> index.register(workflow(null,
+                                                              trigger("created",
+                                                                      "shop",
+                                                                      "order.created"))));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> index.register(workflow("orders",
+                                                              trigger("created",
+                                                                      null,
+                                                                      "order.created"))));
+        Assertions.assertEquals(0,
+                                index.size());
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        EventSubscriptionIndex index = new EventSubscriptionIndex();
+        index.register(workflow("stable",
+                                trigger("created",
+                                        "shop",
+                                        "order.created")));
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            started.countDown();
+            while (!done.get()) {
+                List<EventSubscription> subscriptions = index.getSubscriptions("shop",
+                                                                               "order.created");
+                if (subscriptions.isEmpty() || !"stable".equals(subscriptions.get(0).getWorkflowId())) {
+                    failure.set("Stable subscription missing: " + subscriptions);
+                }
+            }
+        });
+        reader.start();
+        started.await();
+        for (int i = 0; i < 10000; i++) {
+            index.register(workflow("workflow-" + (i % 100),
+                                    trigger("created",
+                                            "shop",
+                                            "order.created")));
+            index.unregister("workflow-" + ((i + 50) % 100));
+        }
+        done.set(true);
+        reader.join();
+
+        Assertions.assertNull(failure.get());
+    }
+
+    @Test
+    public void testConcurrentRedeploy() throws Exception {
+        EventSubscriptionIndex index = new EventSubscriptionIndex();
+        index.register(workflow("orders",
+                                trigger("created",
+                                        "shop",
+                                        "order.created")));
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            started.countDown();
+            while (!done.get()) {
+                List<EventSubscription> subscriptions = index.getSubscriptions("shop",
+                                                                               "order.created");
+                if (subscriptions.size() != 1) {
+                    failure.set("Redeployed subscription missing: " + subscriptions);
+                }
+            }
+        });
+        reader.start();
+        started.await();
+        for (int i = 0; i < 10000; i++) {
+            // every version keeps the route, and moves a second trigger between routes
+            index.register(workflow("orders",
+                                    trigger("created",
+                                            "shop",
+                                            "order.created"),
+                                    trigger("other",
+                                            "shop-" + (i % 2),
+                                            "order.updated")));
+        }
+        done.set(true);
+        reader.join();
+
+        Assertions.assertNull(failure.get());
+        Assertions.assertEquals(1,
+                                index.getSubscriptions("shop-1",
+                                                       "order.updated").size());
+        Assertions.assertTrue(index.getSubscriptions("shop-0",
+                                                     "order.updated").isEmpty());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.spi.CachingExpressionEvaluator;
+import org.serverless.workflow.spi.ExpressionCache;
+import org.serverless.workflow.spi.ExpressionEvaluatorProvider;
+
+public class ExpressionCacheTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        ExpressionCache<String> cache = new ExpressionCache<>(10,
+                                                              1000);
+
+        Assertions.assertEquals("A",
+                                cache.get("a",
+                                          String::toUpperCase));
+        Assertions.assertEquals("A",
+                                cache.get("a",
+                                          expression -> "unexpected"));
+
+        Assertions.assertEquals(1,
+                                cache.getHits());
+        Assertions.assertEquals(1,
+                                cache.getMisses());
+        Assertions.assertEquals(1,
+                                cache.getWeight());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ExpressionCache<String> cache = new ExpressionCache<>(2,
+                                                              1000);
+        cache.get("a",
+                  String::toUpperCase);
+        cache.get("b",
+                  String::toUpperCase);
+        cache.get("a",
+                  String::toUpperCase);
+        cache.get("c",
+                  String::toUpperCase);
+
+        Assertions.assertEquals(2,
+                                cache.size());
+        Assertions.assertEquals(1,
+                                cache.getEvictions());
+        Assertions.assertEquals("A",
+                                cache.get("a",
+                                          expression -> "reloaded"));
+        Assertions.assertEquals("reloaded",
+                                cache.get("b",
+                                          expression -> "reloaded"));
+    }
+
+    @Test
+    public void testEvictsByWeight() {
+        ExpressionCache<String> cache = new ExpressionCache<>(100,
+                                                              10);
+        cache.get("aaaa",
+                  String::toUpperCase);
+        cache.get("bbbb",
+                  String::toUpperCase);
+        cache.get("cccc",
+                  String::toUpperCase);
+
+        Assertions.assertEquals(2,
+                                cache.size());
+        Assertions.assertEquals(8,
+                                cache.getWeight());
+
+        // larger than the whole cache, returned but not stored
+        Assertions.assertEquals("DDDDDDDDDDDD",
+                                cache.get("dddddddddddd",
+                                          String::toUpperCase));
+        Assertions.assertEquals(2,
+                                cache.size());
+    }
+
+    @Test
+    public void testCachingEvaluator() {
+        AtomicInteger compilations = new AtomicInteger();
+        ExpressionEvaluator evaluator = new ExpressionEvaluator() {
+            @Override
+            public String getName() {
+                return "counting";
+            }
+
+            @Override
+            public boolean evaluate(String expression,
+                                    TriggerEvent triggerEvent) {
+                return expression.equals(triggerEvent.getName());
+            }
+
+            @Override
+            public CompiledExpression compile(String expression) {
+                compilations.incrementAndGet();
+                return triggerEvent -> expression.equals(triggerEvent.getName());
+            }
+        };
+        CachingExpressionEvaluator cachingEvaluator = new CachingExpressionEvaluator(evaluator,
+                                                                                     new ExpressionCache<>(10,
+                                                                                                           1000));
+        TriggerEvent triggerEvent = new TriggerEvent().withName("order-event");
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(cachingEvaluator.evaluate("order-event",
+                                                            triggerEvent));
+            Assertions.assertFalse(cachingEvaluator.evaluate("other-event",
+                                                             triggerEvent));
+        }
+        Assertions.assertEquals(2,
+                                compilations.get());
+        Assertions.assertEquals(8,
+                                cachingEvaluator.getCache().getHits());
+
+        // batches compile through the cache as well
+        List<TriggerEvent> triggerEvents = Arrays.asList(triggerEvent,
+                                                         new TriggerEvent().withName("other-event"));
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals("{0}",
+                                    cachingEvaluator.evaluate("order-event",
+                                                              triggerEvents,
+                                                              new BitSet()).toString());
+        }
+        Assertions.assertEquals(2,
+                                compilations.get());
+        Assertions.assertEquals(13,
+                                cachingEvaluator.getCache().getHits());
+    }
+
+    @Test
+    public void testProviderCachingEvaluator() {
+        CachingExpressionEvaluator cachingEvaluator = ExpressionEvaluatorProvider.getInstance().getCachingEvaluator("test");
+
+        Assertions.assertNotNull(cachingEvaluator);
+        Assertions.assertSame(cachingEvaluator,
+                              ExpressionEvaluatorProvider.getInstance().getCachingEvaluator("test"));
+        Assertions.assertSame(ExpressionEvaluatorProvider.getInstance().get().get("test"),
+                              cachingEvaluator.getDelegate());
+        Assertions.assertNull(ExpressionEvaluatorProvider.getInstance().getCachingEvaluator("missing"));
+    }
+}
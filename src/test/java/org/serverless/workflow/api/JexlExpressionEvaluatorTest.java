@@ -0,0 +1,138 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.expressions.JexlExpressionEvaluator;
+import org.serverless.workflow.spi.ExpressionEvaluatorProvider;
+
+public class JexlExpressionEvaluatorTest {
+
+    private final JexlExpressionEvaluator evaluator = new JexlExpressionEvaluator();
+
+    private static final String[] MATCHING_EXPRESSIONS = {
+            "type == 'order.created'",
+            "name == 'order-event' && source == 'shop'",
+            "correlationToken == 'order-1'",
+            "metadata.priority == 'high'",
+            "metadata['priority'] == 'high'",
+            "metadata.missing == null",
+            "type.startsWith('order.')",
+            "type =~ ['order.created', 'order.updated']",
+            "type =~ 'order\\\\..*'"
+    };
+
+    private static final String[] SANDBOXED_EXPRESSIONS = {
+            "type.getClass() != null",
+            "type.class != null",
+            "type.getBytes() != null",
+            "['a'].getClass() != null",
+            "new('java.lang.StringBuilder') != null",
+            "metadata.getClass() != null",
+            "name = 'changed'",
+            "undefined == null"
+    };
+
+    private static final String[] STATEMENT_EXPRESSIONS = {
+            "while (true) {}",
+            "for (var x : [1, 2]) { x }",
+            "var x = 1; x == 1",
+            "if (true) { true }"
+    };
+
+    private static TriggerEvent triggerEvent() {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("priority",
+                     "high");
+        return new TriggerEvent().withName("order-event")
+                .withSource("shop")
+                .withType("order.created")
+                .withCorrelationToken("order-1")
+                .withMetadata(metadata);
+    }
+
+    @Test
+    public void testMatchingExpressions() {
+        for (String expression : MATCHING_EXPRESSIONS) {
+            Assertions.assertTrue(evaluator.evaluate(expression,
+                                                     triggerEvent()),
+                                  expression);
+            Assertions.assertTrue(evaluator.compile(expression).evaluate(triggerEvent()),
+                                  expression);
+        }
+    }
+
+    @Test
+    public void testNonMatchingExpressions() {
+        Assertions.assertFalse(evaluator.evaluate("type == 'order.deleted'",
+                                                  triggerEvent()));
+        Assertions.assertFalse(evaluator.evaluate("metadata.priority",
+                                                  triggerEvent()));
+        Assertions.assertFalse(evaluator.evaluate("metadata.priority == 'high'",
+                                                  new TriggerEvent().withName("order-event")));
+    }
+
+    @Test
+    public void testSandboxedExpressions() {
+        for (String expression : SANDBOXED_EXPRESSIONS) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> evaluator.evaluate(expression,
+                                                             triggerEvent()),
+                                    expression);
+        }
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> evaluator.compile("type == "));
+    }
+
+    @Test
+    public void testStatementsAreRejected() {
+        for (String expression : STATEMENT_EXPRESSIONS) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> evaluator.compile(expression),
+                                    expression);
+        }
+    }
+
+    @Test
+    public void testExpressionsAreCached() {
+        JexlExpressionEvaluator cachingEvaluator = new JexlExpressionEvaluator();
+        for (int i = 0; i < 10; i++) {
+            cachingEvaluator.evaluate("type == 'order.created'",
+                                      triggerEvent());
+        }
+        Assertions.assertEquals(1,
+                                cachingEvaluator.getExpressionCache().getMisses());
+        Assertions.assertEquals(9,
+                                cachingEvaluator.getExpressionCache().getHits());
+    }
+
+    @Test
+    public void testDiscoveredByProvider() {
+        Assertions.assertTrue(ExpressionEvaluatorProvider.getInstance().get().get(JexlExpressionEvaluator.NAME) instanceof JexlExpressionEvaluator);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.filters.Filter;
+import org.serverless.workflow.api.graph.StateGraph;
+import org.serverless.workflow.api.graph.WorkflowGraph;
+import org.serverless.workflow.api.graph.WorkflowGraphCompiler;
+import org.serverless.workflow.api.jsonpath.CompiledFilter;
+import org.serverless.workflow.api.jsonpath.JsonPath;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.utils.TestUtils;
+
+public class JsonPathFilterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode json(String json) throws Exception {
+        return mapper.readTree(json.replace('\'',
+                                            '"'));
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        JsonNode data = json("{'order':{'id':'o-1','items':[{'sku':'a'},{'sku':'b'}],'customer-id':'c-1'}}");
+
+        Assertions.assertSame(data,
+                              JsonPath.compile("$").read(data));
+        Assertions.assertSame(data.get("order"),
+                              JsonPath.compile("$.order").read(data));
+        Assertions.assertEquals("b",
+                                JsonPath.compile("$.order.items[1].sku").read(data).asText());
+        Assertions.assertEquals("c-1",
+                                JsonPath.compile("order['customer-id']").read(data).asText());
+        Assertions.assertTrue(JsonPath.compile("$.order.items[2].sku").read(data).isMissingNode());
+        Assertions.assertTrue(JsonPath.compile("$.order.id.nested").read(data).isMissingNode());
+        Assertions.assertSame(JsonPath.ROOT,
+                              JsonPath.compile("$"));
+        Assertions.assertSame(JsonPath.compile("$.order"),
+                              JsonPath.compile("$.order"));
+    }
+
+    @Test
+    public void testWriteSharesUnchangedNodes() throws Exception {
+        String original = "{'order':{'id':'o-1','items':[{'sku':'a'}]},'customer':{'id':'c-1'}}";
+        JsonNode data = json(original);
+
+        JsonNode updated = JsonPath.compile("$.order.status").write(data,
+                                                                    TextNode.valueOf("paid"));
+
+        Assertions.assertEquals(json(original),
+                                data);
+        Assertions.assertEquals("paid",
+                                updated.get("order").get("status").asText());
+        Assertions.assertSame(data.get("customer"),
+                              updated.get("customer"));
+        Assertions.assertSame(data.get("order").get("items"),
+                              updated.get("order").get("items"));
+        Assertions.assertNotSame(data.get("order"),
+                                 updated.get("order"));
+    }
+
+    @Test
+    public void testWriteCreatesMissingNodes() throws Exception {
+        Assertions.assertEquals(json("{'a':1,'b':{'c':[null,{'d':true}]}}"),
+                                JsonPath.compile("$.b.c[1].d").write(json("{'a':1,'b':'replaced'}"),
+                                                                     json("true")));
+        Assertions.assertEquals(json("'whole'"),
+                                JsonPath.ROOT.write(json("{'a':1}"),
+                                                    json("'whole'")));
+    }
+
+    @Test
+    public void testWriteLimitsPadding() throws Exception {
+        JsonNode padded = JsonPath.compile("$.a[" + JsonPath.MAX_PADDING + "]").write(json("{}"),
+                                                                                     json("1"));
+        Assertions.assertEquals(JsonPath.MAX_PADDING + 1,
+                                padded.get("a").size());
+
+        JsonPath farPath = JsonPath.compile("$.a[2000000000]");
+        Assertions.assertTrue(farPath.read(padded).isMissingNode());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> farPath.write(padded,
+                                                    json("1")));
+    }
+
+    @Test
+    public void testInvalidPaths() {
+        for (String path : Arrays.asList("$.",
+                                         "$..a",
+                                         "$.a[*]",
+                                         "$.a[?(@.b)]",
+                                         "$.*")) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> JsonPath.compile(path),
+                                    path);
+        }
+    }
+
+    @Test
+    public void testApplyFilter() throws Exception {
+        JsonNode input = json("{'order':{'id':'o-1'},'customer':{'id':'c-1'}}");
+        CompiledFilter filter = CompiledFilter.compile(new Filter().withInputPath("$.order")
+                                                               .withResultPath("$.stock")
+                                                               .withOutputPath("$.stock.available"));
+
+        JsonNode output = filter.apply(input,
+                                       order -> {
+                                           Assertions.assertSame(input.get("order"),
+                                                                 order);
+                                           return mapper.createObjectNode().put("available",
+                                                                                true);
+                                       });
+        Assertions.assertEquals(json("true"),
+                                output);
+
+        JsonNode merged = filter.mergeResult(input,
+                                             json("{'available':false}"));
+        Assertions.assertSame(input.get("customer"),
+                              merged.get("customer"));
+        Assertions.assertTrue(filter.selectInput(json("{}")).isNull());
+    }
+
+    @Test
+    public void testIdentityFilter() throws Exception {
+        JsonNode input = json("{'a':1}");
+        JsonNode result = json("{'b':2}");
+
+        Assertions.assertSame(CompiledFilter.IDENTITY,
+                              CompiledFilter.compile(null));
+        Assertions.assertSame(CompiledFilter.IDENTITY,
+                              CompiledFilter.compile(new Filter().withOutputPath("$")));
+        Assertions.assertSame(result,
+                              CompiledFilter.IDENTITY.apply(input,
+                                                            in -> result));
+    }
+
+    @Test
+    public void testFiltersCachedOnGraph() throws Exception {
+        Workflow workflow = new JsonObjectMapper().readValue(new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json"))),
+                                                             Workflow.class);
+        WorkflowGraph graph = WorkflowGraphCompiler.compile(workflow);
+        StateGraph root = graph.getRoot();
+
+        OperationState operationState = (OperationState) root.getState(root.getStateId("operation-state"));
+        CompiledFilter actionFilter = graph.getFilter(operationState.getActions().get(0).getFilter());
+        Assertions.assertEquals("$.order",
+                                actionFilter.getInputPath().getPath());
+        Assertions.assertSame(actionFilter,
+                              graph.getFilter(operationState.getActions().get(0).getFilter()));
+
+        int parallelState = root.getStateId("parallel-state");
+        Assertions.assertEquals("$.result",
+                                root.getFilter(parallelState).getOutputPath().getPath());
+        Assertions.assertSame(root.getFilter(parallelState),
+                              graph.getFilter(root.getState(parallelState).getFilter()));
+        Assertions.assertSame(CompiledFilter.IDENTITY,
+                              root.getFilter(root.getStateId("switch-state")));
+    }
+
+    @Test
+    public void testInvalidFilterFailsCompilation() throws Exception {
+        Workflow workflow = new JsonObjectMapper().readValue(new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json"))),
+                                                             Workflow.class);
+        OperationState operationState = (OperationState) workflow.getStates().get(1);
+        operationState.getActions().get(0).getFilter().setInputPath("$..order");
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> WorkflowGraphCompiler.compile(workflow));
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.serverless.workflow.api;
 
+import java.nio.file.Files;
+
 import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -25,7 +27,9 @@ import org.serverless.workflow.api.mapper.JsonObjectMapper;
 import org.serverless.workflow.api.mapper.YamlObjectMapper;
 import org.serverless.workflow.api.states.DelayState;
 import org.serverless.workflow.api.states.SubflowState;
+import org.serverless.workflow.api.utils.TestUtils;
 import org.serverless.workflow.spi.WorkflowPropertySourceProvider;
+import org.skyscreamer.jsonassert.JSONAssert;
 
 public class ObjectMapperTest {
 
@@ -303,4 +307,21 @@ public class ObjectMapperTest {
         Assertions.assertEquals("test-wf",
                                 node.get("name").textValue());
     }
+
+    @Test
+    public void testWriteJsonStates() throws Exception {
+        String json = new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")),
+                                 "UTF-8");
+        JsonObjectMapper mapper = new JsonObjectMapper();
+
+        Workflow workflow = mapper.readValue(json,
+                                             Workflow.class);
+        String written = mapper.writeValueAsString(workflow);
+
+        JSONAssert.assertEquals(json,
+                                written,
+                                false);
+        Assertions.assertEquals(written,
+                                mapper.writeValueAsString(workflow));
+    }
 }
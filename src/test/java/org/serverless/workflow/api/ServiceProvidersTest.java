@@ -22,10 +22,14 @@ import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.expressions.JexlExpressionEvaluator;
+import org.serverless.workflow.api.expressions.SpelExpressionEvaluator;
+import org.serverless.workflow.api.ids.TimeOrderedIdGenerator;
 import org.serverless.workflow.api.testproviders.TestExpressionEvaluator;
 import org.serverless.workflow.api.testproviders.TestWorkflowManager;
 import org.serverless.workflow.api.testproviders.TestWorkflowValidator;
 import org.serverless.workflow.spi.ExpressionEvaluatorProvider;
+import org.serverless.workflow.spi.WorkflowIdGeneratorProvider;
 import org.serverless.workflow.spi.WorkflowManagerProvider;
 import org.serverless.workflow.spi.WorkflowValidatorProvider;
 
@@ -35,10 +39,12 @@ public class ServiceProvidersTest {
     public void testExpressionEvaluatorProvider() {
         Map<String, ExpressionEvaluator> evaluators = ExpressionEvaluatorProvider.getInstance().get();
         Assertions.assertNotNull(evaluators);
-        Assertions.assertEquals(1,
+        Assertions.assertEquals(3,
                                 evaluators.size());
         Assertions.assertNotNull(evaluators.get("test"));
         Assertions.assertTrue(evaluators.get("test") instanceof TestExpressionEvaluator);
+        Assertions.assertTrue(evaluators.get("jexl") instanceof JexlExpressionEvaluator);
+        Assertions.assertTrue(evaluators.get("spel") instanceof SpelExpressionEvaluator);
     }
 
     @Test
@@ -46,6 +52,8 @@ public class ServiceProvidersTest {
         WorkflowManager manager = WorkflowManagerProvider.getInstance().get();
         Assertions.assertNotNull(manager);
         Assertions.assertTrue(manager instanceof TestWorkflowManager);
+        Assertions.assertSame(WorkflowIdGeneratorProvider.getInstance().get(),
+                              manager.getIdGenerator());
     }
 
     @Test
@@ -54,4 +62,13 @@ public class ServiceProvidersTest {
         Assertions.assertNotNull(validator);
         Assertions.assertTrue(validator instanceof TestWorkflowValidator);
     }
+
+    @Test
+    public void testWorkflowIdGeneratorProvider() {
+        WorkflowIdGenerator idGenerator = WorkflowIdGeneratorProvider.getInstance().get();
+        Assertions.assertNotNull(idGenerator);
+        Assertions.assertTrue(idGenerator instanceof TimeOrderedIdGenerator);
+        Assertions.assertEquals(3,
+                                WorkflowIdGeneratorProvider.getInstance().getIdGenerators().size());
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.expressions.SpelExpressionEvaluator;
+import org.serverless.workflow.spi.ExpressionCache;
+import org.serverless.workflow.spi.ExpressionEvaluatorProvider;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+public class SpelExpressionEvaluatorTest {
+
+    private static final String[] MATCHING_EXPRESSIONS = {
+            "type == 'order.created'",
+            "name == 'order-event' and source == 'shop'",
+            "correlationToken == 'order-1'",
+            "metadata['priority'] == 'high'",
+            "metadata['missing'] == null",
+            "type matches 'order\\..*'",
+            "!(type == 'order.deleted')"
+    };
+
+    private static final String[] SANDBOXED_EXPRESSIONS = {
+            "T(java.lang.Runtime).getRuntime() != null",
+            "new java.lang.StringBuilder() != null",
+            "type.getClass() != null",
+            "type.startsWith('order')",
+            "@someBean != null",
+            "(name = 'changed') != null"
+    };
+
+    private static TriggerEvent triggerEvent() {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("priority",
+                     "high");
+        return new TriggerEvent().withName("order-event")
+                .withSource("shop")
+                .withType("order.created")
+                .withCorrelationToken("order-1")
+                .withMetadata(metadata);
+    }
+
+    private static SpelExpressionEvaluator evaluator(SpelCompilerMode compilerMode) {
+        return new SpelExpressionEvaluator(compilerMode,
+                                           new ExpressionCache<>(16,
+                                                                 1024));
+    }
+
+    @Test
+    public void testMatchingExpressions() {
+        for (SpelCompilerMode compilerMode : SpelCompilerMode.values()) {
+            SpelExpressionEvaluator evaluator = evaluator(compilerMode);
+            for (String expression : MATCHING_EXPRESSIONS) {
+                // evaluate twice so that immediate and mixed modes run the compiled expression
+                Assertions.assertTrue(evaluator.evaluate(expression,
+                                                         triggerEvent()),
+                                      compilerMode + ": " + expression);
+                Assertions.assertTrue(evaluator.compile(expression).evaluate(triggerEvent()),
+                                      compilerMode + ": " + expression);
+            }
+        }
+    }
+
+    @Test
+    public void testExpressionsAreCompiled() {
+        SpelExpressionEvaluator evaluator = evaluator(SpelCompilerMode.IMMEDIATE);
+        String expression = "type == 'order.created' and metadata['priority'] == 'high'";
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(evaluator.evaluate(expression,
+                                                     triggerEvent()));
+        }
+        SpelExpression parsedExpression = (SpelExpression) evaluator.getExpressionCache().get(expression,
+                                                                                              e -> null);
+        Assertions.assertTrue(parsedExpression.compileExpression());
+        Assertions.assertEquals(1,
+                                evaluator.getExpressionCache().getMisses());
+    }
+
+    @Test
+    public void testNonMatchingExpressions() {
+        SpelExpressionEvaluator evaluator = evaluator(SpelCompilerMode.MIXED);
+        Assertions.assertFalse(evaluator.evaluate("type == 'order.deleted'",
+                                                  triggerEvent()));
+        Assertions.assertFalse(evaluator.evaluate("metadata['priority']",
+                                                  triggerEvent()));
+        Assertions.assertFalse(evaluator.evaluate("metadata != null and metadata['priority'] == 'high'",
+                                                  new TriggerEvent().withName("order-event")));
+    }
+
+    @Test
+    public void testSandboxedExpressions() {
+        SpelExpressionEvaluator evaluator = evaluator(SpelCompilerMode.OFF);
+        for (String expression : SANDBOXED_EXPRESSIONS) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> evaluator.evaluate(expression,
+                                                             triggerEvent()),
+                                    expression);
+        }
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> evaluator(SpelCompilerMode.MIXED).compile("type == "));
+    }
+
+    @Test
+    public void testDiscoveredByProvider() {
+        ExpressionEvaluator evaluator = ExpressionEvaluatorProvider.getInstance().get().get(SpelExpressionEvaluator.NAME);
+        Assertions.assertTrue(evaluator instanceof SpelExpressionEvaluator);
+        Assertions.assertEquals(SpelCompilerMode.MIXED,
+                                ((SpelExpressionEvaluator) evaluator).getCompilerMode());
+    }
+}
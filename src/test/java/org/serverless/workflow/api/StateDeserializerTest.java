@@ -0,0 +1,144 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.deserializers.StateDeserializer;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.mapper.YamlObjectMapper;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.EventState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.states.ParallelState;
+import org.serverless.workflow.api.states.SubflowState;
+import org.serverless.workflow.api.states.SwitchState;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.serverless.workflow.spi.WorkflowPropertySourceProvider;
+
+public class StateDeserializerTest {
+
+    private static final String testTypeNotFirstPropertySource = "{\n" +
+            "  \"name\": \"test-wf\",\n" +
+            "  \"starts-at\": \"delay-state\",\n" +
+            "  \"states\": [\n" +
+            "    {\n" +
+            "      \"name\": \"delaystate.name\",\n" +
+            "      \"time-delay\": \"delaystate.timedelay\",\n" +
+            "      \"end\": true,\n" +
+            "      \"type\": \"delaystate.type\"\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String testMissingType = "{\n" +
+            "  \"name\": \"test-wf\",\n" +
+            "  \"starts-at\": \"delay-state\",\n" +
+            "  \"states\": [\n" +
+            "    {\n" +
+            "      \"name\": \"delay-state\",\n" +
+            "      \"time-delay\": \"PT5S\"\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    @Test
+    public void testStreamingMatchesTree() throws Exception {
+        String json = new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")),
+                                 "UTF-8");
+
+        JsonObjectMapper streamingMapper = new JsonObjectMapper();
+        JsonObjectMapper treeMapper = treeMapper(new JsonObjectMapper());
+
+        Workflow streamed = streamingMapper.readValue(json,
+                                                      Workflow.class);
+        Workflow treed = treeMapper.readValue(json,
+                                              Workflow.class);
+
+        Assertions.assertEquals(6,
+                                streamed.getStates().size());
+        Assertions.assertTrue(streamed.getStates().get(0) instanceof EventState);
+        Assertions.assertTrue(streamed.getStates().get(1) instanceof OperationState);
+        Assertions.assertTrue(streamed.getStates().get(2) instanceof SwitchState);
+        Assertions.assertTrue(streamed.getStates().get(3) instanceof ParallelState);
+        Assertions.assertTrue(streamed.getStates().get(4) instanceof SubflowState);
+        Assertions.assertTrue(streamed.getStates().get(5) instanceof DelayState);
+
+        ParallelState parallelState = (ParallelState) streamed.getStates().get(3);
+        Assertions.assertTrue(parallelState.getBranches().get(0).getStates().get(0) instanceof DelayState);
+
+        Assertions.assertEquals(treeMapper.writeValueAsString(treed),
+                                streamingMapper.writeValueAsString(streamed));
+    }
+
+    @Test
+    public void testStreamingMatchesTreeYaml() throws Exception {
+        String json = new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")),
+                                 "UTF-8");
+        String yaml = new YamlObjectMapper().writeValueAsString(new JsonObjectMapper().readTree(json));
+
+        YamlObjectMapper streamingMapper = new YamlObjectMapper();
+        YamlObjectMapper treeMapper = treeMapper(new YamlObjectMapper());
+
+        Assertions.assertEquals(treeMapper.writeValueAsString(treeMapper.readValue(yaml,
+                                                                                   Workflow.class)),
+                                streamingMapper.writeValueAsString(streamingMapper.readValue(yaml,
+                                                                                             Workflow.class)));
+    }
+
+    @Test
+    public void testStreamingTypeNotFirstPropertySource() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper(WorkflowPropertySourceProvider.getInstance().get());
+
+        Workflow workflow = mapper.readValue(testTypeNotFirstPropertySource,
+                                             Workflow.class);
+
+        Assertions.assertEquals(1,
+                                workflow.getStates().size());
+        Assertions.assertTrue(workflow.getStates().get(0) instanceof DelayState);
+        DelayState delayState = (DelayState) workflow.getStates().get(0);
+        Assertions.assertEquals("delay-state",
+                                delayState.getName());
+        Assertions.assertEquals("PT5S",
+                                delayState.getTimeDelay());
+        Assertions.assertTrue(delayState.isEnd());
+    }
+
+    @Test
+    public void testStreamingMissingType() {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+
+        Assertions.assertThrows(Exception.class,
+                                () -> mapper.readValue(testMissingType,
+                                                       Workflow.class));
+    }
+
+    private static <T extends com.fasterxml.jackson.databind.ObjectMapper> T treeMapper(T mapper) {
+        SimpleModule treeModule = new SimpleModule("tree-state-module");
+        treeModule.addDeserializer(State.class,
+                                   new StateDeserializer(null,
+                                                         false));
+        mapper.registerModule(treeModule);
+        return mapper;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.actions.Action;
+import org.serverless.workflow.api.actions.Retry;
+import org.serverless.workflow.api.choices.DefaultChoice;
+import org.serverless.workflow.api.choices.SingleChoice;
+import org.serverless.workflow.api.functions.Function;
+import org.serverless.workflow.api.graph.StateGraph;
+import org.serverless.workflow.api.graph.StateGraphAnalyzer;
+import org.serverless.workflow.api.graph.WorkflowGraphCompiler;
+import org.serverless.workflow.api.interfaces.Choice;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.states.SwitchState;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.serverless.workflow.api.validation.ValidationError;
+
+public class StateGraphAnalyzerTest {
+
+    @Test
+    public void testValidWorkflow() throws Exception {
+        Workflow workflow = new JsonObjectMapper().readValue(new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json"))),
+                                                             Workflow.class);
+
+        Assertions.assertTrue(StateGraphAnalyzer.validate(WorkflowGraphCompiler.compile(workflow)).isEmpty());
+    }
+
+    @Test
+    public void testUnreachableState() {
+        Workflow workflow = workflow(operation("a",
+                                               "c"),
+                                     operation("b",
+                                               "c"),
+                                     end("c"));
+
+        assertSingleError(workflow,
+                          "state 'b' is not reachable");
+    }
+
+    @Test
+    public void testStateCannotReachEnd() {
+        Workflow workflow = workflow(choice("a",
+                                            "c",
+                                            "b"),
+                                     delay("b",
+                                           "b"),
+                                     end("c"));
+
+        StateGraph graph = WorkflowGraphCompiler.compile(workflow).getRoot();
+        BitSet reachingEnd = StateGraphAnalyzer.getStatesReachingEnd(graph);
+        Assertions.assertTrue(reachingEnd.get(0));
+        Assertions.assertFalse(reachingEnd.get(1));
+
+        assertSingleError(workflow,
+                          "state 'b' cannot reach an end state");
+    }
+
+    @Test
+    public void testBusyLoop() {
+        Workflow workflow = workflow(operation("a",
+                                               "b"),
+                                     choice("b",
+                                            "a",
+                                            "c"),
+                                     end("c"));
+
+        assertSingleError(workflow,
+                          "states 'a', 'b' form a loop");
+    }
+
+    @Test
+    public void testLoopWithDelay() {
+        Workflow workflow = workflow(operation("a",
+                                               "b"),
+                                     choice("b",
+                                            "d",
+                                            "c"),
+                                     end("c"),
+                                     delay("d",
+                                           "a"));
+
+        Assertions.assertTrue(StateGraphAnalyzer.validate(WorkflowGraphCompiler.compile(workflow)).isEmpty());
+    }
+
+    @Test
+    public void testBusyLoopBesideDelay() {
+        // s, a and d are one component, but s -> a -> s never waits
+        Workflow workflow = workflow(choices("s",
+                                             "c",
+                                             "a",
+                                             "d"),
+                                     operation("a",
+                                               "s"),
+                                     delay("d",
+                                           "s"),
+                                     end("c"));
+
+        assertSingleError(workflow,
+                          "states 's', 'a' form a loop");
+    }
+
+    @Test
+    public void testRetryIsNotBusyLoop() {
+        OperationState operation = operation("a",
+                                             "b");
+        operation.setActions(Arrays.asList(new Action().withFunction(new Function().withName("f"))
+                                                   .withRetry(new Retry().withNextState("a"))));
+        Workflow workflow = workflow(operation,
+                                     end("b"));
+
+        Assertions.assertTrue(StateGraphAnalyzer.validate(WorkflowGraphCompiler.compile(workflow)).isEmpty());
+    }
+
+    @Test
+    public void testLongChain() {
+        int stateCount = 100000;
+        State[] states = new State[stateCount];
+        for (int i = 0; i < stateCount - 1; i++) {
+            states[i] = operation("s" + i,
+                                  "s" + (i + 1));
+        }
+        states[stateCount - 1] = choice("s" + (stateCount - 1),
+                                        "s0",
+                                        "s0");
+        StateGraph graph = WorkflowGraphCompiler.compile(workflow(states)).getRoot();
+
+        List<int[]> busyLoops = StateGraphAnalyzer.getBusyLoops(graph,
+                                                                StateGraphAnalyzer.getReachableStates(graph));
+        Assertions.assertEquals(1,
+                                busyLoops.size());
+        Assertions.assertEquals(stateCount,
+                                busyLoops.get(0).length);
+    }
+
+    @Test
+    public void testStatesWithoutTypeField() {
+        // the state type comes from the state class, models built in code need not set it
+        StateGraph graph = WorkflowGraphCompiler.compile(workflow(new OperationState().withNextState("wait")
+                                                                          .withName("work"),
+                                                                  new DelayState().withTimeDelay("PT1S")
+                                                                          .withNextState("work")
+                                                                          .withName("wait"))).getRoot();
+
+        Assertions.assertEquals(DefaultState.Type.DELAY,
+                                graph.getStateType(graph.getStateId("wait")));
+        Assertions.assertTrue(StateGraphAnalyzer.getBusyLoops(graph,
+                                                              StateGraphAnalyzer.getReachableStates(graph)).isEmpty());
+    }
+
+    private static void assertSingleError(Workflow workflow,
+                                          String message) {
+        List<ValidationError> validationErrors = StateGraphAnalyzer.validate(WorkflowGraphCompiler.compile(workflow));
+        Assertions.assertEquals(1,
+                                validationErrors.size(),
+                                validationErrors.toString());
+        Assertions.assertEquals(ValidationError.WORKFLOW_VALIDATION,
+                                validationErrors.get(0).getType());
+        Assertions.assertTrue(validationErrors.get(0).getMessage().contains(message),
+                              validationErrors.get(0).getMessage());
+    }
+
+    private static Workflow workflow(State... states) {
+        return new Workflow().withName("analyzer-wf")
+                .withStartsAt(((DefaultState) states[0]).getName())
+                .withStates(Arrays.asList(states));
+    }
+
+    private static OperationState operation(String name,
+                                            String next) {
+        return new OperationState().withNextState(next)
+                .withName(name)
+                .withType(DefaultState.Type.OPERATION);
+    }
+
+    private static DelayState delay(String name,
+                                    String next) {
+        return new DelayState().withTimeDelay("PT1S")
+                .withNextState(next)
+                .withName(name)
+                .withType(DefaultState.Type.DELAY);
+    }
+
+    private static DelayState end(String name) {
+        return new DelayState().withTimeDelay("PT1S")
+                .withName(name)
+                .withType(DefaultState.Type.DELAY)
+                .withEnd(true);
+    }
+
+    private static SwitchState choice(String name,
+                                      String choiceNext,
+                                      String defaultNext) {
+        return choices(name,
+                       defaultNext,
+                       choiceNext);
+    }
+
+    private static SwitchState choices(String name,
+                                       String defaultNext,
+                                       String... choiceNexts) {
+        List<Choice> choices = new ArrayList<>();
+        for (int i = 0; i < choiceNexts.length; i++) {
+            choices.add(new SingleChoice().withNextState(choiceNexts[i])
+                                .withPath("$.value")
+                                .withValue(String.valueOf(i))
+                                .withOperator(DefaultChoice.Operator.EQUALS));
+        }
+        return new SwitchState().withChoices(choices)
+                .withDefault(defaultNext)
+                .withName(name)
+                .withType(DefaultState.Type.SWITCH);
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.choices.AndChoice;
+import org.serverless.workflow.api.choices.DefaultChoice;
+import org.serverless.workflow.api.choices.SingleChoice;
+import org.serverless.workflow.api.decisions.SwitchCompiler;
+import org.serverless.workflow.api.decisions.SwitchProgram;
+import org.serverless.workflow.api.graph.StateGraph;
+import org.serverless.workflow.api.graph.WorkflowGraphCompiler;
+import org.serverless.workflow.api.interfaces.Choice;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.SwitchState;
+import org.serverless.workflow.api.utils.TestUtils;
+
+public class SwitchCompilerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode json(String json) throws Exception {
+        return mapper.readTree(json.replace('\'',
+                                            '"'));
+    }
+
+    private static SingleChoice choice(String path,
+                                       DefaultChoice.Operator operator,
+                                       String value,
+                                       String nextState) {
+        return new SingleChoice().withPath(path)
+                .withOperator(operator)
+                .withValue(value)
+                .withNextState(nextState);
+    }
+
+    private static SwitchProgram program(Choice... choices) {
+        return SwitchCompiler.compile(Arrays.asList(choices),
+                                      "default-state");
+    }
+
+    @Test
+    public void testAllStatesSwitch() throws Exception {
+        Workflow workflow = new JsonObjectMapper().readValue(new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json"))),
+                                                             Workflow.class);
+        StateGraph root = WorkflowGraphCompiler.compile(workflow).getRoot();
+        int switchState = root.getStateId("switch-state");
+        SwitchProgram program = root.getSwitchProgram(switchState);
+
+        Assertions.assertNotNull(program);
+        Assertions.assertNull(root.getSwitchProgram(root.getStateId("delay-state")));
+        Assertions.assertEquals(3,
+                                program.getPathCount());
+        Assertions.assertEquals("delay-state",
+                                program.getDefault());
+
+        String[][] cases = {
+                {"{'stock':{'available':true},'order':{'total':500}}", "0", "parallel-state"},
+                {"{'stock':{'available':false},'order':{'total':500}}", "1", "subflow-state"},
+                {"{'order':{'total':1000}}", "1", "subflow-state"},
+                {"{'order':{'total':1000.5,'priority':'high'}}", "2", "delay-state"},
+                {"{'order':{'total':-5}}", "3", "delay-state"},
+                {"{'order':{'total':5000,'priority':'low'}}", "-1", "delay-state"}
+        };
+        for (String[] c : cases) {
+            JsonNode input = json(c[0]);
+            Assertions.assertEquals(Integer.parseInt(c[1]),
+                                    program.select(input),
+                                    c[0]);
+            Assertions.assertEquals(c[2],
+                                    program.getNextState(input),
+                                    c[0]);
+            Assertions.assertEquals(root.getStateId(c[2]),
+                                    root.getSwitchTarget(switchState,
+                                                         input),
+                                    c[0]);
+        }
+        Assertions.assertEquals(StateGraph.NONE,
+                                root.getSwitchTarget(root.getStateId("delay-state"),
+                                                     json("{}")));
+    }
+
+    @Test
+    public void testTypedConstants() throws Exception {
+        Object[][] cases = {
+                {DefaultChoice.Operator.EQUALS, "10", "{'v':10}", true},
+                {DefaultChoice.Operator.EQUALS, "10", "{'v':10.0}", true},
+                {DefaultChoice.Operator.EQUALS, "1e1", "{'v':10}", true},
+                {DefaultChoice.Operator.EQUALS, "10", "{'v':'10'}", true},
+                {DefaultChoice.Operator.EQUALS, "10", "{'v':'10.0'}", false},
+                {DefaultChoice.Operator.EQUALS, "9223372036854775807", "{'v':9223372036854775806}", false},
+                {DefaultChoice.Operator.EQUALS, "true", "{'v':true}", true},
+                {DefaultChoice.Operator.EQUALS, "true", "{'v':false}", false},
+                {DefaultChoice.Operator.EQUALS, "abc", "{'v':5}", false},
+                {DefaultChoice.Operator.EQUALS, "abc", "{}", false},
+                {DefaultChoice.Operator.EQUALS, "null", "{'v':null}", false},
+                {DefaultChoice.Operator.LESS_THAN, "10", "{'v':9.5}", true},
+                {DefaultChoice.Operator.LESS_THAN, "10", "{'v':10}", false},
+                {DefaultChoice.Operator.LESS_THAN_EQUALS, "10", "{'v':10}", true},
+                {DefaultChoice.Operator.GREATER_THAN, "-1.5", "{'v':-1}", true},
+                {DefaultChoice.Operator.GREATER_THAN, "10", "{'v':10}", false},
+                {DefaultChoice.Operator.GREATER_THAN_EQUALS, "10", "{'v':10}", true},
+                {DefaultChoice.Operator.GREATER_THAN, "b", "{'v':'c'}", true},
+                {DefaultChoice.Operator.LESS_THAN, "b", "{'v':'a'}", true},
+                {DefaultChoice.Operator.LESS_THAN, "b", "{'v':1}", false},
+                {DefaultChoice.Operator.LESS_THAN, "10", "{'v':'1'}", true},
+                {DefaultChoice.Operator.GREATER_THAN, "0", "{'v':true}", false},
+                {DefaultChoice.Operator.GREATER_THAN, "0", "{}", false}
+        };
+        for (Object[] c : cases) {
+            SwitchProgram program = program(choice("$.v",
+                                                   (DefaultChoice.Operator) c[0],
+                                                   (String) c[1],
+                                                   "next-state"));
+            Assertions.assertEquals(c[3],
+                                    program.select(json((String) c[2])) == 0,
+                                    Arrays.toString(c));
+        }
+    }
+
+    @Test
+    public void testFirstMatchWins() throws Exception {
+        SwitchProgram program = program(choice("$.a",
+                                               DefaultChoice.Operator.GREATER_THAN,
+                                               "100",
+                                               "large"),
+                                         choice("$.a",
+                                                DefaultChoice.Operator.GREATER_THAN,
+                                                "10",
+                                                "medium"),
+                                         new AndChoice(Arrays.asList(new DefaultChoice("$.a",
+                                                                                       "0",
+                                                                                       DefaultChoice.Operator.GREATER_THAN),
+                                                                     new DefaultChoice("$.b",
+                                                                                       "x",
+                                                                                       DefaultChoice.Operator.EQUALS)))
+                                                 .withNextState("small-x"),
+                                         choice("$.a",
+                                                DefaultChoice.Operator.GREATER_THAN,
+                                                "0",
+                                                "small"));
+
+        Assertions.assertEquals(2,
+                                program.getPathCount());
+        Assertions.assertEquals("large",
+                                program.getNextState(json("{'a':500}")));
+        Assertions.assertEquals("medium",
+                                program.getNextState(json("{'a':50}")));
+        Assertions.assertEquals("small-x",
+                                program.getNextState(json("{'a':5,'b':'x'}")));
+        Assertions.assertEquals("small",
+                                program.getNextState(json("{'a':5,'b':'y'}")));
+        Assertions.assertEquals("default-state",
+                                program.getNextState(json("{'a':0,'b':'x'}")));
+    }
+
+    @Test
+    public void testEqualsIndex() throws Exception {
+        List<Choice> choices = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            choices.add(choice("$.code",
+                               DefaultChoice.Operator.EQUALS,
+                               "code-" + i,
+                               "state-" + i));
+        }
+        choices.add(choice("$.code",
+                           DefaultChoice.Operator.EQUALS,
+                           "code-7",
+                           "shadowed"));
+        SwitchProgram program = SwitchCompiler.compile(choices,
+                                                       "default-state");
+
+        Assertions.assertEquals("state-7",
+                                program.getNextState(json("{'code':'code-7'}")));
+        Assertions.assertEquals(999,
+                                program.select(json("{'code':'code-999'}")));
+        Assertions.assertEquals("default-state",
+                                program.getNextState(json("{'code':'code-1000'}")));
+        Assertions.assertEquals("default-state",
+                                program.getNextState(json("{}")));
+    }
+
+    @Test
+    public void testGraphSwitchTargets() throws Exception {
+        List<Choice> choices = new ArrayList<>();
+        List<State> states = new ArrayList<>();
+        states.add(new SwitchState().withChoices(choices)
+                           .withDefault("state-0")
+                           .withName("switch-state")
+                           .withType(DefaultState.Type.SWITCH));
+        for (int i = 0; i < 1000; i++) {
+            choices.add(choice("$.code",
+                               DefaultChoice.Operator.EQUALS,
+                               "code-" + i,
+                               "state-" + (i % 10)));
+        }
+        for (int i = 0; i < 10; i++) {
+            states.add(new DelayState().withTimeDelay("PT1S")
+                               .withName("state-" + i)
+                               .withType(DefaultState.Type.DELAY)
+                               .withEnd(true));
+        }
+        StateGraph root = WorkflowGraphCompiler.compile(new Workflow().withName("switch-wf")
+                                                                .withStartsAt("switch-state")
+                                                                .withStates(states)).getRoot();
+
+        for (int i = 0; i < 1000; i += 37) {
+            Assertions.assertEquals(root.getStateId("state-" + (i % 10)),
+                                    root.getSwitchTarget(0,
+                                                         json("{'code':'code-" + i + "'}")));
+        }
+        Assertions.assertEquals(root.getStateId("state-0"),
+                                root.getSwitchTarget(0,
+                                                     json("{'code':'code-1000'}")));
+    }
+
+    @Test
+    public void testRangeIndex() throws Exception {
+        List<Choice> choices = new ArrayList<>();
+        for (int i = 10; i > 0; i--) {
+            choices.add(choice("$.score",
+                               DefaultChoice.Operator.GREATER_THAN_EQUALS,
+                               String.valueOf(i * 10),
+                               "band-" + i));
+        }
+        SwitchProgram program = SwitchCompiler.compile(choices,
+                                                       "band-0");
+
+        Assertions.assertEquals("band-10",
+                                program.getNextState(json("{'score':150}")));
+        Assertions.assertEquals("band-10",
+                                program.getNextState(json("{'score':100}")));
+        Assertions.assertEquals("band-9",
+                                program.getNextState(json("{'score':99.9}")));
+        Assertions.assertEquals("band-1",
+                                program.getNextState(json("{'score':10}")));
+        Assertions.assertEquals("band-0",
+                                program.getNextState(json("{'score':9}")));
+        Assertions.assertEquals("band-0",
+                                program.getNextState(json("{'score':true}")));
+    }
+
+    @Test
+    public void testIndexKeepsFirstMatch() throws Exception {
+        DefaultChoice.Operator[] operators = DefaultChoice.Operator.values();
+        String[] values = {"0", "-0.0", "1", "1.0", "2.5", "10", "1e1", "-3", "true", "false", "abc", "10a",
+                "9007199254740993", "9.007199254740993E15", "1e300"};
+        String[] inputs = {"0", "-0.0", "1", "1.0", "2.5", "2.50", "10", "-3", "-2.9", "5", "true", "false", "null",
+                "'abc'", "'10'", "'1'", "'2.5'", "{}", "[]", "9007199254740992", "9007199254740993",
+                "9007199254740994", "9007199254740993.0", "1e300", "100000000000000000000000", "-1e400"};
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<Choice> choices = new ArrayList<>();
+            int runs = 1 + random.nextInt(4);
+            for (int run = 0; run < runs; run++) {
+                String path = random.nextInt(4) == 0 ? "$.b" : "$.a";
+                boolean equals = random.nextBoolean();
+                int length = 1 + random.nextInt(3 * SwitchCompiler.MIN_INDEXED_RUN);
+                for (int i = 0; i < length; i++) {
+                    // operators after EQUALS are the range comparisons
+                    DefaultChoice.Operator operator = equals ? DefaultChoice.Operator.EQUALS
+                            : operators[1 + random.nextInt(operators.length - 1)];
+                    choices.add(choice(random.nextInt(10) == 0 ? "$.b" : path,
+                                       operator,
+                                       values[random.nextInt(values.length)],
+                                       "state-" + choices.size()));
+                }
+            }
+            SwitchProgram indexed = SwitchCompiler.compile(choices,
+                                                           "default-state");
+            SwitchProgram linear = SwitchCompiler.compile(choices,
+                                                          "default-state",
+                                                          false);
+            for (String a : inputs) {
+                for (String b : new String[]{"1", "'abc'"}) {
+                    JsonNode input = json("{'a':" + a + ",'b':" + b + "}");
+                    Assertions.assertEquals(linear.select(input),
+                                            indexed.select(input),
+                                            "round " + round + ": " + input);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChoicesWithoutNextStateAreSkipped() throws Exception {
+        SwitchProgram program = program(new DefaultChoice("$.a",
+                                                          "1",
+                                                          DefaultChoice.Operator.EQUALS),
+                                         choice("$.a",
+                                                DefaultChoice.Operator.EQUALS,
+                                                "1",
+                                                "one"));
+
+        Assertions.assertEquals(1,
+                                program.select(json("{'a':1}")));
+        Assertions.assertEquals(SwitchProgram.NO_MATCH,
+                                SwitchCompiler.compile(Collections.emptyList(),
+                                                       null).select(json("{}")));
+    }
+
+    @Test
+    public void testInvalidChoices() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> program(choice("$.a",
+                                                     null,
+                                                     "1",
+                                                     "next")));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> program(choice(null,
+                                                     DefaultChoice.Operator.EQUALS,
+                                                     "1",
+                                                     "next")));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> program(choice("$.a[",
+                                                     DefaultChoice.Operator.EQUALS,
+                                                     "1",
+                                                     "next")));
+    }
+}
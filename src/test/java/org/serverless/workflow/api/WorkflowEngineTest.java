@@ -0,0 +1,384 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.engine.ActionHandler;
+import org.serverless.workflow.api.engine.EngineExecutors;
+import org.serverless.workflow.api.engine.WorkflowEngine;
+import org.serverless.workflow.api.engine.WorkflowExecutionException;
+import org.serverless.workflow.api.engine.WorkflowInstance;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.states.DelayState;
+
+public class WorkflowEngineTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+
+    private final ActionHandler actionHandler = (action, input) -> {
+        switch (action.getFunction().getName()) {
+            case "price":
+                return CompletableFuture.supplyAsync(() -> IntNode.valueOf(input.get("quantity").intValue() * 30));
+            case "approve":
+                return CompletableFuture.completedFuture(TextNode.valueOf("approved"));
+            case "notify":
+                return CompletableFuture.completedFuture(BooleanNode.TRUE);
+            case "increment":
+                return CompletableFuture.completedFuture(IntNode.valueOf(input.intValue() + 1));
+            case "flaky":
+                if (flakyCalls.incrementAndGet() < 3) {
+                    throw new IllegalStateException("flaky failure");
+                }
+                return CompletableFuture.completedFuture(TextNode.valueOf("done"));
+            case "slow":
+                return new CompletableFuture<>();
+            default:
+                CompletableFuture<JsonNode> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException(action.getFunction().getName() + " failed"));
+                return failed;
+        }
+    };
+
+    private JsonNode json(String json) throws Exception {
+        return mapper.readTree(json.replace('\'',
+                                            '"'));
+    }
+
+    private Workflow workflow(String json) throws Exception {
+        return new JsonObjectMapper().readValue(json.replace('\'',
+                                                             '"'),
+                                                Workflow.class);
+    }
+
+    private static JsonNode result(WorkflowInstance instance) throws Exception {
+        return instance.getResult().get(5,
+                                        TimeUnit.SECONDS);
+    }
+
+    private static Workflow.ExecStatus failure(WorkflowInstance instance) throws Exception {
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                                                       () -> result(instance));
+        Assertions.assertTrue(e.getCause() instanceof WorkflowExecutionException);
+        Assertions.assertEquals(instance.getExecStatus(),
+                                ((WorkflowExecutionException) e.getCause()).getExecStatus());
+        return instance.getExecStatus();
+    }
+
+    private static void awaitWaiting(WorkflowEngine engine,
+                                     int count) throws InterruptedException {
+        for (int i = 0; i < 500 && engine.getWaitingCount() != count; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(count,
+                                engine.getWaitingCount());
+    }
+
+    @Test
+    public void testOperationSwitchAndDelay() throws Exception {
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler)) {
+            engine.deploy(workflow("{'id':'orders','name':'orders','starts-at':'price','states':["
+                                           + "{'name':'price','type':'OPERATION','action-mode':'SEQUENTIAL','next-state':'route','actions':["
+                                           + "{'function':{'name':'price','type':'test'},'filter':{'input-path':'$.order','result-path':'$.order.total'}}]},"
+                                           + "{'name':'route','type':'SWITCH','default':'small','choices':["
+                                           + "{'path':'$.order.total','value':'100','operator':'GreaterThan','next-state':'large'}]},"
+                                           + "{'name':'large','type':'OPERATION','action-mode':'PARALLEL','end':true,'actions':["
+                                           + "{'function':{'name':'approve','type':'test'},'filter':{'result-path':'$.approval'}},"
+                                           + "{'function':{'name':'notify','type':'test'},'filter':{'result-path':'$.notified'}}]},"
+                                           + "{'name':'small','type':'DELAY','time-delay':'PT0.01S','end':true}]}"));
+
+            WorkflowInstance large = engine.start("orders",
+                                                  json("{'order':{'quantity':5}}"));
+            Assertions.assertEquals(json("{'order':{'quantity':5,'total':150},'approval':'approved','notified':true}"),
+                                    result(large));
+            Assertions.assertEquals(Workflow.ExecStatus.SUCCESS,
+                                    large.getExecStatus());
+            Assertions.assertEquals("large",
+                                    large.getCurrentState());
+
+            WorkflowInstance small = engine.start("orders",
+                                                  json("{'order':{'quantity':1}}"));
+            Assertions.assertEquals(json("{'order':{'quantity':1,'total':30}}"),
+                                    result(small));
+            Assertions.assertEquals("small",
+                                    small.getCurrentState());
+            Assertions.assertNotEquals(large.getId(),
+                                       small.getId());
+        }
+    }
+
+    @Test
+    public void testParallelAndSubflow() throws Exception {
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler)) {
+            engine.deploy(workflow("{'id':'child','name':'child','version':'2','starts-at':'increment','states':["
+                                           + "{'name':'increment','type':'OPERATION','action-mode':'SEQUENTIAL','end':true,'actions':["
+                                           + "{'function':{'name':'increment','type':'test'},'filter':{'input-path':'$.count','result-path':'$.count'}}]}]}"));
+            engine.deploy(workflow("{'id':'parent','name':'parent','starts-at':'fork','states':["
+                                           + "{'name':'fork','type':'PARALLEL','next-state':'call','filter':{'result-path':'$.branches'},'branches':["
+                                           + "{'name':'one','starts-at':'one-increment','wait-for-completion':true,'states':["
+                                           + "{'name':'one-increment','type':'OPERATION','action-mode':'SEQUENTIAL','end':true,'actions':["
+                                           + "{'function':{'name':'increment','type':'test'},'filter':{'input-path':'$.count','result-path':'$.count'}}]}]},"
+                                           + "{'name':'two','starts-at':'two-delay','wait-for-completion':true,'states':["
+                                           + "{'name':'two-delay','type':'DELAY','time-delay':'PT0.01S','end':true}]},"
+                                           + "{'name':'detached','starts-at':'detached-delay','states':["
+                                           + "{'name':'detached-delay','type':'DELAY','time-delay':'PT1H','end':true}]}]},"
+                                           + "{'name':'call','type':'SUBFLOW','workflow-id':'child','workflow-version':'2','wait-for-completion':true,"
+                                           + "'filter':{'input-path':'$.branches[0]','result-path':'$.child'},'end':true}]}"));
+
+            WorkflowInstance instance = engine.start("parent",
+                                                     json("{'count':1}"));
+            Assertions.assertEquals(json("{'count':1,'branches':[{'count':2},{'count':1}],'child':{'count':3}}"),
+                                    result(instance));
+            Assertions.assertEquals(Workflow.ExecStatus.SUCCESS,
+                                    instance.getExecStatus());
+        }
+    }
+
+    @Test
+    public void testEventState() throws Exception {
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler)) {
+            engine.deploy(workflow("{'id':'payments','name':'payments','starts-at':'await-payment',"
+                                           + "'trigger-defs':[{'name':'payment','source':'payments','type':'paid','correlation-token':'$.order.id'},"
+                                           + "{'name':'refund','source':'payments','type':'refunded','correlation-token':'$.order.id'}],"
+                                           + "'states':[{'name':'await-payment','type':'EVENT','events':["
+                                           + "{'event-expression':'name == \\'refund\\'','timeout':'PT1M','next-state':'refunded','actions':[]},"
+                                           + "{'event-expression':'name == \\'payment\\'','timeout':'PT1M','next-state':'paid',"
+                                           + "'filter':{'input-path':'$.amount','result-path':'$.paid'},'action-mode':'SEQUENTIAL','actions':["
+                                           + "{'function':{'name':'approve','type':'test'},'filter':{'result-path':'$.approval'}}]}]},"
+                                           + "{'name':'paid','type':'DELAY','time-delay':'PT0S','end':true},"
+                                           + "{'name':'refunded','type':'DELAY','time-delay':'PT0S','end':true}]}"));
+
+            WorkflowInstance first = engine.start("payments",
+                                                  json("{'order':{'id':'o-1'}}"));
+            WorkflowInstance second = engine.start("payments",
+                                                   json("{'order':{'id':'o-2'}}"));
+            awaitWaiting(engine,
+                         4);
+            Assertions.assertEquals("await-payment",
+                                    first.getCurrentState());
+
+            Assertions.assertEquals(0,
+                                    engine.publish("payments",
+                                                   "paid",
+                                                   json("{'order':{'id':'o-3'},'amount':10}")));
+            Assertions.assertEquals(0,
+                                    engine.publish("other",
+                                                   "paid",
+                                                   json("{'order':{'id':'o-1'},'amount':10}")));
+            Assertions.assertEquals(1,
+                                    engine.publish("payments",
+                                                   "paid",
+                                                   json("{'order':{'id':'o-1'},'amount':42}")));
+            Assertions.assertEquals(json("{'order':{'id':'o-1'},'paid':42,'approval':'approved'}"),
+                                    result(first));
+            Assertions.assertEquals("paid",
+                                    first.getCurrentState());
+            Assertions.assertFalse(second.isDone());
+            Assertions.assertEquals(2,
+                                    engine.getWaitingCount());
+
+            Assertions.assertEquals(1,
+                                    engine.publish("payments",
+                                                   "refunded",
+                                                   json("{'order':{'id':'o-2'}}")));
+            Assertions.assertEquals(json("{'order':{'id':'o-2'}}"),
+                                    result(second));
+            Assertions.assertEquals("refunded",
+                                    second.getCurrentState());
+            Assertions.assertEquals(0,
+                                    engine.getWaitingCount());
+            Assertions.assertEquals(0,
+                                    engine.getRunningCount());
+        }
+    }
+
+    @Test
+    public void testTimeouts() throws Exception {
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler)) {
+            engine.deploy(workflow("{'id':'await','name':'await','starts-at':'await',"
+                                           + "'trigger-defs':[{'name':'ping','source':'test','type':'ping'}],"
+                                           + "'states':[{'name':'await','type':'EVENT','end':true,'events':["
+                                           + "{'event-expression':'name == \\'ping\\'','timeout':'PT0.05S','actions':[]}]}]}"));
+            engine.deploy(workflow("{'id':'slow','name':'slow','starts-at':'slow','states':["
+                                           + "{'name':'slow','type':'OPERATION','action-mode':'SEQUENTIAL','end':true,'actions':["
+                                           + "{'function':{'name':'slow','type':'test'},'timeout':'PT0.05S'}]}]}"));
+
+            Assertions.assertEquals(Workflow.ExecStatus.TIMEOUT,
+                                    failure(engine.start("await",
+                                                         json("{}"))));
+            Assertions.assertEquals(0,
+                                    engine.getWaitingCount());
+            Assertions.assertEquals(Workflow.ExecStatus.TIMEOUT,
+                                    failure(engine.start("slow",
+                                                         json("{}"))));
+        }
+    }
+
+    @Test
+    public void testInvalidEventStateLeavesNoWaiters() throws Exception {
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler)) {
+            engine.deploy(workflow("{'id':'await','name':'await','starts-at':'await',"
+                                           + "'trigger-defs':[{'name':'ping','source':'test','type':'ping'}],"
+                                           + "'states':[{'name':'await','type':'EVENT','end':true,'events':["
+                                           + "{'event-expression':'name == \\'ping\\'','actions':[]},"
+                                           + "{'actions':[]}]}]}"));
+
+            Assertions.assertEquals(Workflow.ExecStatus.INVALID,
+                                    failure(engine.start("await",
+                                                         json("{}"))));
+            Assertions.assertEquals(0,
+                                    engine.getWaitingCount());
+            Assertions.assertEquals(0,
+                                    engine.publish("test",
+                                                   "ping",
+                                                   json("{}")));
+        }
+    }
+
+    @Test
+    public void testRetries() throws Exception {
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler)) {
+            engine.deploy(workflow("{'id':'retries','name':'retries','starts-at':'flaky','states':["
+                                           + "{'name':'flaky','type':'OPERATION','action-mode':'SEQUENTIAL','next-state':'broken','actions':["
+                                           + "{'function':{'name':'flaky','type':'test'},'filter':{'result-path':'$.flaky'},"
+                                           + "'retry':{'match':'any','retry-interval':'PT0.001S','max-retry':3}}]},"
+                                           + "{'name':'broken','type':'OPERATION','action-mode':'SEQUENTIAL','next-state':'unreachable','actions':["
+                                           + "{'function':{'name':'approve','type':'test'},'filter':{'result-path':'$.approval'}},"
+                                           + "{'function':{'name':'broken','type':'test'},"
+                                           + "'retry':{'match':'any','retry-interval':'PT0.001S','max-retry':1,'next-state':'fallback'}}]},"
+                                           + "{'name':'unreachable','type':'DELAY','time-delay':'PT0S','end':true},"
+                                           + "{'name':'fallback','type':'DELAY','time-delay':'PT0S','end':true}]}"));
+            engine.deploy(workflow("{'id':'failing','name':'failing','starts-at':'broken','states':["
+                                           + "{'name':'broken','type':'OPERATION','action-mode':'PARALLEL','end':true,'actions':["
+                                           + "{'function':{'name':'broken','type':'test'}}]}]}"));
+
+            WorkflowInstance instance = engine.start("retries",
+                                                     json("{}"));
+            // the retry next-state runs on the data the failing state started with
+            Assertions.assertEquals(json("{'flaky':'done'}"),
+                                    result(instance));
+            Assertions.assertEquals(3,
+                                    flakyCalls.get());
+            Assertions.assertEquals("fallback",
+                                    instance.getCurrentState());
+
+            Assertions.assertEquals(Workflow.ExecStatus.FAIL,
+                                    failure(engine.start("failing",
+                                                         json("{}"))));
+        }
+    }
+
+    @Test
+    public void testInvalidDefinitions() throws Exception {
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler)) {
+            engine.deploy(workflow("{'id':'switch','name':'switch','starts-at':'route','states':["
+                                           + "{'name':'route','type':'SWITCH','choices':["
+                                           + "{'path':'$.a','value':'1','operator':'Equals','next-state':'done'}]},"
+                                           + "{'name':'done','type':'DELAY','time-delay':'PT0S','end':true}]}"));
+            engine.deploy(workflow("{'id':'subflow','name':'subflow','starts-at':'call','states':["
+                                           + "{'name':'call','type':'SUBFLOW','workflow-id':'missing','wait-for-completion':true,'end':true}]}"));
+
+            Assertions.assertEquals(json("{'a':1}"),
+                                    result(engine.start("switch",
+                                                        json("{'a':1}"))));
+            Assertions.assertEquals(Workflow.ExecStatus.INVALID,
+                                    failure(engine.start("switch",
+                                                         json("{'a':2}"))));
+            Assertions.assertEquals(Workflow.ExecStatus.INVALID,
+                                    failure(engine.start("subflow",
+                                                         json("{}"))));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> engine.start("missing",
+                                                       json("{}")));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> engine.deploy(new Workflow().withName("no-id")));
+            Assertions.assertTrue(engine.undeploy("switch"));
+            Assertions.assertFalse(engine.isDeployed("switch"));
+        }
+    }
+
+    @Test
+    public void testStatesWithoutTypeField() throws Exception {
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler)) {
+            engine.deploy(new Workflow().withId("untyped")
+                                  .withName("untyped")
+                                  .withStartsAt("d")
+                                  .withStates(Collections.singletonList(new DelayState().withTimeDelay("PT0S")
+                                                                                .withName("d")
+                                                                                .withEnd(true))));
+
+            WorkflowInstance instance = engine.start("untyped",
+                                                     json("{'a':1}"));
+            Assertions.assertEquals(json("{'a':1}"),
+                                    result(instance));
+            Assertions.assertEquals(Workflow.ExecStatus.SUCCESS,
+                                    instance.getExecStatus());
+        }
+    }
+
+    @Test
+    public void testExecutors() throws Exception {
+        boolean virtualThreads;
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            virtualThreads = true;
+        } catch (NoSuchMethodException e) {
+            virtualThreads = false;
+        }
+        Assertions.assertEquals(virtualThreads,
+                                EngineExecutors.isVirtualThreadsAvailable());
+
+        ExecutorService executor = EngineExecutors.newDefaultExecutor();
+        try {
+            Assertions.assertEquals("ran",
+                                    CompletableFuture.supplyAsync(() -> "ran",
+                                                                  executor).get(5,
+                                                                                TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        // any executor can run the engine, here the thread completing each step
+        try (WorkflowEngine engine = new WorkflowEngine(actionHandler,
+                                                        Runnable::run)) {
+            engine.deploy(workflow("{'id':'direct','name':'direct','starts-at':'increment','states':["
+                                           + "{'name':'increment','type':'OPERATION','action-mode':'SEQUENTIAL','end':true,'actions':["
+                                           + "{'function':{'name':'increment','type':'test'}}]}]}"));
+            WorkflowInstance instance = engine.start("direct",
+                                                     IntNode.valueOf(1));
+            Assertions.assertTrue(instance.isDone());
+            Assertions.assertEquals(IntNode.valueOf(2),
+                                    result(instance));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.graph.StateGraph;
+import org.serverless.workflow.api.graph.TransitionType;
+import org.serverless.workflow.api.graph.WorkflowGraph;
+import org.serverless.workflow.api.graph.WorkflowGraphCache;
+import org.serverless.workflow.api.graph.WorkflowGraphCompiler;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.utils.TestUtils;
+
+public class WorkflowGraphCompilerTest {
+
+    private Workflow workflow;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        workflow = new JsonObjectMapper().readValue(new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json"))),
+                                                    Workflow.class);
+    }
+
+    @Test
+    public void testStates() {
+        StateGraph graph = WorkflowGraphCompiler.compile(workflow).getRoot();
+
+        Assertions.assertEquals(6,
+                                graph.getStateCount());
+        Assertions.assertEquals(0,
+                                graph.getStartState());
+        Assertions.assertEquals(2,
+                                graph.getStateId("switch-state"));
+        Assertions.assertEquals(StateGraph.NONE,
+                                graph.getStateId("missing"));
+        Assertions.assertSame(workflow.getStates().get(2),
+                              graph.getState(2));
+        Assertions.assertEquals(DefaultState.Type.SWITCH,
+                                graph.getStateType(2));
+        Assertions.assertTrue(graph.isEnd(5));
+        Assertions.assertFalse(graph.isEnd(0));
+    }
+
+    @Test
+    public void testStateTypeFromClass() {
+        Workflow untyped = new Workflow().withName("untyped")
+                .withStartsAt("operation")
+                .withStates(Arrays.asList(new OperationState().withNextState("delay")
+                                                  .withName("operation")
+                                                  .withType(DefaultState.Type.DELAY),
+                                          new DelayState().withTimeDelay("PT0S")
+                                                  .withName("delay")
+                                                  .withEnd(true)));
+        StateGraph graph = WorkflowGraphCompiler.compile(untyped).getRoot();
+
+        Assertions.assertEquals(DefaultState.Type.OPERATION,
+                                graph.getStateType(0));
+        Assertions.assertEquals(DefaultState.Type.DELAY,
+                                graph.getStateType(1));
+    }
+
+    @Test
+    public void testTransitions() {
+        StateGraph graph = WorkflowGraphCompiler.compile(workflow).getRoot();
+
+        int eventState = graph.getStateId("event-state");
+        Assertions.assertEquals(2,
+                                graph.getTransitionEnd(eventState) - graph.getTransitionStart(eventState));
+        Assertions.assertEquals(graph.getStateId("delay-state"),
+                                graph.getTransition(eventState,
+                                                    TransitionType.RETRY,
+                                                    0));
+        Assertions.assertEquals(graph.getStateId("operation-state"),
+                                graph.getTransition(eventState,
+                                                    TransitionType.EVENT,
+                                                    0));
+
+        Assertions.assertEquals(graph.getStateId("switch-state"),
+                                graph.getNextState(graph.getStateId("operation-state")));
+
+        int switchState = graph.getStateId("switch-state");
+        int[] choiceTargets = {3, 4, 5, 5};
+        int transition = graph.getTransitionStart(switchState);
+        for (int i = 0; i < choiceTargets.length; i++, transition++) {
+            Assertions.assertEquals(TransitionType.CHOICE,
+                                    graph.getTransitionType(transition));
+            Assertions.assertEquals(i,
+                                    graph.getTransitionOrdinal(transition));
+            Assertions.assertEquals(choiceTargets[i],
+                                    graph.getTransitionTarget(transition));
+        }
+        Assertions.assertEquals(TransitionType.DEFAULT,
+                                graph.getTransitionType(transition));
+        Assertions.assertEquals(transition + 1,
+                                graph.getTransitionEnd(switchState));
+        Assertions.assertEquals(5,
+                                graph.getDefaultState(switchState));
+        Assertions.assertEquals(StateGraph.NONE,
+                                graph.getNextState(switchState));
+
+        Assertions.assertEquals(graph.getTransitionStart(5),
+                                graph.getTransitionEnd(5));
+    }
+
+    @Test
+    public void testBranches() {
+        StateGraph graph = WorkflowGraphCompiler.compile(workflow).getRoot();
+
+        Assertions.assertEquals(1,
+                                graph.getBranches(graph.getStateId("parallel-state")).size());
+        Assertions.assertTrue(graph.getBranches(graph.getStateId("delay-state")).isEmpty());
+
+        StateGraph branch = graph.getBranches(graph.getStateId("parallel-state")).get(0);
+        Assertions.assertEquals("branch-one",
+                                branch.getName());
+        Assertions.assertNotNull(branch.getBranch());
+        Assertions.assertEquals(1,
+                                branch.getStateCount());
+        Assertions.assertEquals(0,
+                                branch.getStartState());
+        Assertions.assertTrue(branch.isEnd(0));
+    }
+
+    @Test
+    public void testUnresolvedReference() {
+        ((OperationState) workflow.getStates().get(1)).setNextState("missing");
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> WorkflowGraphCompiler.compile(workflow));
+    }
+
+    @Test
+    public void testCache() {
+        WorkflowGraphCache cache = new WorkflowGraphCache();
+
+        WorkflowGraph graph = cache.get(workflow);
+        Assertions.assertSame(graph,
+                              cache.get(workflow));
+
+        cache.invalidate(workflow.getId(),
+                         workflow.getVersion());
+        Assertions.assertNotSame(graph,
+                                 cache.get(workflow));
+
+        workflow.setId(null);
+        Assertions.assertNotSame(cache.get(workflow),
+                                 cache.get(workflow));
+        Assertions.assertEquals(1,
+                                cache.size());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.ids.Sha256IdGenerator;
+import org.serverless.workflow.api.ids.ThreadCounterIdGenerator;
+import org.serverless.workflow.api.ids.TimeOrderedIdGenerator;
+import org.serverless.workflow.api.mapper.IdGeneration;
+import org.serverless.workflow.api.mapper.WorkflowFormat;
+import org.serverless.workflow.api.mapper.WorkflowModule;
+import org.serverless.workflow.api.mapper.WorkflowObjectMappers;
+import org.serverless.workflow.api.testproviders.TestWorkflowManager;
+
+public class WorkflowIdGeneratorTest {
+
+    private static final int THREADS = 4;
+    private static final int IDS_PER_THREAD = 10000;
+
+    @Test
+    public void testTimeOrderedIds() {
+        TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator();
+
+        String previous = idGenerator.generateId();
+        Assertions.assertEquals(26,
+                                previous.length());
+        for (int i = 0; i < IDS_PER_THREAD; i++) {
+            String id = idGenerator.generateId();
+            Assertions.assertTrue(id.compareTo(previous) > 0,
+                                  id + " not after " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void testTimeOrderedIdsUniqueAcrossThreads() throws Exception {
+        assertUniqueAcrossThreads(new TimeOrderedIdGenerator());
+    }
+
+    @Test
+    public void testThreadCounterIdsUniqueAcrossThreads() throws Exception {
+        assertUniqueAcrossThreads(new ThreadCounterIdGenerator());
+    }
+
+    @Test
+    public void testSha256Ids() {
+        String id = new Sha256IdGenerator().generateId();
+        Assertions.assertEquals(64,
+                                id.length());
+    }
+
+    @Test
+    public void testModuleIdGenerator() throws Exception {
+        WorkflowIdGenerator fixedIdGenerator = new FixedIdGenerator();
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new WorkflowModule(null,
+                                                 IdGeneration.ON_LOAD,
+                                                 fixedIdGenerator));
+
+        Workflow workflow = mapper.readValue("{\"name\": \"test-wf\", \"starts-at\": \"\", \"states\": []}",
+                                             Workflow.class);
+        Assertions.assertEquals("fixed-id",
+                                workflow.getId());
+    }
+
+    @Test
+    public void testManagerIdGenerator() throws Exception {
+        WorkflowManager manager = new TestWorkflowManager();
+        manager.setIdGenerator(new FixedIdGenerator());
+        manager.setWorkflow(new Workflow().withName("test-wf"));
+
+        Assertions.assertEquals("fixed-id",
+                                new ObjectMapper().readTree(manager.toJson(false)).get("id").asText());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        manager.toJson(out,
+                       true);
+        Assertions.assertEquals("fixed-id",
+                                new ObjectMapper().readTree(out.toByteArray()).get("id").asText());
+        Workflow fromSmile = WorkflowObjectMappers.getInstance().getReader(WorkflowFormat.SMILE,
+                                                                           null).readValue(manager.toSmile());
+        Assertions.assertEquals("fixed-id",
+                                fromSmile.getId());
+    }
+
+    private static void assertUniqueAcrossThreads(WorkflowIdGenerator idGenerator) throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < IDS_PER_THREAD; j++) {
+                        ids.add(idGenerator.generateId());
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(1,
+                           TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(THREADS * IDS_PER_THREAD,
+                                ids.size());
+    }
+
+    private static class FixedIdGenerator implements WorkflowIdGenerator {
+
+        @Override
+        public String getName() {
+            return "fixed";
+        }
+
+        @Override
+        public String generateId() {
+            return "fixed-id";
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.mapper.IdGeneration;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.mapper.WorkflowFormat;
+import org.serverless.workflow.api.mapper.WorkflowObjectMappers;
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.testproviders.TestWorkflowManager;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.serverless.workflow.spi.WorkflowPropertySourceProvider;
+
+public class WorkflowObjectMappersTest {
+
+    private static final int THREADS = 8;
+    private static final int READS_PER_THREAD = 100;
+
+    @Test
+    public void testSharedInstances() {
+        WorkflowObjectMappers mappers = WorkflowObjectMappers.getInstance();
+
+        Assertions.assertSame(mappers.getReader(WorkflowFormat.JSON,
+                                                null),
+                              mappers.getReader(WorkflowFormat.JSON,
+                                                null));
+        Assertions.assertSame(mappers.getWriter(WorkflowFormat.YAML,
+                                                null,
+                                                true),
+                              mappers.getWriter(WorkflowFormat.YAML,
+                                                null,
+                                                true));
+        Assertions.assertNotSame(mappers.getReader(WorkflowFormat.JSON,
+                                                   null),
+                                 mappers.getReader(WorkflowFormat.YAML,
+                                                   null));
+        Assertions.assertNotSame(mappers.getReader(WorkflowFormat.JSON,
+                                                   null),
+                                 mappers.getReader(WorkflowFormat.JSON,
+                                                   WorkflowPropertySourceProvider.getInstance().get()));
+        Assertions.assertNotSame(mappers.getReader(WorkflowFormat.JSON,
+                                                   null),
+                                 mappers.getReader(WorkflowFormat.JSON,
+                                                   null,
+                                                   IdGeneration.ON_LOAD));
+    }
+
+    @Test
+    public void testNewMappers() throws Exception {
+        WorkflowObjectMappers mappers = WorkflowObjectMappers.getInstance();
+        Workflow workflow = mappers.getReader(WorkflowFormat.JSON,
+                                              null).readValue(loadWorkflow());
+        String compact = mappers.getWriter(WorkflowFormat.JSON,
+                                           null,
+                                           false).writeValueAsString(workflow);
+
+        ObjectMapper mapper = mappers.newMapper(WorkflowFormat.JSON,
+                                                null);
+        Assertions.assertNotSame(mapper,
+                                 mappers.newMapper(WorkflowFormat.JSON,
+                                                   null));
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(SerializationFeature.INDENT_OUTPUT);
+        Assertions.assertEquals(compact,
+                                mappers.getWriter(WorkflowFormat.JSON,
+                                                  null,
+                                                  false).writeValueAsString(workflow));
+        Assertions.assertEquals(mapper.readTree(compact),
+                                mappers.toTree(workflow,
+                                               null,
+                                               IdGeneration.ON_WRITE));
+    }
+
+    @Test
+    public void testIndentation() throws Exception {
+        WorkflowObjectMappers mappers = WorkflowObjectMappers.getInstance();
+        Workflow workflow = mappers.getReader(WorkflowFormat.JSON,
+                                              null).readValue(loadWorkflow());
+
+        String indented = mappers.getWriter(WorkflowFormat.JSON,
+                                            null,
+                                            true).writeValueAsString(workflow);
+        String compact = mappers.getWriter(WorkflowFormat.JSON,
+                                           null,
+                                           false).writeValueAsString(workflow);
+
+        Assertions.assertTrue(indented.contains("\n"));
+        Assertions.assertFalse(compact.contains("\n"));
+        Assertions.assertEquals(indented.replaceAll("\\s",
+                                                    ""),
+                                compact.replaceAll("\\s",
+                                                   ""));
+    }
+
+    @Test
+    public void testCompactMapper() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper(null,
+                                                       IdGeneration.ON_WRITE,
+                                                       false);
+        Workflow workflow = mapper.readValue(loadWorkflow(),
+                                             Workflow.class);
+
+        Assertions.assertFalse(mapper.writeValueAsString(workflow).contains("\n"));
+    }
+
+    @Test
+    public void testManagerOutputs() throws Exception {
+        WorkflowManager manager = new TestWorkflowManager();
+        manager.setWorkflow(WorkflowObjectMappers.getInstance().getReader(WorkflowFormat.JSON,
+                                                                          null).readValue(loadWorkflow()));
+        String compact = manager.toJson(false);
+        String indented = manager.toJson(true);
+        Assertions.assertNotEquals(compact,
+                                   indented);
+        Assertions.assertEquals(new ObjectMapper().readTree(compact),
+                                new ObjectMapper().readTree(indented));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        manager.toJson(out,
+                       false);
+        Assertions.assertEquals(compact,
+                                new String(out.toByteArray(),
+                                           StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+        manager.toJson(Channels.newChannel(channelOut),
+                       false);
+        Assertions.assertEquals(compact,
+                                new String(channelOut.toByteArray(),
+                                           StandardCharsets.UTF_8));
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        buffer.put((byte) '#');
+        int written = manager.toJson(buffer,
+                                     false);
+        Assertions.assertEquals(compact.length(),
+                                written);
+        Assertions.assertEquals(compact,
+                                new String(buffer.array(),
+                                           1,
+                                           written,
+                                           StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream yamlOut = new ByteArrayOutputStream();
+        manager.toYaml(yamlOut);
+        Workflow fromYaml = WorkflowObjectMappers.getInstance().getReader(WorkflowFormat.YAML,
+                                                                          null).readValue(yamlOut.toByteArray());
+        Assertions.assertEquals(manager.getWorkflow().getStates().size(),
+                                fromYaml.getStates().size());
+
+        Assertions.assertThrows(BufferOverflowException.class,
+                                () -> manager.toJson(ByteBuffer.allocate(16),
+                                                     false));
+    }
+
+    @Test
+    public void testBufferOverflowKeepsPosition() throws Exception {
+        List<State> states = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            states.add(new DelayState().withTimeDelay("PT1S")
+                               .withNextState("delay-state-" + (i + 1))
+                               .withName("delay-state-" + i)
+                               .withType(DefaultState.Type.DELAY));
+        }
+        Workflow workflow = new Workflow().withName("large-wf")
+                .withStartsAt("delay-state-0")
+                .withStates(states);
+        ObjectWriter writer = WorkflowObjectMappers.getInstance().getWriter(WorkflowFormat.JSON,
+                                                                            null,
+                                                                            false);
+        int length = writer.writeValueAsBytes(workflow).length;
+        Assertions.assertTrue(length > 16 * 1024,
+                              "workflow of " + length + " bytes");
+
+        // larger than the generator's buffer, so chunks are put before the overflow
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put((byte) '#');
+        Assertions.assertThrows(BufferOverflowException.class,
+                                () -> WorkflowObjectMappers.write(writer,
+                                                                  workflow,
+                                                                  buffer));
+        Assertions.assertEquals(1,
+                                buffer.position());
+    }
+
+    @Test
+    public void testManagerBinaryPropertySource() {
+        Properties properties = new Properties();
+        properties.setProperty("wf-name",
+                               "resolved-name");
+        WorkflowManager manager = new TestWorkflowManager() {
+            @Override
+            public WorkflowPropertySource getWorkflowPropertySource() {
+                return new WorkflowPropertySource() {
+                    @Override
+                    public Properties getPropertySource() {
+                        return properties;
+                    }
+
+                    @Override
+                    public void setPropertySource(Properties source) {
+                    }
+                };
+            }
+        };
+        manager.setWorkflow(new Workflow().withName("wf-name").withId("wf-id"));
+
+        for (WorkflowFormat format : new WorkflowFormat[]{WorkflowFormat.SMILE, WorkflowFormat.CBOR}) {
+            Workflow workflow = manager.toWorkflow(manager.toBytes(format),
+                                                   format);
+            Assertions.assertEquals("resolved-name",
+                                    workflow.getName());
+            Assertions.assertEquals("wf-id",
+                                    workflow.getId());
+        }
+    }
+
+    @Test
+    public void testJsonToYaml() throws Exception {
+        WorkflowObjectMappers mappers = WorkflowObjectMappers.getInstance();
+        Workflow workflow = mappers.getReader(WorkflowFormat.JSON,
+                                              null).readValue(loadWorkflow());
+
+        String yaml = mappers.getWriter(WorkflowFormat.YAML,
+                                        null,
+                                        true).writeValueAsString(workflow);
+        Workflow fromYaml = mappers.getReader(WorkflowFormat.YAML,
+                                              null).readValue(yaml);
+
+        Assertions.assertEquals(workflow.getId(),
+                                fromYaml.getId());
+        Assertions.assertEquals(workflow.getStates().size(),
+                                fromYaml.getStates().size());
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        String json = loadWorkflow();
+        ObjectReader reader = WorkflowObjectMappers.getInstance().getReader(WorkflowFormat.JSON,
+                                                                            null);
+        ObjectWriter writer = WorkflowObjectMappers.getInstance().getWriter(WorkflowFormat.JSON,
+                                                                            null,
+                                                                            false);
+        String expected = writer.writeValueAsString(reader.readValue(json));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < READS_PER_THREAD; j++) {
+                        if (!expected.equals(writer.writeValueAsString(reader.readValue(json)))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assertions.assertTrue(result.get(1,
+                                                 TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String loadWorkflow() throws Exception {
+        return new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+
+import org.everit.json.schema.Schema;
+import org.everit.json.schema.ValidationException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.serverless.workflow.api.validation.WorkflowSchemaLoader;
+
+public class WorkflowSchemaLoaderTest {
+
+    @Test
+    public void testSchemaCached() {
+        Schema schema = WorkflowSchemaLoader.getWorkflowSchema();
+        Assertions.assertSame(schema,
+                              WorkflowSchemaLoader.getWorkflowSchema());
+        Assertions.assertSame(WorkflowSchemaLoader.getActionSchema(),
+                              WorkflowSchemaLoader.getActionSchema());
+
+        WorkflowSchemaLoader.reload();
+        Assertions.assertNotSame(schema,
+                                 WorkflowSchemaLoader.getWorkflowSchema());
+    }
+
+    @Test
+    public void testValidateWorkflow() throws Exception {
+        JSONObject workflow = new JSONObject(new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json"))));
+        WorkflowSchemaLoader.getWorkflowSchema().validate(workflow);
+
+        workflow.remove("states");
+        Assertions.assertThrows(ValidationException.class,
+                                () -> WorkflowSchemaLoader.getWorkflowSchema().validate(workflow));
+    }
+
+    @Test
+    public void testSubschemas() throws Exception {
+        JSONObject workflow = new JSONObject(new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json"))));
+        for (Object state : workflow.getJSONArray("states")) {
+            JSONObject stateObject = (JSONObject) state;
+            if (DefaultState.Type.SWITCH.value().equals(stateObject.getString("type"))) {
+                // choices/singlechoice.json requires a "single" property the model does not have
+                continue;
+            }
+            WorkflowSchemaLoader.getStateSchema(DefaultState.Type.fromValue(stateObject.getString("type"))).validate(stateObject);
+        }
+
+        JSONObject delayState = new JSONObject().put("name",
+                                                     "delay")
+                .put("type",
+                     "DELAY");
+        Assertions.assertThrows(ValidationException.class,
+                                () -> WorkflowSchemaLoader.getStateSchema(DefaultState.Type.OPERATION).validate(delayState));
+    }
+}
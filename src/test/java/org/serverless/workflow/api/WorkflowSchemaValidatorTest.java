@@ -0,0 +1,80 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.serverless.workflow.api.validation.ValidationError;
+import org.serverless.workflow.api.validation.WorkflowSchemaValidator;
+
+public class WorkflowSchemaValidatorTest {
+
+    @Test
+    public void testValidWorkflow() throws Exception {
+        Workflow workflow = new JsonObjectMapper().readValue(loadWorkflow(),
+                                                             Workflow.class);
+
+        Assertions.assertTrue(WorkflowSchemaValidator.validate(workflow).isEmpty());
+    }
+
+    @Test
+    public void testInvalidWorkflow() throws Exception {
+        Workflow workflow = new JsonObjectMapper().readValue(loadWorkflow(),
+                                                             Workflow.class);
+        workflow.setName(null);
+
+        List<ValidationError> validationErrors = WorkflowSchemaValidator.validate(workflow);
+        Assertions.assertEquals(1,
+                                validationErrors.size());
+        Assertions.assertEquals(ValidationError.SCHEMA_VALIDATION,
+                                validationErrors.get(0).getType());
+        Assertions.assertTrue(validationErrors.get(0).getMessage().contains("name"));
+    }
+
+    @Test
+    public void testInvalidJsonNode() throws Exception {
+        ObjectNode workflowNode = (ObjectNode) new JsonObjectMapper().readTree(loadWorkflow());
+        workflowNode.put("exec-status",
+                         "Unknown");
+        workflowNode.remove("states");
+
+        Assertions.assertEquals(2,
+                                WorkflowSchemaValidator.validate(workflowNode).size());
+    }
+
+    @Test
+    public void testJsonNodeConversion() throws Exception {
+        String json = "{\"s\": \"a\", \"i\": 1, \"d\": 1.5, \"b\": true, \"n\": null, \"a\": [1, {\"x\": \"y\"}]}";
+        JsonNode node = new JsonObjectMapper().readTree(json);
+
+        Assertions.assertTrue(new JSONObject(json).similar(WorkflowSchemaValidator.toJson(node)));
+    }
+
+    private static String loadWorkflow() throws Exception {
+        return new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json")));
+    }
+}
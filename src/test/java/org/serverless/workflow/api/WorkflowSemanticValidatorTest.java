@@ -0,0 +1,132 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.serverless.workflow.api.choices.SingleChoice;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.EventState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.states.ParallelState;
+import org.serverless.workflow.api.states.SwitchState;
+import org.serverless.workflow.api.utils.TestUtils;
+import org.serverless.workflow.api.validation.BaseWorkflowValidator;
+import org.serverless.workflow.api.validation.ValidationError;
+import org.serverless.workflow.api.validation.WorkflowSemanticValidator;
+
+public class WorkflowSemanticValidatorTest {
+
+    private Workflow workflow;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        workflow = new JsonObjectMapper().readValue(new String(Files.readAllBytes(TestUtils.getResourcePath("workflows/all-states.json"))),
+                                                    Workflow.class);
+    }
+
+    @Test
+    public void testValidWorkflow() {
+        Assertions.assertTrue(WorkflowSemanticValidator.validate(workflow).isEmpty());
+    }
+
+    @Test
+    public void testStartsAt() {
+        workflow.setStartsAt("missing");
+
+        assertSingleError("starts-at 'missing'");
+    }
+
+    @Test
+    public void testDuplicateStateName() {
+        ((DelayState) workflow.getStates().get(5)).setName("event-state");
+
+        List<ValidationError> validationErrors = WorkflowSemanticValidator.validate(workflow);
+        Assertions.assertTrue(validationErrors.stream().anyMatch(error -> error.getMessage().contains("duplicate state name 'event-state'")));
+    }
+
+    @Test
+    public void testNextState() {
+        ((OperationState) workflow.getStates().get(1)).setNextState("missing");
+
+        assertSingleError("state 'operation-state' next-state 'missing'");
+    }
+
+    @Test
+    public void testEventNextState() {
+        ((EventState) workflow.getStates().get(0)).getEvents().get(0).setNextState("missing");
+
+        assertSingleError("state 'event-state' event next-state 'missing'");
+    }
+
+    @Test
+    public void testRetryNextState() {
+        ((EventState) workflow.getStates().get(0)).getEvents().get(0).getActions().get(0).getRetry().setNextState("missing");
+
+        assertSingleError("state 'event-state' retry next-state 'missing'");
+    }
+
+    @Test
+    public void testChoiceNextStateAndDefault() {
+        SwitchState switchState = (SwitchState) workflow.getStates().get(2);
+        ((SingleChoice) switchState.getChoices().get(0)).setNextState("missing-choice");
+        switchState.setDefault("missing-default");
+
+        List<ValidationError> validationErrors = WorkflowSemanticValidator.validate(workflow);
+        Assertions.assertEquals(2,
+                                validationErrors.size());
+        Assertions.assertTrue(validationErrors.get(0).getMessage().contains("choice next-state 'missing-choice'"));
+        Assertions.assertTrue(validationErrors.get(1).getMessage().contains("default 'missing-default'"));
+    }
+
+    @Test
+    public void testBranchScope() {
+        ParallelState parallelState = (ParallelState) workflow.getStates().get(3);
+        parallelState.getBranches().get(0).setStartsAt("delay-state");
+
+        assertSingleError("workflow/parallel-state/branch-one: starts-at 'delay-state'");
+    }
+
+    @Test
+    public void testStrictValidation() {
+        workflow.setStartsAt("missing");
+
+        List<ValidationError> validationErrors = new BaseWorkflowValidator().validate(workflow);
+        Assertions.assertEquals(1,
+                                validationErrors.size());
+        Assertions.assertEquals(ValidationError.WORKFLOW_VALIDATION,
+                                validationErrors.get(0).getType());
+    }
+
+    private void assertSingleError(String message) {
+        List<ValidationError> validationErrors = WorkflowSemanticValidator.validate(workflow);
+        Assertions.assertEquals(1,
+                                validationErrors.size(),
+                                validationErrors.toString());
+        Assertions.assertEquals(ValidationError.WORKFLOW_VALIDATION,
+                                validationErrors.get(0).getType());
+        Assertions.assertTrue(validationErrors.get(0).getMessage().contains(message),
+                              validationErrors.get(0).getMessage());
+    }
+}
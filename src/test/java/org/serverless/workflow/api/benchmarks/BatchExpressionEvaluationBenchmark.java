@@ -0,0 +1,131 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.CompiledExpression;
+import org.serverless.workflow.api.ExpressionEvaluator;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.spi.ExpressionEvaluatorProvider;
+
+/**
+ * Compares evaluating event expressions one call per event with the batch evaluation methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchExpressionEvaluationBenchmark {
+
+    // valid in both jexl and spel
+    private static final String EXPRESSION = "type == 'order.created' and metadata['priority'] == 'high'";
+
+    @Param({"jexl", "spel"})
+    public String evaluatorName;
+
+    @Param({"1000", "10000"})
+    public int batchSize;
+
+    private ExpressionEvaluator evaluator;
+    private CompiledExpression compiledExpression;
+    private List<TriggerEvent> triggerEvents;
+    private List<String> expressions;
+    private final BitSet results = new BitSet();
+
+    @Setup
+    public void setup() {
+        evaluator = ExpressionEvaluatorProvider.getInstance().get().get(evaluatorName);
+        compiledExpression = evaluator.compile(EXPRESSION);
+        triggerEvents = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            triggerEvents.add(new TriggerEvent().withName("event-" + i)
+                                      .withSource("shop")
+                                      .withType(i % 2 == 0 ? "order.created" : "order.updated")
+                                      .withMetadata(Collections.singletonMap("priority",
+                                                                             i % 3 == 0 ? "high" : "low")));
+        }
+        expressions = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            expressions.add("type == 'order.created' and metadata['priority'] == 'level-" + i + "'");
+        }
+    }
+
+    @Benchmark
+    public BitSet eventsOneByOne() {
+        results.clear();
+        for (int i = 0; i < triggerEvents.size(); i++) {
+            if (evaluator.evaluate(EXPRESSION,
+                                   triggerEvents.get(i))) {
+                results.set(i);
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public BitSet eventsBatch() {
+        return evaluator.evaluate(EXPRESSION,
+                                  triggerEvents,
+                                  results);
+    }
+
+    @Benchmark
+    public BitSet eventsCompiledBatch() {
+        return compiledExpression.evaluate(triggerEvents,
+                                           results);
+    }
+
+    @Benchmark
+    public BitSet expressionsOneByOne() {
+        TriggerEvent triggerEvent = triggerEvents.get(0);
+        results.clear();
+        for (int i = 0; i < expressions.size(); i++) {
+            if (evaluator.evaluate(expressions.get(i),
+                                   triggerEvent)) {
+                results.set(i);
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public BitSet expressionsBatch() {
+        return evaluator.evaluate(expressions,
+                                  triggerEvents.get(0),
+                                  results);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.validation.BaseWorkflowValidator;
+import org.serverless.workflow.api.validation.BatchValidationResult;
+import org.serverless.workflow.api.validation.BatchWorkflowValidator;
+
+/**
+ * Measures validating a batch of JSON definitions with pools of increasing parallelism.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchValidationBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"500"})
+    public int definitionCount;
+
+    private List<String> definitions;
+    private ForkJoinPool pool;
+    private BatchWorkflowValidator validator;
+
+    @Setup
+    public void setup() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+        definitions = new ArrayList<>();
+        for (int i = 0; i < definitionCount; i++) {
+            definitions.add(mapper.writeValueAsString(BenchmarkWorkflows.chain(10).withId("wf-" + i)));
+        }
+        pool = new ForkJoinPool(parallelism);
+        validator = new BatchWorkflowValidator(new BaseWorkflowValidator(),
+                                               pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<BatchValidationResult<String>> validateBatch() {
+        return validator.validateJson(definitions);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.actions.Action;
+import org.serverless.workflow.api.actions.Retry;
+import org.serverless.workflow.api.choices.AndChoice;
+import org.serverless.workflow.api.choices.DefaultChoice;
+import org.serverless.workflow.api.choices.SingleChoice;
+import org.serverless.workflow.api.events.Event;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.functions.Function;
+import org.serverless.workflow.api.interfaces.Choice;
+import org.serverless.workflow.api.interfaces.State;
+import org.serverless.workflow.api.states.DefaultState;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.EventState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.states.SwitchState;
+
+/**
+ * Generated workflows shared by the benchmarks.
+ */
+public final class BenchmarkWorkflows {
+
+    private BenchmarkWorkflows() {
+    }
+
+    /**
+     * @return workflow with the given number of operation, delay, switch and event states
+     * chained one after the other, the last state being an end state
+     */
+    public static Workflow chain(int stateCount) {
+        List<State> states = new ArrayList<>(stateCount);
+        for (int i = 0; i < stateCount; i++) {
+            String name = stateName(i);
+            String next = i + 1 < stateCount ? stateName(i + 1) : null;
+            boolean end = next == null;
+
+            switch (i % 4) {
+                case 0:
+                    states.add(new OperationState().withActionMode(OperationState.ActionMode.SEQUENTIAL)
+                                       .withActions(Collections.singletonList(action(next)))
+                                       .withNextState(next)
+                                       .withName(name)
+                                       .withType(DefaultState.Type.OPERATION)
+                                       .withEnd(end));
+                    break;
+                case 1:
+                    states.add(new DelayState().withTimeDelay("PT1S")
+                                       .withNextState(next)
+                                       .withName(name)
+                                       .withType(DefaultState.Type.DELAY)
+                                       .withEnd(end));
+                    break;
+                case 2:
+                    states.add(new SwitchState().withChoices(choices(next))
+                                       .withDefault(next)
+                                       .withName(name)
+                                       .withType(DefaultState.Type.SWITCH)
+                                       .withEnd(end));
+                    break;
+                default:
+                    states.add(new EventState().withEvents(Collections.singletonList(new Event().withEventExpression("name == 'order-event'")
+                                                                                           .withActionMode(Event.ActionMode.SEQUENTIAL)
+                                                                                           .withActions(Collections.singletonList(action(next)))
+                                                                                           .withNextState(next)))
+                                       .withName(name)
+                                       .withType(DefaultState.Type.EVENT)
+                                       .withEnd(end));
+            }
+        }
+
+        return new Workflow().withId("chain-" + stateCount)
+                .withName("chain-" + stateCount)
+                .withVersion("1.0")
+                .withStartsAt(stateName(0))
+                .withTriggerDefs(Collections.singletonList(new TriggerEvent().withName("order-event")
+                                                                   .withSource("order-source")
+                                                                   .withType("order-type")))
+                .withStates(states);
+    }
+
+    public static String stateName(int index) {
+        return "state-" + index;
+    }
+
+    private static Action action(String retryState) {
+        return new Action().withFunction(new Function().withName("process").withType("http"))
+                .withTimeout("PT5S")
+                .withRetry(new Retry().withMatch("failure").withMaxRetry(3).withNextState(retryState));
+    }
+
+    private static List<Choice> choices(String next) {
+        return Arrays.asList(new SingleChoice().withNextState(next)
+                                     .withPath("$.value")
+                                     .withValue("1")
+                                     .withOperator(DefaultChoice.Operator.EQUALS),
+                             new AndChoice().withNextState(next)
+                                     .withAnd(Arrays.asList(new DefaultChoice("$.value",
+                                                                              "1",
+                                                                              DefaultChoice.Operator.GREATER_THAN),
+                                                            new DefaultChoice("$.value",
+                                                                              "10",
+                                                                              DefaultChoice.Operator.LESS_THAN))));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.deserializers.ChoiceDeserializer;
+import org.serverless.workflow.api.interfaces.Choice;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+
+/**
+ * Compares streaming and tree based choice deserialization on a switch state with
+ * many choices ("wide") and on one with few choices holding long and/or operand lists ("deep").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChoiceDeserializerBenchmark {
+
+    @Param({"wide", "deep"})
+    public String shape;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private byte[] workflowJson;
+    private JsonObjectMapper streamingMapper;
+    private JsonObjectMapper treeMapper;
+
+    @Setup
+    public void setup() {
+        workflowJson = ("wide".equals(shape) ? wideSwitch(size) : deepSwitch(size)).getBytes();
+
+        streamingMapper = new JsonObjectMapper();
+
+        treeMapper = new JsonObjectMapper();
+        SimpleModule treeModule = new SimpleModule("tree-choice-module");
+        treeModule.addDeserializer(Choice.class,
+                                   new ChoiceDeserializer(false));
+        treeMapper.registerModule(treeModule);
+    }
+
+    @Benchmark
+    public Workflow streaming() throws Exception {
+        return streamingMapper.readValue(workflowJson,
+                                         Workflow.class);
+    }
+
+    @Benchmark
+    public Workflow tree() throws Exception {
+        return treeMapper.readValue(workflowJson,
+                                    Workflow.class);
+    }
+
+    static String wideSwitch(int choices) {
+        StringBuilder sb = switchStart();
+        for (int i = 0; i < choices; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            switch (i % 4) {
+                case 0:
+                    sb.append("{\"path\":\"$.value\",\"value\":\"").append(i).append("\",\"operator\":\"Equals\",\"next-state\":\"end-state\"}");
+                    break;
+                case 1:
+                    sb.append("{\"next-state\":\"end-state\",\"and\":[").append(operands(2)).append("]}");
+                    break;
+                case 2:
+                    sb.append("{\"or\":[").append(operands(2)).append("],\"next-state\":\"end-state\"}");
+                    break;
+                default:
+                    sb.append("{\"not\":").append(operands(1)).append(",\"next-state\":\"end-state\"}");
+            }
+        }
+        return switchEnd(sb);
+    }
+
+    static String deepSwitch(int operands) {
+        StringBuilder sb = switchStart();
+        sb.append("{\"and\":[").append(operands(operands)).append("],\"next-state\":\"end-state\"},");
+        sb.append("{\"next-state\":\"end-state\",\"or\":[").append(operands(operands)).append("]}");
+        return switchEnd(sb);
+    }
+
+    private static String operands(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"path\":\"$.values[").append(i).append("]\",\"value\":\"").append(i).append("\",\"operator\":\"GreaterThan\"}");
+        }
+        return sb.toString();
+    }
+
+    private static StringBuilder switchStart() {
+        return new StringBuilder("{\"id\":\"choices\",\"name\":\"choices\",\"starts-at\":\"switch-state\",\"states\":[")
+                .append("{\"name\":\"switch-state\",\"type\":\"SWITCH\",\"default\":\"end-state\",\"choices\":[");
+    }
+
+    private static String switchEnd(StringBuilder sb) {
+        return sb.append("]},{\"name\":\"end-state\",\"type\":\"DELAY\",\"time-delay\":\"PT1S\",\"end\":true}]}").toString();
+    }
+}
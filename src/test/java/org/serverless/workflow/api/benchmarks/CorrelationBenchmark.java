@@ -0,0 +1,150 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.correlation.CorrelationIndex;
+import org.serverless.workflow.api.correlation.CorrelationPath;
+
+/**
+ * Measures correlation token extraction, streaming compared with parsing the payload into a tree, and
+ * correlation index operations with one million waiting instances, spread over distinct tokens or all waiting
+ * for one token as uncorrelated waits do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CorrelationBenchmark {
+
+    private static final int WAITING_INSTANCES = 1_000_000;
+    private static final String TRIGGER_NAME = "order-paid";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CorrelationPath path;
+    private byte[] payload;
+    private CorrelationIndex<String> index;
+    private CorrelationIndex<String> hotIndex;
+    private String[] tokens;
+    private int tokenIndex;
+    private int nextToken;
+
+    @Setup
+    public void setup() {
+        path = CorrelationPath.compile("$.data.order.id");
+        StringBuilder json = new StringBuilder("{\"specversion\":\"1.0\",\"type\":\"order.paid\",\"data\":{");
+        // lines before the token, which the streaming extraction skips
+        json.append("\"lines\":[");
+        for (int i = 0; i < 20; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"sku\":\"sku-").append(i).append("\",\"qty\":").append(i)
+                    .append(",\"price\":{\"amount\":").append(i * 1.5).append(",\"currency\":\"EUR\"}}");
+        }
+        json.append("],\"order\":{\"id\":\"order-123456\",\"customer\":\"c-1\"},\"audit\":[");
+        for (int i = 0; i < 20; i++) {
+            json.append(i > 0 ? "," : "").append("{\"at\":\"2020-01-01T00:00:00Z\",\"by\":\"user-").append(i).append("\"}");
+        }
+        json.append("]}}");
+        payload = json.toString().getBytes(StandardCharsets.UTF_8);
+        if (!"order-123456".equals(path.extract(payload))) {
+            throw new IllegalStateException("Unexpected correlation token");
+        }
+
+        index = new CorrelationIndex<>(WAITING_INSTANCES,
+                                       Duration.ofHours(1));
+        tokens = new String[WAITING_INSTANCES];
+        for (int i = 0; i < WAITING_INSTANCES; i++) {
+            tokens[i] = "order-" + i;
+            index.put(TRIGGER_NAME,
+                      tokens[i],
+                      "instance-" + i);
+        }
+        nextToken = WAITING_INSTANCES;
+
+        hotIndex = new CorrelationIndex<>(WAITING_INSTANCES * 2,
+                                          Duration.ofHours(1));
+        for (int i = 0; i < WAITING_INSTANCES; i++) {
+            hotIndex.put(TRIGGER_NAME,
+                         "",
+                         tokens[i]);
+        }
+    }
+
+    @Benchmark
+    public String extractStreaming() {
+        return path.extract(payload);
+    }
+
+    @Benchmark
+    public String extractTree() throws IOException {
+        return path.extract(objectMapper.readTree(payload));
+    }
+
+    @Benchmark
+    public List<String> lookup() {
+        tokenIndex = tokenIndex + 1 < WAITING_INSTANCES ? tokenIndex + 1 : 0;
+        return index.get(TRIGGER_NAME,
+                         tokens[tokenIndex]);
+    }
+
+    /**
+     * Adds an instance to the index of one million waiting instances and claims it again.
+     */
+    @Benchmark
+    public List<String> putAndTake() {
+        String token = "order-" + nextToken++;
+        index.put(TRIGGER_NAME,
+                  token,
+                  token);
+        return index.take(TRIGGER_NAME,
+                          token);
+    }
+
+    /**
+     * Adds an instance next to one million instances waiting for the same token and removes it again.
+     */
+    @Benchmark
+    public boolean putAndRemoveHotKey() {
+        String instance = "order-" + nextToken++;
+        hotIndex.put(TRIGGER_NAME,
+                     "",
+                     instance);
+        return hotIndex.remove(TRIGGER_NAME,
+                               "",
+                               instance);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.routing.EventSubscription;
+import org.serverless.workflow.api.routing.EventSubscriptionIndex;
+
+/**
+ * Measures routing incoming events to subscribed workflows with the subscription index, compared with
+ * scanning the trigger definitions of every workflow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventRoutingBenchmark {
+
+    private static final int EVENT_COUNT = 1024;
+
+    @Param({"10000", "100000"})
+    public int workflowCount;
+
+    private List<Workflow> workflows;
+    private EventSubscriptionIndex index;
+    private TriggerEvent[] events;
+    private int eventIndex;
+    private int workflowIndex;
+
+    @Setup
+    public void setup() {
+        workflows = new ArrayList<>(workflowCount);
+        index = new EventSubscriptionIndex();
+        for (int i = 0; i < workflowCount; i++) {
+            // a few hundred sources with a handful of event types each
+            Workflow workflow = new Workflow().withId("workflow-" + i)
+                    .withName("workflow-" + i)
+                    .withTriggerDefs(Arrays.asList(new TriggerEvent("created",
+                                                                    "source-" + (i % 500),
+                                                                    "type-" + (i % 7)),
+                                                   new TriggerEvent("updated",
+                                                                    "source-" + (i % 500),
+                                                                    "type-" + (i % 11))));
+            workflows.add(workflow);
+            index.register(workflow);
+        }
+        events = new TriggerEvent[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            events[i] = new TriggerEvent().withSource("source-" + (i * 31 % 500))
+                    .withType("type-" + (i % 11));
+        }
+    }
+
+    private TriggerEvent nextEvent() {
+        eventIndex = (eventIndex + 1) & (EVENT_COUNT - 1);
+        return events[eventIndex];
+    }
+
+    @Benchmark
+    public List<EventSubscription> index() {
+        return index.getSubscriptions(nextEvent());
+    }
+
+    @Benchmark
+    public List<TriggerEvent> scan() {
+        TriggerEvent event = nextEvent();
+        List<TriggerEvent> matches = new ArrayList<>();
+        for (Workflow workflow : workflows) {
+            for (TriggerEvent triggerEvent : workflow.getTriggerDefs()) {
+                if (triggerEvent.getSource().equals(event.getSource()) && triggerEvent.getType().equals(event.getType())) {
+                    matches.add(triggerEvent);
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public void registerAndUnregister() {
+        workflowIndex = workflowIndex + 1 < workflowCount ? workflowIndex + 1 : 0;
+        Workflow workflow = workflows.get(workflowIndex);
+        index.unregister(workflow.getId());
+        index.register(workflow);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.CompiledExpression;
+import org.serverless.workflow.api.ExpressionEvaluator;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.expressions.JexlExpressionEvaluator;
+import org.serverless.workflow.api.expressions.SpelExpressionEvaluator;
+import org.serverless.workflow.spi.ExpressionCache;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+/**
+ * Compares evaluating event expressions with and without the parsed expression cache, and the JEXL evaluator
+ * with the SpEL evaluator in interpreted and compiled mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionEvaluatorBenchmark {
+
+    private static final String EXPRESSION = "type == 'order.created' && metadata.priority == 'high'";
+    private static final String SPEL_EXPRESSION = "type == 'order.created' and metadata['priority'] == 'high'";
+
+    private ExpressionEvaluator cachedEvaluator;
+    private ExpressionEvaluator uncachedEvaluator;
+    private String[] uncachedExpressions;
+    private int uncachedIndex;
+    private CompiledExpression compiledExpression;
+    private ExpressionEvaluator spelInterpretedEvaluator;
+    private ExpressionEvaluator spelCompiledEvaluator;
+    private TriggerEvent triggerEvent;
+
+    @Setup
+    public void setup() {
+        cachedEvaluator = new JexlExpressionEvaluator();
+        // expressions heavier than the cache are never stored, and cycling through more distinct expressions
+        // than the engine keeps makes every evaluation parse again
+        uncachedEvaluator = new JexlExpressionEvaluator(new ExpressionCache<>(1,
+                                                                              1));
+        uncachedExpressions = new String[1024];
+        for (int i = 0; i < uncachedExpressions.length; i++) {
+            uncachedExpressions[i] = EXPRESSION + " && " + i + " >= 0";
+        }
+        compiledExpression = cachedEvaluator.compile(EXPRESSION);
+        spelInterpretedEvaluator = new SpelExpressionEvaluator(SpelCompilerMode.OFF,
+                                                               new ExpressionCache<>(16,
+                                                                                     1024));
+        spelCompiledEvaluator = new SpelExpressionEvaluator(SpelCompilerMode.IMMEDIATE,
+                                                            new ExpressionCache<>(16,
+                                                                                  1024));
+
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("priority",
+                     "high");
+        triggerEvent = new TriggerEvent().withName("order-event")
+                .withSource("shop")
+                .withType("order.created")
+                .withMetadata(metadata);
+        if (!cachedEvaluator.evaluate(EXPRESSION,
+                                      triggerEvent)) {
+            throw new IllegalStateException("Benchmark expression does not match");
+        }
+        if (!spelCompiledEvaluator.evaluate(SPEL_EXPRESSION,
+                                            triggerEvent)) {
+            throw new IllegalStateException("Benchmark spel expression does not match");
+        }
+    }
+
+    @Benchmark
+    public boolean jexlUncached() {
+        uncachedIndex = (uncachedIndex + 1) & (uncachedExpressions.length - 1);
+        return uncachedEvaluator.evaluate(uncachedExpressions[uncachedIndex],
+                                          triggerEvent);
+    }
+
+    @Benchmark
+    public boolean jexlCached() {
+        return cachedEvaluator.evaluate(EXPRESSION,
+                                        triggerEvent);
+    }
+
+    @Benchmark
+    public boolean jexlCompiled() {
+        return compiledExpression.evaluate(triggerEvent);
+    }
+
+    @Benchmark
+    public boolean spelInterpreted() {
+        return spelInterpretedEvaluator.evaluate(SPEL_EXPRESSION,
+                                                 triggerEvent);
+    }
+
+    @Benchmark
+    public boolean spelCompiled() {
+        return spelCompiledEvaluator.evaluate(SPEL_EXPRESSION,
+                                              triggerEvent);
+    }
+}
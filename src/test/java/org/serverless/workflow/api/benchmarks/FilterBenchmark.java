@@ -0,0 +1,101 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.filters.Filter;
+import org.serverless.workflow.api.jsonpath.CompiledFilter;
+
+/**
+ * Measures applying a state filter to a 1 MB payload, with structural sharing compared with deep copying the
+ * input before merging the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CompiledFilter filter;
+    private JsonNode input;
+    private JsonNode result;
+
+    @Setup
+    public void setup() throws Exception {
+        filter = CompiledFilter.compile(new Filter().withInputPath("$.order")
+                                                .withResultPath("$.order.stock")
+                                                .withOutputPath("$"));
+        ObjectNode data = objectMapper.createObjectNode();
+        data.putObject("order").put("id",
+                                    "order-1").put("sku",
+                                                   "sku-1");
+        ArrayNode catalog = data.putArray("catalog");
+        for (int i = 0; i < 10_000; i++) {
+            catalog.addObject()
+                    .put("sku",
+                         "sku-" + i)
+                    .put("name",
+                         "catalog item number " + i)
+                    .put("price",
+                         i * 1.25)
+                    .put("description",
+                         "a description long enough to make the catalog one megabyte");
+        }
+        input = data;
+        int size = objectMapper.writeValueAsBytes(input).length;
+        if (size < 1024 * 1024) {
+            throw new IllegalStateException("Payload is only " + size + " bytes");
+        }
+        result = objectMapper.createObjectNode().put("available",
+                                                     true);
+    }
+
+    @Benchmark
+    public JsonNode structuralSharing() {
+        return filter.apply(input,
+                            order -> result);
+    }
+
+    @Benchmark
+    public JsonNode deepCopy() {
+        JsonNode selected = input.get("order").deepCopy();
+        ObjectNode merged = (ObjectNode) input.deepCopy();
+        ((ObjectNode) merged.get("order")).set("stock",
+                                               result);
+        return selected != null ? merged : null;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.graph.StateGraphAnalyzer;
+import org.serverless.workflow.api.graph.WorkflowGraph;
+import org.serverless.workflow.api.graph.WorkflowGraphCompiler;
+import org.serverless.workflow.api.validation.ValidationError;
+
+/**
+ * Measures compiling generated workflows of increasing size and analyzing the compiled graphs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphAnalysisBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int stateCount;
+
+    private Workflow workflow;
+    private WorkflowGraph graph;
+
+    @Setup
+    public void setup() {
+        workflow = BenchmarkWorkflows.chain(stateCount);
+        graph = WorkflowGraphCompiler.compile(workflow);
+        if (!StateGraphAnalyzer.validate(graph).isEmpty()) {
+            throw new IllegalStateException("Generated workflow has analysis findings");
+        }
+    }
+
+    @Benchmark
+    public WorkflowGraph compile() {
+        return WorkflowGraphCompiler.compile(workflow);
+    }
+
+    @Benchmark
+    public List<ValidationError> analyze() {
+        return StateGraphAnalyzer.validate(graph);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.mapper.WorkflowFormat;
+import org.serverless.workflow.api.mapper.WorkflowObjectMappers;
+
+/**
+ * Measures a read/write round trip with a mapper created per call, against the shared
+ * readers and writers of {@link WorkflowObjectMappers}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectMapperRegistryBenchmark {
+
+    @Param({"10", "100"})
+    public int stateCount;
+
+    private String json;
+    private ObjectReader reader;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setup() throws Exception {
+        reader = WorkflowObjectMappers.getInstance().getReader(WorkflowFormat.JSON,
+                                                               null);
+        writer = WorkflowObjectMappers.getInstance().getWriter(WorkflowFormat.JSON,
+                                                               null,
+                                                               true);
+        json = writer.writeValueAsString(BenchmarkWorkflows.chain(stateCount));
+    }
+
+    @Benchmark
+    public String coldMapper() throws Exception {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+        return mapper.writeValueAsString(mapper.readValue(json,
+                                                          Workflow.class));
+    }
+
+    @Benchmark
+    public String warmReader() throws Exception {
+        return writer.writeValueAsString(reader.readValue(json));
+    }
+}
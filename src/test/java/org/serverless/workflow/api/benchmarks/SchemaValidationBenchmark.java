@@ -0,0 +1,94 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.validation.ValidationError;
+import org.serverless.workflow.api.validation.WorkflowSchemaLoader;
+import org.serverless.workflow.api.validation.WorkflowSchemaValidator;
+
+/**
+ * Measures schema validation of a generated workflow with the cached compiled schema, against
+ * building the schema for every validation. Also compares validating a {@link Workflow} object directly
+ * with serializing it to JSON text first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaValidationBenchmark {
+
+    @Param({"10", "100"})
+    public int stateCount;
+
+    private Workflow workflow;
+    private JsonObjectMapper mapper;
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        workflow = BenchmarkWorkflows.chain(stateCount);
+        mapper = new JsonObjectMapper();
+        json = mapper.writeValueAsString(workflow);
+    }
+
+    @Benchmark
+    public JSONObject cachedSchema() {
+        JSONObject workflow = new JSONObject(json);
+        WorkflowSchemaLoader.getWorkflowSchema().validate(workflow);
+        return workflow;
+    }
+
+    @Benchmark
+    public JSONObject schemaPerValidation() {
+        JSONObject workflow = new JSONObject(json);
+        WorkflowSchemaLoader.loadSchema(WorkflowSchemaLoader.WORKFLOW_SCHEMA).validate(workflow);
+        return workflow;
+    }
+
+    @Benchmark
+    public List<ValidationError> workflowModel() {
+        return WorkflowSchemaValidator.validate(workflow);
+    }
+
+    @Benchmark
+    public JSONObject workflowText() throws Exception {
+        JSONObject workflowJson = new JSONObject(mapper.writeValueAsString(workflow));
+        WorkflowSchemaLoader.getWorkflowSchema().validate(workflowJson);
+        return workflowJson;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.events.TriggerEvent;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+import org.serverless.workflow.api.states.DelayState;
+import org.serverless.workflow.api.states.EventState;
+import org.serverless.workflow.api.states.OperationState;
+import org.serverless.workflow.api.states.ParallelState;
+import org.serverless.workflow.api.states.SubflowState;
+import org.serverless.workflow.api.states.SwitchState;
+
+/**
+ * Measures writing a generated workflow to JSON with the workflow module's cached state serializers,
+ * against serializers which create their bean serializer on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateSerializerBenchmark {
+
+    @Param({"500"})
+    public int stateCount;
+
+    private Workflow workflow;
+    private JsonObjectMapper cachedMapper;
+    private JsonObjectMapper perCallMapper;
+
+    @Setup
+    public void setup() {
+        workflow = BenchmarkWorkflows.chain(stateCount);
+
+        cachedMapper = new JsonObjectMapper();
+
+        perCallMapper = new JsonObjectMapper();
+        SimpleModule perCallModule = new SimpleModule("per-call-module");
+        perCallModule.addSerializer(new PerCallBeanSerializer<>(EventState.class));
+        perCallModule.addSerializer(new PerCallBeanSerializer<>(DelayState.class));
+        perCallModule.addSerializer(new PerCallBeanSerializer<>(OperationState.class));
+        perCallModule.addSerializer(new PerCallBeanSerializer<>(ParallelState.class));
+        perCallModule.addSerializer(new PerCallBeanSerializer<>(SwitchState.class));
+        perCallModule.addSerializer(new PerCallBeanSerializer<>(SubflowState.class));
+        perCallModule.addSerializer(new PerCallBeanSerializer<>(TriggerEvent.class));
+        perCallMapper.registerModule(perCallModule);
+    }
+
+    @Benchmark
+    public String cachedSerializers() throws Exception {
+        return cachedMapper.writeValueAsString(workflow);
+    }
+
+    @Benchmark
+    public String perCallSerializers() throws Exception {
+        return perCallMapper.writeValueAsString(workflow);
+    }
+
+    private static class PerCallBeanSerializer<T> extends StdSerializer<T> {
+
+        PerCallBeanSerializer(Class<T> t) {
+            super(t);
+        }
+
+        @Override
+        public void serialize(T value,
+                              JsonGenerator gen,
+                              SerializerProvider provider) throws IOException {
+            BeanSerializerFactory.instance.createSerializer(provider,
+                                                            TypeFactory.defaultInstance().constructType(handledType())).serialize(value,
+                                                                                                                                  gen,
+                                                                                                                                  provider);
+        }
+    }
+}
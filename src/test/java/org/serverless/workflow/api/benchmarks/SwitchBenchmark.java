@@ -0,0 +1,241 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.serverless.workflow.api.choices.AndChoice;
+import org.serverless.workflow.api.choices.DefaultChoice;
+import org.serverless.workflow.api.choices.NotChoice;
+import org.serverless.workflow.api.choices.OrChoice;
+import org.serverless.workflow.api.choices.SingleChoice;
+import org.serverless.workflow.api.decisions.SwitchCompiler;
+import org.serverless.workflow.api.decisions.SwitchProgram;
+import org.serverless.workflow.api.graph.Transitions;
+import org.serverless.workflow.api.interfaces.Choice;
+
+/**
+ * Measures selecting the next state of a switch state with 20 choices over 3 paths, compiled compared with
+ * interpreting the choices, which resolves the path and parses the value of every comparison. Also measures
+ * switch states of 5000 equals choices and of 1000 range choices on one path, indexed compared with linear.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwitchBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Choice> choices;
+    private SwitchProgram program;
+    private JsonNode[] inputs;
+    private SwitchProgram equalsIndexed;
+    private SwitchProgram equalsLinear;
+    private JsonNode[] equalsInputs;
+    private SwitchProgram rangeIndexed;
+    private SwitchProgram rangeLinear;
+    private JsonNode[] rangeInputs;
+
+    @Setup
+    public void setup() throws Exception {
+        choices = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            choices.add(new SingleChoice().withPath("$.order.region")
+                                .withOperator(DefaultChoice.Operator.EQUALS)
+                                .withValue("region-" + i)
+                                .withNextState("state-" + i));
+        }
+        choices.add(new AndChoice(Arrays.asList(new DefaultChoice("$.order.total",
+                                                                  "100",
+                                                                  DefaultChoice.Operator.GREATER_THAN),
+                                                new DefaultChoice("$.order.total",
+                                                                  "1000",
+                                                                  DefaultChoice.Operator.LESS_THAN_EQUALS)))
+                            .withNextState("medium"));
+        choices.add(new OrChoice(Arrays.asList(new DefaultChoice("$.order.priority",
+                                                                 "high",
+                                                                 DefaultChoice.Operator.EQUALS),
+                                               new DefaultChoice("$.order.priority",
+                                                                 "urgent",
+                                                                 DefaultChoice.Operator.EQUALS)))
+                            .withNextState("expedite"));
+        choices.add(new NotChoice(new DefaultChoice("$.order.total",
+                                                    "0",
+                                                    DefaultChoice.Operator.GREATER_THAN_EQUALS))
+                            .withNextState("refund"));
+        choices.add(new SingleChoice().withPath("$.order.total")
+                            .withOperator(DefaultChoice.Operator.GREATER_THAN)
+                            .withValue("1000")
+                            .withNextState("large"));
+        program = SwitchCompiler.compile(choices,
+                                         "default");
+
+        inputs = new JsonNode[64];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = objectMapper.readTree("{\"order\":{\"region\":\"region-" + (i % 24) + "\",\"total\":" + (i * 37 - 200)
+                                                      + ",\"priority\":\"" + (i % 3 == 0 ? "high" : "low") + "\"}}");
+        }
+
+        List<Choice> equalsChoices = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            equalsChoices.add(new SingleChoice().withPath("$.sku")
+                                      .withOperator(DefaultChoice.Operator.EQUALS)
+                                      .withValue("sku-" + i)
+                                      .withNextState("state-" + i));
+        }
+        equalsIndexed = SwitchCompiler.compile(equalsChoices,
+                                               "default");
+        equalsLinear = SwitchCompiler.compile(equalsChoices,
+                                              "default",
+                                              false);
+        equalsInputs = new JsonNode[64];
+        for (int i = 0; i < equalsInputs.length; i++) {
+            equalsInputs[i] = objectMapper.readTree("{\"sku\":\"sku-" + (i * 83 % 5500) + "\"}");
+        }
+
+        List<Choice> rangeChoices = new ArrayList<>();
+        for (int i = 1000; i > 0; i--) {
+            rangeChoices.add(new SingleChoice().withPath("$.score")
+                                     .withOperator(DefaultChoice.Operator.GREATER_THAN_EQUALS)
+                                     .withValue(String.valueOf(i * 10))
+                                     .withNextState("band-" + i));
+        }
+        rangeIndexed = SwitchCompiler.compile(rangeChoices,
+                                              "default");
+        rangeLinear = SwitchCompiler.compile(rangeChoices,
+                                             "default",
+                                             false);
+        rangeInputs = new JsonNode[64];
+        for (int i = 0; i < rangeInputs.length; i++) {
+            rangeInputs[i] = objectMapper.readTree("{\"score\":" + (i * 157.5 % 10_500) + "}");
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        for (JsonNode input : inputs) {
+            blackhole.consume(program.getNextState(input));
+        }
+    }
+
+    @Benchmark
+    public void interpreted(Blackhole blackhole) {
+        for (JsonNode input : inputs) {
+            blackhole.consume(interpret(input));
+        }
+    }
+
+    @Benchmark
+    public void equalsIndexed(Blackhole blackhole) {
+        for (JsonNode input : equalsInputs) {
+            blackhole.consume(equalsIndexed.getNextState(input));
+        }
+    }
+
+    @Benchmark
+    public void equalsLinear(Blackhole blackhole) {
+        for (JsonNode input : equalsInputs) {
+            blackhole.consume(equalsLinear.getNextState(input));
+        }
+    }
+
+    @Benchmark
+    public void rangeIndexed(Blackhole blackhole) {
+        for (JsonNode input : rangeInputs) {
+            blackhole.consume(rangeIndexed.getNextState(input));
+        }
+    }
+
+    @Benchmark
+    public void rangeLinear(Blackhole blackhole) {
+        for (JsonNode input : rangeInputs) {
+            blackhole.consume(rangeLinear.getNextState(input));
+        }
+    }
+
+    private String interpret(JsonNode input) {
+        for (Choice choice : choices) {
+            boolean matches;
+            if (choice instanceof AndChoice) {
+                matches = true;
+                for (DefaultChoice and : ((AndChoice) choice).getAnd()) {
+                    matches = matches && test(and,
+                                              input);
+                }
+            } else if (choice instanceof OrChoice) {
+                matches = false;
+                for (DefaultChoice or : ((OrChoice) choice).getOr()) {
+                    matches = matches || test(or,
+                                              input);
+                }
+            } else if (choice instanceof NotChoice) {
+                matches = !test(((NotChoice) choice).getNot(),
+                                input);
+            } else {
+                matches = test((DefaultChoice) choice,
+                               input);
+            }
+            if (matches) {
+                return Transitions.getNextState(choice);
+            }
+        }
+        return "default";
+    }
+
+    private static boolean test(DefaultChoice choice,
+                                JsonNode input) {
+        JsonNode node = input.at(choice.getPath().substring(1).replace('.',
+                                                                       '/'));
+        if (node.isNumber()) {
+            int comparison = node.decimalValue().compareTo(new BigDecimal(choice.getValue()));
+            switch (choice.getOperator()) {
+                case EQUALS:
+                    return comparison == 0;
+                case LESS_THAN:
+                    return comparison < 0;
+                case LESS_THAN_EQUALS:
+                    return comparison <= 0;
+                case GREATER_THAN:
+                    return comparison > 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+        return choice.getOperator() == DefaultChoice.Operator.EQUALS && choice.getValue().equals(node.asText());
+    }
+}
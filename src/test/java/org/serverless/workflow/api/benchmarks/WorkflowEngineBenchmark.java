@@ -0,0 +1,138 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.actions.Action;
+import org.serverless.workflow.api.engine.ActionHandler;
+import org.serverless.workflow.api.engine.EngineExecutors;
+import org.serverless.workflow.api.engine.WorkflowEngine;
+import org.serverless.workflow.api.mapper.JsonObjectMapper;
+
+/**
+ * Measures instance throughput of the workflow engine: each operation runs one instance through an operation,
+ * a switch and a parallel operation state. Actions complete either immediately or on another thread, and the
+ * engine runs on its default executor (virtual threads where available) or on the completing thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowEngineBenchmark {
+
+    private static final int INSTANCES = 1000;
+
+    @Param({"default", "direct"})
+    public String executor;
+
+    @Param({"sync", "async"})
+    public String actions;
+
+    private ExecutorService engineExecutor;
+    private ExecutorService actionExecutor;
+    private WorkflowEngine engine;
+    private JsonNode[] inputs;
+
+    @Setup
+    public void setup() throws Exception {
+        actionExecutor = EngineExecutors.newCachedExecutor();
+        ActionHandler actionHandler = (action, input) -> CompletableFuture.completedFuture(call(action,
+                                                                                                input));
+        if ("async".equals(actions)) {
+            actionHandler = ActionHandler.blocking(WorkflowEngineBenchmark::call,
+                                                   actionExecutor);
+        }
+        Executor executor;
+        if ("default".equals(this.executor)) {
+            engineExecutor = EngineExecutors.newDefaultExecutor();
+            executor = engineExecutor;
+        } else {
+            executor = Runnable::run;
+        }
+        engine = new WorkflowEngine(actionHandler,
+                                    executor);
+        engine.deploy(new JsonObjectMapper().readValue(("{'id':'orders','name':'orders','starts-at':'price','states':["
+                + "{'name':'price','type':'OPERATION','action-mode':'SEQUENTIAL','next-state':'route','actions':["
+                + "{'function':{'name':'price','type':'test'},'filter':{'input-path':'$.order','result-path':'$.order.total'}}]},"
+                + "{'name':'route','type':'SWITCH','default':'small','choices':["
+                + "{'path':'$.order.total','value':'100','operator':'GreaterThan','next-state':'large'}]},"
+                + "{'name':'large','type':'OPERATION','action-mode':'PARALLEL','end':true,'actions':["
+                + "{'function':{'name':'approve','type':'test'},'filter':{'result-path':'$.approval'}},"
+                + "{'function':{'name':'notify','type':'test'},'filter':{'result-path':'$.notified'}}]},"
+                + "{'name':'small','type':'OPERATION','action-mode':'SEQUENTIAL','end':true,'actions':["
+                + "{'function':{'name':'approve','type':'test'},'filter':{'result-path':'$.approval'}}]}]}").replace('\'',
+                                                                                                                  '"'),
+                                                       Workflow.class));
+        ObjectMapper objectMapper = new ObjectMapper();
+        inputs = new JsonNode[16];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = objectMapper.readTree("{\"order\":{\"id\":\"order-" + i + "\",\"quantity\":" + (i + 1) + "}}");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+        if (engineExecutor != null) {
+            engineExecutor.shutdownNow();
+        }
+        actionExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTANCES)
+    public Object instances() {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[INSTANCES];
+        for (int i = 0; i < INSTANCES; i++) {
+            results[i] = engine.start("orders",
+                                      inputs[i & (inputs.length - 1)]).getResult();
+        }
+        return CompletableFuture.allOf(results).join();
+    }
+
+    private static JsonNode call(Action action,
+                                 JsonNode input) {
+        String function = action.getFunction().getName();
+        return "price".equals(function) ? IntNode.valueOf(input.get("quantity").intValue() * 30) : TextNode.valueOf(function);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *
+ *   Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.serverless.workflow.api.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.mapper.WorkflowFormat;
+import org.serverless.workflow.api.mapper.WorkflowObjectMappers;
+
+/**
+ * Measures reading and writing a generated workflow in each supported format.
+ * The encoded bytes are reported as a secondary {@code bytes} result, so the size of each format can be read
+ * from the ratio of bytes to operations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowFormatBenchmark {
+
+    @Param({"JSON", "YAML", "SMILE", "CBOR"})
+    public WorkflowFormat format;
+
+    @Param({"500"})
+    public int stateCount;
+
+    private Workflow workflow;
+    private byte[] encoded;
+    private ObjectReader reader;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setup() throws Exception {
+        workflow = BenchmarkWorkflows.chain(stateCount);
+        reader = WorkflowObjectMappers.getInstance().getReader(format,
+                                                               null);
+        writer = WorkflowObjectMappers.getInstance().getWriter(format,
+                                                               null,
+                                                               false);
+        encoded = writer.writeValueAsBytes(workflow);
+    }
+
+    @Benchmark
+    public Workflow read(Counters counters) throws Exception {
+        counters.bytes += encoded.length;
+        return reader.readValue(encoded);
+    }
+
+    @Benchmark
+    public byte[] write(Counters counters) throws Exception {
+        byte[] bytes = writer.writeValueAsBytes(workflow);
+        counters.bytes += bytes.length;
+        return bytes;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
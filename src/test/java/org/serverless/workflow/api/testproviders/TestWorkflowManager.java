@@ -20,20 +20,24 @@ package org.serverless.workflow.api.testproviders;
 
 import org.serverless.workflow.api.ExpressionEvaluator;
 import org.serverless.workflow.api.Workflow;
+import org.serverless.workflow.api.WorkflowIdGenerator;
 import org.serverless.workflow.api.WorkflowManager;
 import org.serverless.workflow.api.WorkflowValidator;
 import org.serverless.workflow.api.interfaces.Extension;
 
 public class TestWorkflowManager implements WorkflowManager {
 
+    private Workflow workflow;
+    private WorkflowIdGenerator idGenerator;
+
     @Override
     public void setWorkflow(Workflow workflow) {
-
+        this.workflow = workflow;
     }
 
     @Override
     public Workflow getWorkflow() {
-        return null;
+        return workflow;
     }
 
     @Override
@@ -91,4 +95,14 @@ public class TestWorkflowManager implements WorkflowManager {
                                   Class<? extends Extension> extensionHandlerClass) {
 
     }
+
+    @Override
+    public void setIdGenerator(WorkflowIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public WorkflowIdGenerator getIdGenerator() {
+        return idGenerator;
+    }
 }